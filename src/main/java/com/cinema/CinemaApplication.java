@@ -1,30 +1,141 @@
 package com.cinema;
 
+import com.cinema.model.Screening;
+import com.cinema.model.Seat;
+import com.cinema.model.Ticket;
+import com.cinema.service.CinemaService;
+import com.cinema.util.PosterCache;
 import com.cinema.util.SceneManager;
+import com.cinema.util.StartupPipeline;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.image.Image;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * Main application class for the Cinema Management System.
  */
 public class CinemaApplication extends Application {
+    private static final String STYLESHEET = CinemaApplication.class.getResource("/styles/style.css").toExternalForm();
+    private static final Path STARTUP_LOG = Paths.get(System.getProperty("user.home"), ".cinema", "startup.log");
+
+    private final StartupPipeline startup = new StartupPipeline();
+    private Stage splashStage;
 
     @Override
-    public void start(Stage primaryStage) throws Exception {
+    public void start(Stage primaryStage) {
         // Set the primary stage in scene manager
         SceneManager.setPrimaryStage(primaryStage);
 
-        // Load the login screen
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"));
-        Parent root = loader.load();
+        // Show the splash before anything slow happens
+        Scene splashScene = startup.runStage("splash", this::showSplash);
+
+        // Firebase credentials, then the catalog and sales; the service waits for the credentials
+        CompletableFuture<Boolean> credentials = startup.startStage("credentials", CinemaService::connectDataStore);
+        CompletableFuture<CinemaService> data = startup.startStageAfter(credentials, "data", () -> {
+            CinemaService service = CinemaService.getInstance();
+            // Deliver seat changes on the FX thread, merged per pulse, so open seat maps can repaint them
+            service.setSeatChangeExecutor(Platform::runLater);
+            service.addSaleConflictListener((ticket, takenSeats) ->
+                    Platform.runLater(() -> showSaleConflict(ticket, takenSeats)));
+            return service;
+        });
+
+        // Meanwhile parse the login screen; its controller looks the service up only when it is used
+        CompletableFuture<Parent> loginView = startup.startStage("login fxml", () -> {
+            try {
+                return new FXMLLoader(getClass().getResource("/fxml/login.fxml")).<Parent>load();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        CompletableFuture<Image> icon = startup.startStage("icon", this::loadIcon);
+
+        // ...and the stylesheet on the FX thread once the splash is on screen.
+        // The splash keeps the parsed sheet cached until the main scene uses it
+        afterFirstLayout(splashScene, () -> Platform.runLater(() -> startup.runStage("stylesheet", () -> {
+            splashScene.getStylesheets().add(STYLESHEET);
+            splashScene.getRoot().applyCss();
+            return null;
+        })));
+
+        CompletableFuture.allOf(data, loginView, icon).whenComplete((ignored, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.err.println("Startup failed: " + error.getMessage());
+                error.printStackTrace();
+                Platform.exit();
+                return;
+            }
+            startup.runStage("show login", () -> {
+                showMainStage(primaryStage, loginView.join(), icon.join());
+                return null;
+            });
+        }));
+    }
+
+    /**
+     * Shows a small window with the application name while the rest of
+     * startup runs. It is styled inline, since the stylesheet is parsed after it.
+     */
+    private Scene showSplash() {
+        Label title = new Label("Cinema Management System");
+        title.setStyle("-fx-font-size: 22px; -fx-font-weight: bold; -fx-text-fill: white;");
+        Label status = new Label("Loading...");
+        status.setStyle("-fx-text-fill: #bdc3c7;");
+        ProgressBar progress = new ProgressBar();
+        progress.setPrefWidth(260);
+
+        VBox content = new VBox(15, title, progress, status);
+        content.setAlignment(Pos.CENTER);
+        content.setPadding(new Insets(30));
+        content.setStyle("-fx-background-color: #1a2634; -fx-background-radius: 10;");
+
+        Scene scene = new Scene(content, 420, 200);
+        splashStage = new Stage(StageStyle.UNDECORATED);
+        splashStage.setScene(scene);
+        splashStage.centerOnScreen();
+        splashStage.show();
+        return scene;
+    }
+
+    private Image loadIcon() {
+        try {
+            return new Image(getClass().getResourceAsStream("/images/app_icon.png"));
+        } catch (Exception e) {
+            System.err.println("Could not load app icon: " + e.getMessage());
+            return null;
+        }
+    }
 
+    private void showMainStage(Stage primaryStage, Parent root, Image icon) {
         // Create the scene with default dimensions
         Scene scene = new Scene(root, 900, 600);
-        scene.getStylesheets().add(getClass().getResource("/styles/style.css").toExternalForm());
+        scene.getStylesheets().add(STYLESHEET);
+
+        // Time to interactive is taken once the login screen has been laid out for its first frame
+        afterFirstLayout(scene, () -> {
+            startup.markInteractive();
+            System.out.print(startup.getReport());
+            startup.appendToLog(STARTUP_LOG);
+        });
 
         // Configure the stage
         primaryStage.setTitle("Cinema Management System");
@@ -34,15 +145,54 @@ public class CinemaApplication extends Application {
         primaryStage.setResizable(true);
         
         // Set app icon
-        try {
-            primaryStage.getIcons().add(new Image(getClass().getResourceAsStream("/images/app_icon.png")));
-        } catch (Exception e) {
-            System.err.println("Could not load app icon: " + e.getMessage());
+        if (icon != null) {
+            primaryStage.getIcons().add(icon);
         }
 
         // Show the stage maximized
         primaryStage.setMaximized(true);
         primaryStage.show();
+        splashStage.close();
+    }
+
+    /**
+     * Tells the cashier that a ticket sold while offline was withdrawn,
+     * since the customer has to be contacted.
+     */
+    private static void showSaleConflict(Ticket ticket, List<Seat> takenSeats) {
+        Screening screening = ticket.getScreening();
+        String seats = takenSeats.stream().map(Seat::getSeatLabel).collect(Collectors.joining(", "));
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Offline Sale Withdrawn");
+        alert.setHeaderText("A ticket sold while offline could not be confirmed");
+        alert.setContentText("The ticket of " + ticket.getCustomerFullName() + " for "
+                + screening.getMovie().getTitle() + " on " + screening.getFormattedDate() + " at "
+                + screening.getFormattedTime() + " was cancelled: seat(s) " + seats
+                + " were sold at another terminal in the meantime. Please contact the customer.");
+        alert.getDialogPane().getStylesheets().add(STYLESHEET);
+        alert.show();
+    }
+
+    /**
+     * Runs an action once, right after the scene's next layout pass, i.e.
+     * just before its first frame is drawn.
+     */
+    private static void afterFirstLayout(Scene scene, Runnable action) {
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        // Send any queued writes and close the booking journal before the JVM exits
+        CinemaService.getInstance().shutdown();
+        System.out.println("Poster cache: " + PosterCache.getInstance().getStats());
+        System.out.print("Scene switches:\n" + SceneManager.getSwitchTimings());
     }
 
     public static void main(String[] args) {
@@ -2,12 +2,13 @@ package com.cinema.controller;
 
 import com.cinema.model.Movie;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
+import com.cinema.util.PosterCache;
 import com.cinema.util.SceneManager;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -18,6 +19,7 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller for the Add Movie screen (Cashier functionality).
@@ -192,24 +194,17 @@ public class AddMovieController {
             return;
         }
         
-        try {
-            Image image = new Image(imageUrl, 200, 280, true, true, true);
-            image.errorProperty().addListener((obs, oldError, newError) -> {
-                if (newError) {
-                    showError("Failed to load image. Please check the URL.");
-                    placeholderBox.setVisible(true);
-                    posterPreview.setImage(null);
-                }
-            });
-            
-            if (!image.isError()) {
-                posterPreview.setImage(image);
-                placeholderBox.setVisible(false);
-                errorLabel.setText("");
+        AsyncUtil.onFxThread(PosterCache.getInstance().load(imageUrl, 200, 280), image -> {
+            if (image == null) {
+                showError("Failed to load image. Please check the URL.");
+                placeholderBox.setVisible(true);
+                posterPreview.setImage(null);
+                return;
             }
-        } catch (Exception e) {
-            showError("Invalid image URL.");
-        }
+            posterPreview.setImage(image);
+            placeholderBox.setVisible(false);
+            errorLabel.setText("");
+        }, error -> showError("Invalid image URL."));
     }
 
     @FXML
@@ -309,9 +304,21 @@ public class AddMovieController {
             validScreenings.add(new ScreeningData(screeningDate, startTime, endTime, hall, price));
         }
 
+        // Check all screenings against the hall schedules and each other in one pass
+        List<CinemaService.ScreeningSlot> slots = new ArrayList<>();
+        for (ScreeningData sd : validScreenings) {
+            slots.add(new CinemaService.ScreeningSlot(sd.date, sd.startTime, sd.endTime, sd.hall));
+        }
+        Map<Integer, String> conflicts = cinemaService.validateSchedule(slots);
+        if (!conflicts.isEmpty()) {
+            Map.Entry<Integer, String> first = conflicts.entrySet().iterator().next();
+            showError("Screening #" + (first.getKey() + 1) + ": " + first.getValue());
+            return;
+        }
+
         // Create the movie with first screening
         ScreeningData firstScreening = validScreenings.get(0);
-        Movie movie = cinemaService.addMovie(
+        AsyncUtil.onFxThread(cinemaService.addMovieAsync(
                 title,
                 "", // description
                 genre,
@@ -323,17 +330,29 @@ public class AddMovieController {
                 firstScreening.endTime,
                 firstScreening.hall,
                 firstScreening.price
-        );
+        ), movie -> addRemainingScreenings(movie, validScreenings),
+                error -> showError("Failed to add movie: " + error.getMessage()));
+    }
 
+    private void addRemainingScreenings(Movie movie, List<ScreeningData> validScreenings) {
+        ScreeningData firstScreening = validScreenings.get(0);
         if (movie != null) {
             // Add additional screenings
+            List<Integer> rejected = new ArrayList<>();
             for (int i = 1; i < validScreenings.size(); i++) {
                 ScreeningData sd = validScreenings.get(i);
-                cinemaService.addScreeningToMovie(movie, sd.date, sd.startTime, sd.hall, sd.price);
+                if (cinemaService.addScreeningToMovie(movie, sd.date, sd.startTime, sd.endTime, sd.hall, sd.price) == null) {
+                    rejected.add(i + 1);
+                }
+            }
+            if (rejected.isEmpty()) {
+                showSuccessScreen();
+            } else {
+                // Another cashier booked the hall between validation and saving
+                showError("Movie added, but screening(s) " + rejected + " now overlap another screening.");
             }
-            showSuccessScreen();
         } else {
-            showError("Failed to add movie. Please try again.");
+            showError("Failed to add movie. Screening #1 overlaps another screening in " + firstScreening.hall + ".");
         }
     }
 
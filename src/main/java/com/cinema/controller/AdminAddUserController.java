@@ -3,6 +3,7 @@ package com.cinema.controller;
 import com.cinema.model.User;
 import com.cinema.model.UserRole;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
 import com.cinema.util.SceneManager;
 import com.cinema.util.ValidationUtil;
 import javafx.fxml.FXML;
@@ -174,15 +175,15 @@ public class AdminAddUserController {
 
         // Create the user
         User newUser = new User(email, firstName, lastName, phone, password, role);
-        boolean success = cinemaService.registerUser(newUser);
-
-        if (success) {
-            GenericSuccessController.setSuccessMessage("The User has been added", "successfully");
-            GenericSuccessController.setReturnScene("/fxml/admin_user_management.fxml");
-            SceneManager.switchScene("/fxml/generic_success.fxml");
-        } else {
-            showError("Failed to create user. Please try again.");
-        }
+        AsyncUtil.onFxThread(cinemaService.registerUserAsync(newUser), success -> {
+            if (success) {
+                GenericSuccessController.setSuccessMessage("The User has been added", "successfully");
+                GenericSuccessController.setReturnScene("/fxml/admin_user_management.fxml");
+                SceneManager.switchScene("/fxml/generic_success.fxml");
+            } else {
+                showError("Failed to create user. Please try again.");
+            }
+        }, error -> showError("Failed to create user. Please try again."));
     }
 
     private UserRole getSelectedRole() {
@@ -3,6 +3,7 @@ package com.cinema.controller;
 import com.cinema.model.User;
 import com.cinema.model.UserRole;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
 import com.cinema.util.SceneManager;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -14,7 +15,6 @@ import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -95,9 +95,10 @@ public class AdminUserManagementController {
     }
 
     private void loadUsers() {
-        usersList.clear();
-        List<User> users = cinemaService.getAllUsers();
-        usersList.addAll(users);
+        // Show the users known locally right away, then refresh from Firebase
+        usersList.setAll(cinemaService.getAllUsers());
+        AsyncUtil.onFxThread(cinemaService.getAllUsersAsync(), usersList::setAll,
+                error -> showAlert("Error", "Could not refresh users: " + error.getMessage()));
     }
 
     private void handleDeleteUser(User user) {
@@ -150,15 +151,16 @@ public class AdminUserManagementController {
 
         Optional<ButtonType> result = dialog.showAndWait();
         if (result.isPresent() && result.get() == yesButton) {
-            boolean deleted = cinemaService.deleteUser(user.getEmail());
-            if (deleted) {
-                // Show success and refresh
-                GenericSuccessController.setSuccessMessage("The user has been deleted", "successfully");
-                GenericSuccessController.setReturnScene("/fxml/admin_user_management.fxml");
-                SceneManager.switchScene("/fxml/generic_success.fxml");
-            } else {
-                showAlert("Error", "Failed to delete user.");
-            }
+            AsyncUtil.onFxThread(cinemaService.deleteUserAsync(user.getEmail()), deleted -> {
+                if (deleted) {
+                    // Show success and refresh
+                    GenericSuccessController.setSuccessMessage("The user has been deleted", "successfully");
+                    GenericSuccessController.setReturnScene("/fxml/admin_user_management.fxml");
+                    SceneManager.switchScene("/fxml/generic_success.fxml");
+                } else {
+                    showAlert("Error", "Failed to delete user.");
+                }
+            }, error -> showAlert("Error", "Failed to delete user."));
         }
     }
 
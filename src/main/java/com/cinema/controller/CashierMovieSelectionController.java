@@ -2,25 +2,29 @@ package com.cinema.controller;
 
 import com.cinema.model.*;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
+import com.cinema.util.DebouncedSearch;
+import com.cinema.util.PosterCache;
+import com.cinema.util.ReusableView;
 import com.cinema.util.SceneManager;
+import com.cinema.view.MovieCard;
+import com.cinema.view.MovieCardPool;
 import javafx.fxml.FXML;
-import javafx.geometry.Insets;
-import javafx.geometry.Pos;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Controller for the Cashier's movie selection screen.
  */
-public class CashierMovieSelectionController {
+public class CashierMovieSelectionController implements ReusableView {
 
     @FXML
     private Button backButton;
@@ -34,15 +38,89 @@ public class CashierMovieSelectionController {
     @FXML
     private Label noMoviesLabel;
 
+    @FXML
+    private Label syncStatusLabel;
+
+    @FXML
+    private ProgressIndicator searchProgress;
+
+    /** How long the date must stay unchanged before its movies are searched. */
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+
     private final CinemaService cinemaService = CinemaService.getInstance();
+    private DebouncedSearch<LocalDate, List<Movie>> movieSearch;
+    private MovieCardPool movieCards;
 
     @FXML
     public void initialize() {
+        movieCards = new MovieCardPool(moviesFlowPane, () -> {
+            MovieCard card = new MovieCard();
+            card.setOnScreeningSelected(this::handleScreeningSelected);
+            card.setOnDelete(movie -> handleDeleteMovie(movie, deleted -> movieCards.remove(movie.getId())));
+            return card;
+        });
+        movieSearch = new DebouncedSearch<>(SEARCH_DELAY, cinemaService::getMoviesWithScreeningsOnDateAsync,
+                this::showMovies, (date, error) -> showMovies(date, cinemaService.getMoviesWithScreeningsOnDate(date)));
+        movieSearch.setOnLoadingChanged(this::showLoading);
+        reset();
+
+        // Follow the date picker as the cashier steps through dates
+        datePicker.valueProperty().addListener((obs, oldDate, newDate) -> {
+            if (newDate != null) {
+                movieSearch.request(newDate);
+            }
+        });
+    }
+
+    @Override
+    public void onHidden() {
+        movieSearch.cancel();
+    }
+
+    @Override
+    public void reset() {
         // Set default date to today
         datePicker.setValue(LocalDate.now());
         
         // Load movies for today
         loadMoviesForDate(LocalDate.now());
+
+        // Fetch every poster in the background so changing the date does not wait for downloads
+        PosterCache.getInstance().prefetch(cinemaService.getAllMovies().stream().map(Movie::getPosterPath).toList(),
+                PosterCache.THUMBNAIL_WIDTH, PosterCache.THUMBNAIL_HEIGHT);
+    }
+
+    @FXML
+    private void handleResync() {
+        syncStatusLabel.setText("Syncing...");
+        AsyncUtil.onFxThread(cinemaService.resyncFromFirebaseAsync(), v -> {
+            LocalDate selectedDate = datePicker.getValue();
+            loadMoviesForDate(selectedDate != null ? selectedDate : LocalDate.now());
+        }, error -> {
+            System.err.println("Resync failed: " + error.getMessage());
+            updateSyncStatus();
+        });
+    }
+
+    private void updateSyncStatus() {
+        syncStatusLabel.getStyleClass().remove("sync-live");
+        if (!cinemaService.isFirebaseConnected()) {
+            syncStatusLabel.setText("Offline mode");
+        } else if (cinemaService.isLiveSyncActive()) {
+            syncStatusLabel.setText("● Live");
+            syncStatusLabel.getStyleClass().add("sync-live");
+        } else if (cinemaService.getLastSyncTime() > 0) {
+            String time = Instant.ofEpochMilli(cinemaService.getLastSyncTime())
+                    .atZone(ZoneId.systemDefault())
+                    .format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+            syncStatusLabel.setText("Last synced " + time);
+        } else {
+            syncStatusLabel.setText("Not synced");
+        }
+        int pending = cinemaService.getPendingWriteCount();
+        if (pending > 0) {
+            syncStatusLabel.setText(syncStatusLabel.getText() + " (" + pending + " pending)");
+        }
     }
 
     @FXML
@@ -72,9 +150,16 @@ public class CashierMovieSelectionController {
     }
 
     private void loadMoviesForDate(LocalDate date) {
-        moviesFlowPane.getChildren().clear();
-        
-        List<Movie> movies = cinemaService.getMoviesWithScreeningsOnDate(date);
+        movieSearch.requestNow(date);
+    }
+
+    private void showLoading(boolean loading) {
+        searchProgress.setVisible(loading);
+        moviesFlowPane.setOpacity(loading ? 0.6 : 1.0);
+    }
+
+    private void showMovies(LocalDate date, List<Movie> movies) {
+        updateSyncStatus();
         
         if (movies.isEmpty()) {
             noMoviesLabel.setVisible(true);
@@ -82,109 +167,8 @@ public class CashierMovieSelectionController {
         } else {
             noMoviesLabel.setVisible(false);
             noMoviesLabel.setManaged(false);
-            
-            for (Movie movie : movies) {
-                VBox movieCard = createMovieCard(movie, date);
-                moviesFlowPane.getChildren().add(movieCard);
-            }
-        }
-    }
-
-    private VBox createMovieCard(Movie movie, LocalDate date) {
-        VBox card = new VBox(10);
-        card.getStyleClass().add("movie-card");
-        card.setAlignment(Pos.TOP_CENTER);
-        card.setPrefWidth(220);
-        card.setPadding(new Insets(15));
-
-        // Movie poster container
-        StackPane posterContainer = new StackPane();
-        posterContainer.getStyleClass().add("poster-container");
-        posterContainer.setPrefSize(180, 250);
-        
-        Rectangle posterPlaceholder = new Rectangle(180, 250);
-        posterPlaceholder.setFill(Color.web("#2a2a2a"));
-        posterPlaceholder.setArcWidth(10);
-        posterPlaceholder.setArcHeight(10);
-        
-        Label posterLabel = new Label("\ud83c\udfac");
-        posterLabel.setStyle("-fx-font-size: 48px;");
-        
-        posterContainer.getChildren().addAll(posterPlaceholder, posterLabel);
-        
-        // Try to load movie poster from URL
-        String posterUrl = movie.getPosterPath();
-        if (posterUrl != null && !posterUrl.isEmpty() && posterUrl.startsWith("http")) {
-            try {
-                ImageView posterImageView = new ImageView();
-                posterImageView.setFitWidth(180);
-                posterImageView.setFitHeight(250);
-                posterImageView.setPreserveRatio(true);
-                
-                // Create a clipping rectangle for rounded corners
-                Rectangle clip = new Rectangle(180, 250);
-                clip.setArcWidth(10);
-                clip.setArcHeight(10);
-                posterImageView.setClip(clip);
-                
-                Image image = new Image(posterUrl, 180, 250, true, true, true);
-                posterImageView.setImage(image);
-                
-                // Hide placeholder when image loads successfully
-                image.progressProperty().addListener((obs, oldProgress, newProgress) -> {
-                    if (newProgress.doubleValue() >= 1.0 && !image.isError()) {
-                        posterLabel.setVisible(false);
-                    }
-                });
-                
-                posterContainer.getChildren().add(posterImageView);
-            } catch (Exception e) {
-                // Keep placeholder if image fails to load
-            }
-        }
-
-        // Movie title
-        Label titleLabel = new Label(movie.getTitle());
-        titleLabel.getStyleClass().add("movie-title");
-        titleLabel.setWrapText(true);
-        titleLabel.setMaxWidth(180);
-
-        // Movie info
-        Label infoLabel = new Label(movie.getFormattedDuration() + " | " + movie.getRating());
-        infoLabel.getStyleClass().add("movie-info");
-
-        // Screenings for this date
-        VBox screeningsBox = new VBox(5);
-        screeningsBox.setAlignment(Pos.CENTER);
-        
-        Label screeningsTitle = new Label("Showtimes:");
-        screeningsTitle.getStyleClass().add("screenings-title");
-        screeningsBox.getChildren().add(screeningsTitle);
-
-        FlowPane timesBox = new FlowPane();
-        timesBox.setHgap(5);
-        timesBox.setVgap(5);
-        timesBox.setAlignment(Pos.CENTER);
-        timesBox.setPrefWrapLength(180);
-        
-        List<Screening> screenings = movie.getScreeningsForDate(date);
-        for (Screening screening : screenings) {
-            Button timeButton = new Button(screening.getFormattedTime());
-            timeButton.getStyleClass().add("btn-time");
-            timeButton.setOnAction(e -> handleScreeningSelected(screening));
-            timesBox.getChildren().add(timeButton);
         }
-        
-        screeningsBox.getChildren().add(timesBox);
-
-        // Delete Movie Button
-        Button deleteButton = new Button("Delete Movie");
-        deleteButton.getStyleClass().add("btn-delete");
-        deleteButton.setOnAction(e -> handleDeleteMovie(movie, screening -> loadMoviesForDate(date)));
-
-        card.getChildren().addAll(posterContainer, titleLabel, infoLabel, screeningsBox, deleteButton);
-        
-        return card;
+        movieCards.show(date, movies);
     }
 
     private void handleScreeningSelected(Screening screening) {
@@ -210,13 +194,30 @@ public class CashierMovieSelectionController {
 
         Optional<ButtonType> result = confirmDialog.showAndWait();
         if (result.isPresent() && result.get() == yesButton) {
-            boolean deleted = cinemaService.deleteMovie(movie.getId());
-            if (deleted) {
-                showSuccessAndReturn("The movie has been deleted successfully");
-            }
+            AsyncUtil.onFxThread(cinemaService.deleteMovieAsync(movie.getId()), deleted -> {
+                if (deleted) {
+                    onDeleted.accept(null);
+                    showSuccessAndReturn("The movie has been deleted successfully");
+                }
+            }, error -> {
+                // Already removed here, so refresh the list before reporting it
+                onDeleted.accept(null);
+                showDeleteError("The movie could not be deleted from the database: " + error.getMessage());
+            });
         }
     }
 
+    private void showDeleteError(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.getDialogPane().getStylesheets().add(
+                getClass().getResource("/styles/style.css").toExternalForm());
+        alert.showAndWait();
+        loadMoviesForDate(datePicker.getValue());
+    }
+
     private void showSuccessAndReturn(String message) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Success");
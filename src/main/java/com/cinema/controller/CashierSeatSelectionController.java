@@ -2,21 +2,29 @@ package com.cinema.controller;
 
 import com.cinema.model.*;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
+import com.cinema.util.ReusableView;
 import com.cinema.util.SceneManager;
+import com.cinema.view.SeatMapView;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Controller for the Cashier's seat selection screen with reservation management.
  */
-public class CashierSeatSelectionController {
+public class CashierSeatSelectionController implements ReusableView {
 
     @FXML
     private Label movieTitleLabel;
@@ -31,13 +39,19 @@ public class CashierSeatSelectionController {
     private Label totalPriceLabel;
 
     @FXML
-    private GridPane seatsGrid;
+    private SeatMapView seatMap;
 
     @FXML
     private Button bookButton;
 
     @FXML
-    private VBox reservationsListBox;
+    private Spinner<Integer> bestSeatCountSpinner;
+
+    @FXML
+    private TextField reservationFilterField;
+
+    @FXML
+    private ListView<Ticket> reservationsListView;
 
     @FXML
     private Button changeTicketButton;
@@ -47,13 +61,60 @@ public class CashierSeatSelectionController {
 
     private final CinemaService cinemaService = CinemaService.getInstance();
     private Screening currentScreening;
-    private final List<Seat> selectedSeats = new ArrayList<>();
     private Ticket selectedTicket = null;
-    private ToggleGroup reservationToggleGroup;
+    private Object pendingSale; // the sale being confirmed, if any; Book stays disabled meanwhile
+    private Object pendingCancellation; // likewise for a cancellation; Change and Cancel stay disabled
+
+    // All tickets of the screening; the list view shows them filtered and sorted by name
+    private final ObservableList<Ticket> reservations = FXCollections.observableArrayList();
+    private final FilteredList<Ticket> filteredReservations = new FilteredList<>(reservations);
+    private final Label reservationsPlaceholder = new Label("No reservations yet");
+    private final CinemaService.TicketListener reservationListener = new CinemaService.TicketListener() {
+        @Override
+        public void onTicketAdded(Ticket ticket) {
+            Platform.runLater(() -> addReservation(ticket));
+        }
+
+        @Override
+        public void onTicketRemoved(Ticket ticket) {
+            Platform.runLater(() -> removeReservation(ticket));
+        }
+    };
 
     @FXML
     public void initialize() {
-        reservationToggleGroup = new ToggleGroup();
+        seatMap.setOnSelectionChanged(this::updateSelectionInfo);
+        seatMap.setLiveUpdates(cinemaService);
+        reservationsPlaceholder.getStyleClass().add("no-reservations-label");
+        reservationsListView.setPlaceholder(reservationsPlaceholder);
+        reservationsListView.setItems(new SortedList<>(filteredReservations,
+                Comparator.comparing(Ticket::getCustomerFullName, String.CASE_INSENSITIVE_ORDER)));
+        reservationsListView.setCellFactory(listView -> new ReservationCell());
+        reservationsListView.getSelectionModel().selectedItemProperty().addListener((obs, oldTicket, newTicket) -> {
+            selectedTicket = newTicket;
+            updateActionButtons();
+        });
+        reservationFilterField.textProperty().addListener((obs, oldText, newText) -> applyReservationFilter(newText));
+    }
+
+    @Override
+    public void reset() {
+        cinemaService.removeTicketListener(reservationListener);
+        pendingSale = null;
+        pendingCancellation = null;
+        currentScreening = null;
+        seatMap.setScreening(null);
+        reservations.clear();
+        reservationFilterField.clear();
+        bestSeatCountSpinner.getValueFactory().setValue(2);
+    }
+
+    @Override
+    public void onHidden() {
+        cinemaService.removeTicketListener(reservationListener);
+        // A sale still in flight completes in the service; its outcome is no longer shown here
+        pendingSale = null;
+        pendingCancellation = null;
     }
 
     public void setScreening(Screening screening) {
@@ -67,159 +128,137 @@ public class CashierSeatSelectionController {
                 screening.getHall()
         );
         
-        // Build seat grid
-        buildSeatGrid();
+        // Show the seat map
+        seatMap.setScreening(screening);
         updateSelectionInfo();
         
         // Load reservations
         loadReservations();
     }
 
-    private void buildSeatGrid() {
-        seatsGrid.getChildren().clear();
-        
-        int totalRows = currentScreening.getTotalRows();
-        int seatsPerRow = currentScreening.getSeatsPerRow();
-        
-        for (int row = 0; row < totalRows; row++) {
-            char rowLetter = (char) ('A' + row);
-            
-            // Row label on the left
-            Label rowLabel = new Label(String.valueOf(rowLetter));
-            rowLabel.getStyleClass().add("row-label");
-            rowLabel.setMinWidth(25);
-            rowLabel.setAlignment(Pos.CENTER);
-            seatsGrid.add(rowLabel, 0, row);
-            
-            // Seats for this row
-            HBox rowSeats = new HBox(5);
-            rowSeats.setAlignment(Pos.CENTER);
-            
-            for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
-                Seat seat = currentScreening.getSeat(String.valueOf(rowLetter), seatNum);
-                ToggleButton seatButton = createSeatButton(seat);
-                rowSeats.getChildren().add(seatButton);
-            }
-            
-            seatsGrid.add(rowSeats, 1, row);
-            
-            // Row label on the right
-            Label rowLabelRight = new Label(String.valueOf(rowLetter));
-            rowLabelRight.getStyleClass().add("row-label");
-            rowLabelRight.setMinWidth(25);
-            rowLabelRight.setAlignment(Pos.CENTER);
-            seatsGrid.add(rowLabelRight, 2, row);
-        }
-    }
-
-    private ToggleButton createSeatButton(Seat seat) {
-        ToggleButton button = new ToggleButton(String.valueOf(seat.getSeatNumber()));
-        button.setPrefSize(32, 32);
-        button.setMinSize(32, 32);
-        button.setMaxSize(32, 32);
-        
-        if (seat.isAvailable()) {
-            button.getStyleClass().add("seat-button-available");
-            button.setOnAction(e -> handleSeatToggle(seat, button));
-        } else {
-            button.getStyleClass().add("seat-button-reserved");
-            button.setDisable(true);
-        }
-        
-        return button;
-    }
-
-    private void handleSeatToggle(Seat seat, ToggleButton button) {
-        if (button.isSelected()) {
-            selectedSeats.add(seat);
-            button.getStyleClass().remove("seat-button-available");
-            button.getStyleClass().add("seat-button-selected");
-        } else {
-            selectedSeats.remove(seat);
-            button.getStyleClass().remove("seat-button-selected");
-            button.getStyleClass().add("seat-button-available");
+    @FXML
+    private void handleBestSeats() {
+        int count = bestSeatCountSpinner.getValue();
+        List<Seat> bestSeats = currentScreening.findBestSeats(count);
+        if (bestSeats.isEmpty()) {
+            showAlert("No Seats Together", "There is no row with " + count + " free seats next to each other.");
+            return;
         }
+        seatMap.setSelectedSeats(bestSeats);
         updateSelectionInfo();
     }
 
     private void updateSelectionInfo() {
-        int count = selectedSeats.size();
+        int count = seatMap.getSelectedSeats().size();
         selectedSeatsLabel.setText("Selected: " + count + " seat" + (count != 1 ? "s" : ""));
         
         double total = count * currentScreening.getPrice();
         totalPriceLabel.setText(String.format("Total: $%.2f", total));
         
-        bookButton.setDisable(count == 0);
+        bookButton.setDisable(pendingSale != null || count == 0);
     }
 
     private void loadReservations() {
-        reservationsListBox.getChildren().clear();
-        selectedTicket = null;
-        updateActionButtons();
-        
-        List<Ticket> tickets = cinemaService.getTicketsForScreening(currentScreening.getId());
-        
-        if (tickets.isEmpty()) {
-            Label noReservationsLabel = new Label("No reservations yet");
-            noReservationsLabel.getStyleClass().add("no-reservations-label");
-            reservationsListBox.getChildren().add(noReservationsLabel);
-        } else {
-            for (Ticket ticket : tickets) {
-                VBox ticketCard = createTicketCard(ticket);
-                reservationsListBox.getChildren().add(ticketCard);
+        // Later sales and cancellations arrive as single changes through the listener
+        cinemaService.removeTicketListener(reservationListener);
+        cinemaService.addTicketListener(reservationListener);
+        Screening screening = currentScreening;
+        reservations.clear();
+        reservationsPlaceholder.setText("Loading reservations...");
+        AsyncUtil.onFxThread(cinemaService.getTicketsForScreeningAsync(screening.getId()), tickets -> {
+            if (currentScreening == screening) {
+                reservations.setAll(tickets);
+                applyReservationFilter(reservationFilterField.getText());
             }
+        }, error -> reservationsPlaceholder.setText("Could not load reservations"));
+    }
+
+    private void addReservation(Ticket ticket) {
+        if (isForCurrentScreening(ticket)) {
+            // The ticket may already be in the list if it was sold while the list was loading
+            removeReservation(ticket);
+            reservations.add(ticket);
         }
     }
 
-    private VBox createTicketCard(Ticket ticket) {
-        VBox card = new VBox(5);
-        card.getStyleClass().add("reservation-card");
-        card.setPadding(new Insets(10));
-        
-        // Radio button for selection
-        RadioButton radioButton = new RadioButton();
-        radioButton.setToggleGroup(reservationToggleGroup);
-        radioButton.setOnAction(e -> {
-            selectedTicket = ticket;
-            updateActionButtons();
-        });
-        
-        // Customer name
-        Label customerLabel = new Label(ticket.getCustomerFullName());
-        customerLabel.getStyleClass().add("reservation-customer");
-        
-        // Seats
-        Label seatsLabel = new Label("Seats: " + ticket.getSeatsDisplay());
-        seatsLabel.getStyleClass().add("reservation-seats");
-        
-        // Price
-        Label priceLabel = new Label(String.format("$%.2f", ticket.getTotalPrice()));
-        priceLabel.getStyleClass().add("reservation-price");
-        
-        HBox headerBox = new HBox(10);
-        headerBox.setAlignment(Pos.CENTER_LEFT);
-        headerBox.getChildren().addAll(radioButton, customerLabel);
-        
-        card.getChildren().addAll(headerBox, seatsLabel, priceLabel);
-        
-        // Make the whole card clickable
-        card.setOnMouseClicked(e -> {
-            radioButton.setSelected(true);
-            selectedTicket = ticket;
-            updateActionButtons();
-        });
-        
-        return card;
+    private void removeReservation(Ticket ticket) {
+        if (isForCurrentScreening(ticket)) {
+            String ticketId = ticket.getId();
+            reservations.removeIf(reservation -> reservation.getId().equals(ticketId));
+        }
+    }
+
+    private boolean isForCurrentScreening(Ticket ticket) {
+        return currentScreening != null && ticket.getScreening() != null
+                && currentScreening.getId().equals(ticket.getScreening().getId());
+    }
+
+    private void applyReservationFilter(String text) {
+        String query = text == null ? "" : text.trim().toLowerCase();
+        if (query.isEmpty()) {
+            filteredReservations.setPredicate(null);
+            reservationsPlaceholder.setText("No reservations yet");
+        } else {
+            filteredReservations.setPredicate(ticket -> ticket.getCustomerFullName().toLowerCase().contains(query));
+            reservationsPlaceholder.setText("No reservations match \"" + text.trim() + "\"");
+        }
+    }
+
+    /**
+     * Reservation card reused by the list view as it scrolls, so only the
+     * visible reservations have nodes.
+     */
+    private static class ReservationCell extends ListCell<Ticket> {
+        private final VBox card = new VBox(5);
+        private final Label customerLabel = new Label();
+        private final Label seatsLabel = new Label();
+        private final Label priceLabel = new Label();
+
+        ReservationCell() {
+            card.getStyleClass().add("reservation-card");
+            card.setPadding(new Insets(10));
+
+            // Radio button showing the selection; clicks go to the cell
+            RadioButton radioButton = new RadioButton();
+            radioButton.setMouseTransparent(true);
+            radioButton.setFocusTraversable(false);
+            radioButton.selectedProperty().bind(selectedProperty());
+
+            customerLabel.getStyleClass().add("reservation-customer");
+            seatsLabel.getStyleClass().add("reservation-seats");
+            priceLabel.getStyleClass().add("reservation-price");
+
+            HBox headerBox = new HBox(10);
+            headerBox.setAlignment(Pos.CENTER_LEFT);
+            headerBox.getChildren().addAll(radioButton, customerLabel);
+
+            card.getChildren().addAll(headerBox, seatsLabel, priceLabel);
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
+
+        @Override
+        protected void updateItem(Ticket ticket, boolean empty) {
+            super.updateItem(ticket, empty);
+            if (empty || ticket == null) {
+                setGraphic(null);
+                return;
+            }
+            customerLabel.setText(ticket.getCustomerFullName());
+            seatsLabel.setText("Seats: " + ticket.getSeatsDisplay());
+            priceLabel.setText(String.format("$%.2f", ticket.getTotalPrice()));
+            setGraphic(card);
+        }
     }
 
     private void updateActionButtons() {
-        boolean hasSelection = selectedTicket != null;
-        changeTicketButton.setDisable(!hasSelection);
-        cancelTicketButton.setDisable(!hasSelection);
+        boolean canAct = selectedTicket != null && pendingCancellation == null;
+        changeTicketButton.setDisable(!canAct);
+        cancelTicketButton.setDisable(!canAct);
     }
 
     @FXML
     private void handleBook() {
+        List<Seat> selectedSeats = seatMap.getSelectedSeats();
         if (selectedSeats.isEmpty()) {
             return;
         }
@@ -268,20 +307,78 @@ public class CashierSeatSelectionController {
                 return;
             }
             
-            // Create ticket
-            Ticket ticket = cinemaService.createTicketForCustomer(currentScreening, selectedSeats, names[0], names[1]);
-            
-            // Show success
-            GenericSuccessController controller = SceneManager.switchSceneAndGetController("/fxml/generic_success.fxml");
-            if (controller != null) {
-                controller.setMessage("Your order has been completed successfully", "/fxml/cashier_movie_selection.fxml");
-            }
+            // Create ticket; the seats are claimed in Firebase off the FX thread.
+            // Book stays disabled until the outcome is known, so the sale cannot be sent twice
+            Object sale = new Object();
+            pendingSale = sale;
+            bookButton.setDisable(true);
+            AsyncUtil.onFxThread(cinemaService.createTicketForCustomerAsync(
+                    currentScreening, selectedSeats, names[0], names[1]), ticket -> {
+                if (!finishSale(sale)) {
+                    return;
+                }
+                if (ticket == null) {
+                    showAlert("Seats Unavailable", describeUnavailableSeats(selectedSeats));
+                    refreshSeats();
+                    return;
+                }
+                
+                // Show success
+                GenericSuccessController controller = SceneManager.switchSceneAndGetController("/fxml/generic_success.fxml");
+                if (controller != null) {
+                    controller.setMessage("Your order has been completed successfully", "/fxml/cashier_movie_selection.fxml");
+                }
+            }, error -> {
+                if (!finishSale(sale)) {
+                    return;
+                }
+                showAlert("Seats Unavailable", describeUnavailableSeats(selectedSeats));
+                refreshSeats();
+            });
         });
     }
 
+    /**
+     * Ends a sale started by {@link #handleBook()} and enables Book again.
+     *
+     * @return false if the view has been reset or hidden since the sale
+     *         started, in which case its outcome is not shown
+     */
+    private boolean finishSale(Object sale) {
+        if (pendingSale != sale) {
+            return false;
+        }
+        pendingSale = null;
+        bookButton.setDisable(seatMap.getSelectedSeats().isEmpty());
+        return true;
+    }
+
+    private String describeUnavailableSeats(List<Seat> selectedSeats) {
+        String taken = describeTakenSeats(selectedSeats);
+        if (taken.isEmpty()) {
+            // Nothing is marked taken, so the shared seat store could not be reached
+            return "The seats could not be confirmed right now. Please try again.";
+        }
+        return "Some of the selected seats were just sold: " + taken + ". Please choose again.";
+    }
+
+    private String describeTakenSeats(List<Seat> selectedSeats) {
+        return selectedSeats.stream()
+                .filter(seat -> !seat.isAvailable())
+                .map(Seat::getSeatLabel)
+                .reduce((a, b) -> a + ", " + b)
+                .orElse("");
+    }
+
+    private void refreshSeats() {
+        seatMap.clearSelection();
+        seatMap.refresh();
+        updateSelectionInfo();
+    }
+
     @FXML
     private void handleChangeTicket() {
-        if (selectedTicket == null) {
+        if (selectedTicket == null || pendingCancellation != null) {
             return;
         }
         
@@ -314,7 +411,7 @@ public class CashierSeatSelectionController {
 
     @FXML
     private void handleCancelTicket() {
-        if (selectedTicket == null) {
+        if (selectedTicket == null || pendingCancellation != null) {
             return;
         }
         
@@ -336,15 +433,42 @@ public class CashierSeatSelectionController {
 
         Optional<ButtonType> result = confirmDialog.showAndWait();
         if (result.isPresent() && result.get() == yesButton) {
-            boolean cancelled = cinemaService.cancelTicket(selectedTicket.getId());
-            if (cancelled) {
-                // Show success
-                GenericSuccessController controller = SceneManager.switchSceneAndGetController("/fxml/generic_success.fxml");
-                if (controller != null) {
-                    controller.setMessage("The ticket has been deleted successfully", "/fxml/cashier_movie_selection.fxml");
+            // Change and Cancel stay disabled until the outcome is known, so the ticket is not cancelled twice
+            Object cancellation = new Object();
+            pendingCancellation = cancellation;
+            updateActionButtons();
+            AsyncUtil.onFxThread(cinemaService.cancelTicketAsync(selectedTicket.getId()), cancelled -> {
+                if (!finishCancellation(cancellation)) {
+                    return;
                 }
-            }
+                if (cancelled) {
+                    // Show success
+                    GenericSuccessController controller = SceneManager.switchSceneAndGetController("/fxml/generic_success.fxml");
+                    if (controller != null) {
+                        controller.setMessage("The ticket has been deleted successfully", "/fxml/cashier_movie_selection.fxml");
+                    }
+                }
+            }, error -> {
+                if (finishCancellation(cancellation)) {
+                    showAlert("Error", "The ticket could not be cancelled: " + error.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Ends a cancellation started by {@link #handleCancelTicket()} and
+     * enables Change and Cancel again.
+     *
+     * @return false if the view has been reset or hidden since it started
+     */
+    private boolean finishCancellation(Object cancellation) {
+        if (pendingCancellation != cancellation) {
+            return false;
         }
+        pendingCancellation = null;
+        updateActionButtons();
+        return true;
     }
 
     @FXML
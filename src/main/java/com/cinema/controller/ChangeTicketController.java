@@ -2,15 +2,18 @@ package com.cinema.controller;
 
 import com.cinema.model.*;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
+import com.cinema.util.DebouncedSearch;
 import com.cinema.util.SceneManager;
+import com.cinema.view.SeatMapView;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.util.Duration;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -37,7 +40,7 @@ public class ChangeTicketController {
     private Label newScreeningInfoLabel;
 
     @FXML
-    private GridPane seatsGrid;
+    private SeatMapView seatMap;
 
     @FXML
     private Label selectedSeatsLabel;
@@ -45,16 +48,34 @@ public class ChangeTicketController {
     @FXML
     private Button confirmButton;
 
+    @FXML
+    private ProgressIndicator searchProgress;
+
+    /** How long the date must stay unchanged before its screenings are searched. */
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+
     private final CinemaService cinemaService = CinemaService.getInstance();
     private Ticket ticketToChange;
     private Screening selectedNewScreening;
-    private final List<Seat> selectedSeats = new ArrayList<>();
     private ToggleGroup screeningToggleGroup;
+    private DebouncedSearch<LocalDate, List<Movie>> screeningSearch;
 
     @FXML
     public void initialize() {
+        screeningSearch = new DebouncedSearch<>(SEARCH_DELAY, cinemaService::getMoviesWithScreeningsOnDateAsync,
+                this::showScreenings,
+                (date, error) -> showScreenings(date, cinemaService.getMoviesWithScreeningsOnDate(date)));
+        screeningSearch.setOnLoadingChanged(this::showLoading);
+
         datePicker.setValue(LocalDate.now());
+        datePicker.valueProperty().addListener((obs, oldDate, newDate) -> {
+            if (newDate != null && ticketToChange != null) {
+                screeningSearch.request(newDate);
+            }
+        });
         screeningToggleGroup = new ToggleGroup();
+        seatMap.setOnSelectionChanged(this::updateSelectionInfo);
+        seatMap.setLiveUpdates(cinemaService);
     }
 
     public void setTicketToChange(Ticket ticket) {
@@ -81,13 +102,20 @@ public class ChangeTicketController {
     }
 
     private void loadScreeningsForDate(LocalDate date) {
+        screeningSearch.requestNow(date);
+    }
+
+    private void showLoading(boolean loading) {
+        searchProgress.setVisible(loading);
+        screeningsListBox.setOpacity(loading ? 0.6 : 1.0);
+    }
+
+    private void showScreenings(LocalDate date, List<Movie> movies) {
         screeningsListBox.getChildren().clear();
         seatSelectionPanel.setVisible(false);
         seatSelectionPanel.setManaged(false);
         selectedNewScreening = null;
-        selectedSeats.clear();
-        
-        List<Movie> movies = cinemaService.getMoviesWithScreeningsOnDate(date);
+        seatMap.setScreening(null);
         
         if (movies.isEmpty()) {
             Label noScreeningsLabel = new Label("No screenings available for this date");
@@ -126,7 +154,7 @@ public class ChangeTicketController {
         infoLabel.getStyleClass().add("screening-info");
         
         // Available seats count
-        int availableCount = screening.getAvailableSeats().size();
+        int availableCount = screening.getAvailableSeatCount();
         Label availableLabel = new Label(availableCount + " seats available");
         availableLabel.getStyleClass().add("screening-available");
         
@@ -147,7 +175,6 @@ public class ChangeTicketController {
 
     private void handleScreeningSelected(Screening screening) {
         selectedNewScreening = screening;
-        selectedSeats.clear();
         
         // Show seat selection panel
         seatSelectionPanel.setVisible(true);
@@ -160,91 +187,41 @@ public class ChangeTicketController {
                 screening.getFormattedTime()
         );
         
-        // Build seat grid
-        buildSeatGrid();
-        updateSelectionInfo();
-    }
-
-    private void buildSeatGrid() {
-        seatsGrid.getChildren().clear();
-        
-        int totalRows = selectedNewScreening.getTotalRows();
-        int seatsPerRow = selectedNewScreening.getSeatsPerRow();
-        
-        for (int row = 0; row < totalRows; row++) {
-            char rowLetter = (char) ('A' + row);
-            
-            // Row label
-            Label rowLabel = new Label(String.valueOf(rowLetter));
-            rowLabel.getStyleClass().add("row-label-small");
-            rowLabel.setMinWidth(20);
-            rowLabel.setAlignment(Pos.CENTER);
-            seatsGrid.add(rowLabel, 0, row);
-            
-            // Seats
-            HBox rowSeats = new HBox(3);
-            rowSeats.setAlignment(Pos.CENTER);
-            
-            for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
-                Seat seat = selectedNewScreening.getSeat(String.valueOf(rowLetter), seatNum);
-                ToggleButton seatButton = createSeatButton(seat);
-                rowSeats.getChildren().add(seatButton);
-            }
-            
-            seatsGrid.add(rowSeats, 1, row);
-        }
-    }
-
-    private ToggleButton createSeatButton(Seat seat) {
-        ToggleButton button = new ToggleButton(String.valueOf(seat.getSeatNumber()));
-        button.setPrefSize(28, 28);
-        button.setMinSize(28, 28);
-        button.setMaxSize(28, 28);
-        button.setStyle("-fx-font-size: 9px;");
-        
-        if (seat.isAvailable()) {
-            button.getStyleClass().add("seat-button-available");
-            button.setOnAction(e -> handleSeatToggle(seat, button));
-        } else {
-            button.getStyleClass().add("seat-button-reserved");
-            button.setDisable(true);
-        }
-        
-        return button;
-    }
-
-    private void handleSeatToggle(Seat seat, ToggleButton button) {
-        if (button.isSelected()) {
-            selectedSeats.add(seat);
-            button.getStyleClass().remove("seat-button-available");
-            button.getStyleClass().add("seat-button-selected");
-        } else {
-            selectedSeats.remove(seat);
-            button.getStyleClass().remove("seat-button-selected");
-            button.getStyleClass().add("seat-button-available");
+        // Show the seat map
+        seatMap.setScreening(screening);
+        if (screening.getId().equals(ticketToChange.getScreening().getId())) {
+            // The ticket's own seats can be kept, so they start out free and selected
+            seatMap.setHeldSeats(ticketToChange.getSeats());
+            seatMap.setSelectedSeats(ticketToChange.getSeats());
         }
         updateSelectionInfo();
     }
 
     private void updateSelectionInfo() {
-        int count = selectedSeats.size();
+        int count = seatMap.getSelectedSeats().size();
         selectedSeatsLabel.setText("Selected: " + count + " seat" + (count != 1 ? "s" : ""));
         confirmButton.setDisable(count == 0);
     }
 
     @FXML
     private void handleConfirmChange() {
+        List<Seat> selectedSeats = seatMap.getSelectedSeats();
         if (selectedNewScreening == null || selectedSeats.isEmpty()) {
             return;
         }
         
-        // Perform the ticket change
-        Ticket newTicket = cinemaService.changeTicket(
+        // Perform the ticket change off the FX thread; the seats are claimed in Firebase
+        Screening newScreening = selectedNewScreening;
+        confirmButton.setDisable(true);
+        AsyncUtil.onFxThread(cinemaService.changeTicketAsync(
                 ticketToChange.getId(), 
-                selectedNewScreening, 
+                newScreening, 
                 selectedSeats
-        );
-        
+        ), newTicket -> showChangeResult(newTicket, newScreening),
+                error -> showChangeResult(null, newScreening));
+    }
+
+    private void showChangeResult(Ticket newTicket, Screening newScreening) {
         if (newTicket != null) {
             // Show success with details
             GenericSuccessController controller = SceneManager.switchSceneAndGetController("/fxml/generic_success.fxml");
@@ -257,6 +234,15 @@ public class ChangeTicketController {
                         newTicket.getScreening().getFormattedDate();
                 controller.setMessage("The Change has been deleted successfully", additionalInfo, "/fxml/cashier_movie_selection.fxml");
             }
+        } else {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Seats Unavailable");
+            alert.setHeaderText(null);
+            alert.setContentText("Some of the selected seats were just sold. The original ticket was kept; please choose again.");
+            alert.getDialogPane().getStylesheets().add(
+                    getClass().getResource("/styles/style.css").toExternalForm());
+            alert.showAndWait();
+            handleScreeningSelected(newScreening);
         }
     }
 
@@ -1,5 +1,6 @@
 package com.cinema.controller;
 
+import com.cinema.util.ReusableView;
 import com.cinema.util.SceneManager;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
@@ -7,7 +8,7 @@ import javafx.scene.control.Label;
 /**
  * Controller for a generic success screen that can be reused.
  */
-public class GenericSuccessController {
+public class GenericSuccessController implements ReusableView {
 
     @FXML
     private Label messageLabel;
@@ -16,6 +17,7 @@ public class GenericSuccessController {
     private Label additionalInfoLabel;
 
     private String returnPath = "/fxml/login.fxml";
+    private String defaultMessage;
     
     // Static fields for setting message before navigation
     private static String staticMessage;
@@ -24,6 +26,21 @@ public class GenericSuccessController {
 
     @FXML
     public void initialize() {
+        defaultMessage = messageLabel.getText();
+        applyStaticMessage();
+    }
+
+    @Override
+    public void reset() {
+        messageLabel.setText(defaultMessage);
+        additionalInfoLabel.setText("");
+        additionalInfoLabel.setVisible(false);
+        additionalInfoLabel.setManaged(false);
+        returnPath = "/fxml/login.fxml";
+        applyStaticMessage();
+    }
+
+    private void applyStaticMessage() {
         // Load static message if set
         if (staticMessage != null) {
             messageLabel.setText(staticMessage);
@@ -2,8 +2,8 @@ package com.cinema.controller;
 
 import com.cinema.model.Screening;
 import com.cinema.model.Seat;
-import com.cinema.model.Ticket;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
 import com.cinema.util.SceneManager;
 import com.cinema.util.ValidationUtil;
 import javafx.fxml.FXML;
@@ -50,6 +50,7 @@ public class GuestDetailsController {
     // These will be set from the seat selection screen
     private static Screening selectedScreening;
     private static List<Seat> selectedSeats;
+    private static String holdId;
 
     @FXML
     public void initialize() {
@@ -75,12 +76,14 @@ public class GuestDetailsController {
     }
 
     /**
-     * Sets the screening and seats selected by the guest.
+     * Sets the screening and seats selected by the guest, and the id of the
+     * hold keeping those seats free while the form is filled in.
      * Called from SeatSelectionController before navigating here.
      */
-    public static void setReservationDetails(Screening screening, List<Seat> seats) {
+    public static void setReservationDetails(Screening screening, List<Seat> seats, String seatHoldId) {
         selectedScreening = screening;
         selectedSeats = seats;
+        holdId = seatHoldId;
     }
 
     @FXML
@@ -113,26 +116,30 @@ public class GuestDetailsController {
 
         // Create the reservation with guest details
         if (selectedScreening != null && selectedSeats != null && !selectedSeats.isEmpty()) {
-            // Create ticket with guest name
-            Ticket ticket = cinemaService.createTicket(selectedScreening, selectedSeats, firstName, lastName);
-            
-            if (ticket != null) {
-                // Store additional guest info (email and phone)
-                String guestInfo = email + " | " + phone;
-                ticket.setGuestInfo(guestInfo);
-                cinemaService.updateTicket(ticket);
-                
-                // Navigate to success screen
-                SuccessController.setTicketDetails(
-                    selectedScreening.getMovie().getTitle(),
-                    selectedScreening.getDate().atTime(selectedScreening.getTime()),
-                    selectedSeats.size() + " seat(s) reserved",
-                    ticket.getTotalPrice()
-                );
-                SceneManager.switchScene("/fxml/success.fxml");
-            } else {
-                showError("Failed to create reservation. Please try again.");
+            if (!cinemaService.isHoldActive(holdId)) {
+                showError("Your seat hold has expired. Please go back and select your seats again.");
+                return;
             }
+
+            // Turn the seat hold into a ticket with the guest name and contact info (email and phone)
+            errorLabel.setText("Confirming your seats...");
+            String guestInfo = email + " | " + phone;
+            AsyncUtil.onFxThread(cinemaService.confirmHoldAsync(holdId, firstName, lastName, guestInfo), ticket -> {
+                if (ticket != null) {
+                    holdId = null;
+
+                    // Navigate to success screen
+                    SuccessController.setTicketDetails(
+                        selectedScreening.getMovie().getTitle(),
+                        selectedScreening.getDate().atTime(selectedScreening.getTime()),
+                        selectedSeats.size() + " seat(s) reserved",
+                        ticket.getTotalPrice()
+                    );
+                    SceneManager.switchScene("/fxml/success.fxml");
+                } else {
+                    showError("Failed to create reservation. Please try again.");
+                }
+            }, error -> showError("Failed to create reservation. Please try again."));
         } else {
             showError("No seats selected. Please go back and select seats.");
         }
@@ -140,6 +147,10 @@ public class GuestDetailsController {
 
     @FXML
     private void handleBack() {
+        // Give the held seats back so they show up as selectable again
+        cinemaService.releaseHold(holdId);
+        holdId = null;
+
         // Navigate back to seat selection with the screening data and previously selected seats
         SeatSelectionController controller = SceneManager.switchSceneAndGetController("/fxml/seat_selection.fxml");
         if (controller != null && selectedScreening != null) {
@@ -3,8 +3,10 @@ package com.cinema.controller;
 import com.cinema.model.User;
 import com.cinema.model.UserRole;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
 import com.cinema.util.SceneManager;
 import com.cinema.util.ValidationUtil;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -31,7 +33,6 @@ public class LoginController {
     @FXML
     private Label errorLabel;
 
-    private final CinemaService cinemaService = CinemaService.getInstance();
     private boolean passwordVisible = false;
 
     @FXML
@@ -76,13 +77,15 @@ public class LoginController {
             return;
         }
 
-        // Attempt login
-        User user = cinemaService.login(email, password);
-        if (user != null) {
-            navigateBasedOnRole(user);
-        } else {
-            showError("Invalid email or password. Please try again.");
-        }
+        // Attempt login without freezing the window while Firebase is asked
+        errorLabel.setText("Signing in...");
+        AsyncUtil.onFxThread(CinemaService.getInstance().loginAsync(email, password), user -> {
+            if (user != null) {
+                navigateBasedOnRole(user);
+            } else {
+                showError("Invalid email or password. Please try again.");
+            }
+        }, error -> showError("Could not sign in: " + error.getMessage()));
     }
 
     @FXML
@@ -92,7 +95,7 @@ public class LoginController {
 
     @FXML
     private void handleGuestLogin() {
-        cinemaService.loginAsGuest();
+        CinemaService.getInstance().loginAsGuest();
         SceneManager.switchScene("/fxml/movie_selection.fxml");
     }
 
@@ -100,6 +103,9 @@ public class LoginController {
         switch (user.getRole()) {
             case CASHIER:
                 SceneManager.switchScene("/fxml/cashier_movie_selection.fxml");
+                // Load the other cashier screens once the first one is on screen
+                Platform.runLater(() -> SceneManager.prewarm(
+                        "/fxml/cashier_seat_selection.fxml", "/fxml/generic_success.fxml"));
                 break;
             case ADMIN:
                 SceneManager.switchScene("/fxml/admin_dashboard.fxml");
@@ -2,18 +2,19 @@ package com.cinema.controller;
 
 import com.cinema.model.*;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
+import com.cinema.util.DebouncedSearch;
+import com.cinema.util.PosterCache;
 import com.cinema.util.SceneManager;
+import com.cinema.view.MovieCard;
+import com.cinema.view.MovieCardPool;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
-import javafx.geometry.Pos;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
 import javafx.stage.Popup;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -39,19 +40,57 @@ public class MovieSelectionController {
     @FXML
     private Label ticketCountLabel;
 
+    @FXML
+    private ProgressIndicator searchProgress;
+
+    /** How long the date must stay unchanged before its movies are searched. */
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+
     private final CinemaService cinemaService = CinemaService.getInstance();
     private Popup ticketPopup;
+    private DebouncedSearch<LocalDate, List<Movie>> movieSearch;
+    private MovieCardPool movieCards;
 
     @FXML
     public void initialize() {
+        movieCards = new MovieCardPool(moviesFlowPane, () -> {
+            MovieCard card = new MovieCard();
+            card.setOnScreeningSelected(this::handleScreeningSelected);
+            return card;
+        });
+        movieSearch = new DebouncedSearch<>(SEARCH_DELAY, cinemaService::getMoviesWithScreeningsOnDateAsync,
+                this::showMovies, (date, error) -> showMovies(date, cinemaService.getMoviesWithScreeningsOnDate(date)));
+        movieSearch.setOnLoadingChanged(this::showLoading);
+
         // Set default date to today
         datePicker.setValue(LocalDate.now());
         
         // Update ticket count
         updateTicketCount();
         
-        // Load movies for today
+        // Load movies for today, then follow the date picker as the user steps through dates
         loadMoviesForDate(LocalDate.now());
+        datePicker.valueProperty().addListener((obs, oldDate, newDate) -> {
+            if (newDate != null) {
+                movieSearch.request(newDate);
+            }
+        });
+
+        // Fetch every poster in the background so changing the date does not wait for downloads
+        PosterCache.getInstance().prefetch(cinemaService.getAllMovies().stream().map(Movie::getPosterPath).toList(),
+                PosterCache.THUMBNAIL_WIDTH, PosterCache.THUMBNAIL_HEIGHT);
+
+        // Highlight the days that have screenings
+        datePicker.setDayCellFactory(picker -> new DateCell() {
+            @Override
+            public void updateItem(LocalDate item, boolean empty) {
+                super.updateItem(item, empty);
+                getStyleClass().remove("has-screenings");
+                if (!empty && item != null && cinemaService.hasScreeningsOn(item)) {
+                    getStyleClass().add("has-screenings");
+                }
+            }
+        });
         
         // Update UI based on user type
         User currentUser = cinemaService.getCurrentUser();
@@ -86,9 +125,15 @@ public class MovieSelectionController {
     }
 
     private void loadMoviesForDate(LocalDate date) {
-        moviesFlowPane.getChildren().clear();
-        
-        List<Movie> movies = cinemaService.getMoviesWithScreeningsOnDate(date);
+        movieSearch.requestNow(date);
+    }
+
+    private void showLoading(boolean loading) {
+        searchProgress.setVisible(loading);
+        moviesFlowPane.setOpacity(loading ? 0.6 : 1.0);
+    }
+
+    private void showMovies(LocalDate date, List<Movie> movies) {
         
         if (movies.isEmpty()) {
             noMoviesLabel.setVisible(true);
@@ -96,104 +141,8 @@ public class MovieSelectionController {
         } else {
             noMoviesLabel.setVisible(false);
             noMoviesLabel.setManaged(false);
-            
-            for (Movie movie : movies) {
-                VBox movieCard = createMovieCard(movie, date);
-                moviesFlowPane.getChildren().add(movieCard);
-            }
-        }
-    }
-
-    private VBox createMovieCard(Movie movie, LocalDate date) {
-        VBox card = new VBox(10);
-        card.getStyleClass().add("movie-card");
-        card.setAlignment(Pos.TOP_CENTER);
-        card.setPrefWidth(220);
-        card.setPadding(new Insets(15));
-
-        // Movie poster container
-        StackPane posterContainer = new StackPane();
-        posterContainer.getStyleClass().add("poster-container");
-        posterContainer.setPrefSize(180, 250);
-        
-        Rectangle posterPlaceholder = new Rectangle(180, 250);
-        posterPlaceholder.setFill(Color.web("#2a2a2a"));
-        posterPlaceholder.setArcWidth(10);
-        posterPlaceholder.setArcHeight(10);
-        
-        Label posterLabel = new Label("\ud83c\udfac");
-        posterLabel.setStyle("-fx-font-size: 48px;");
-        
-        posterContainer.getChildren().addAll(posterPlaceholder, posterLabel);
-        
-        // Try to load movie poster from URL
-        String posterUrl = movie.getPosterPath();
-        if (posterUrl != null && !posterUrl.isEmpty() && posterUrl.startsWith("http")) {
-            try {
-                ImageView posterImageView = new ImageView();
-                posterImageView.setFitWidth(180);
-                posterImageView.setFitHeight(250);
-                posterImageView.setPreserveRatio(true);
-                
-                // Create a clipping rectangle for rounded corners
-                Rectangle clip = new Rectangle(180, 250);
-                clip.setArcWidth(10);
-                clip.setArcHeight(10);
-                posterImageView.setClip(clip);
-                
-                Image image = new Image(posterUrl, 180, 250, true, true, true);
-                posterImageView.setImage(image);
-                
-                // Hide placeholder when image loads successfully
-                image.progressProperty().addListener((obs, oldProgress, newProgress) -> {
-                    if (newProgress.doubleValue() >= 1.0 && !image.isError()) {
-                        posterLabel.setVisible(false);
-                    }
-                });
-                
-                posterContainer.getChildren().add(posterImageView);
-            } catch (Exception e) {
-                // Keep placeholder if image fails to load
-            }
         }
-
-        // Movie title
-        Label titleLabel = new Label(movie.getTitle());
-        titleLabel.getStyleClass().add("movie-title");
-        titleLabel.setWrapText(true);
-        titleLabel.setMaxWidth(180);
-
-        // Movie info
-        Label infoLabel = new Label(movie.getFormattedDuration() + " | " + movie.getRating());
-        infoLabel.getStyleClass().add("movie-info");
-
-        // Screenings for this date
-        VBox screeningsBox = new VBox(5);
-        screeningsBox.setAlignment(Pos.CENTER);
-        
-        Label screeningsTitle = new Label("Showtimes:");
-        screeningsTitle.getStyleClass().add("screenings-title");
-        screeningsBox.getChildren().add(screeningsTitle);
-
-        FlowPane timesBox = new FlowPane();
-        timesBox.setHgap(5);
-        timesBox.setVgap(5);
-        timesBox.setAlignment(Pos.CENTER);
-        timesBox.setPrefWrapLength(180);
-        
-        List<Screening> screenings = movie.getScreeningsForDate(date);
-        for (Screening screening : screenings) {
-            Button timeButton = new Button(screening.getFormattedTime());
-            timeButton.getStyleClass().add("btn-time");
-            timeButton.setOnAction(e -> handleScreeningSelected(screening));
-            timesBox.getChildren().add(timeButton);
-        }
-        
-        screeningsBox.getChildren().add(timesBox);
-
-        card.getChildren().addAll(posterContainer, titleLabel, infoLabel, screeningsBox);
-        
-        return card;
+        movieCards.show(date, movies);
     }
 
     private void handleScreeningSelected(Screening screening) {
@@ -227,12 +176,39 @@ public class MovieSelectionController {
         Label titleLabel = new Label("My Tickets");
         titleLabel.getStyleClass().add("popup-title");
 
-        List<Ticket> tickets = cinemaService.getCurrentUserTickets();
+        // Filled in once the tickets restored at startup are back
+        VBox ticketsBox = new VBox(10);
+        Label loadingLabel = new Label("Loading your tickets...");
+        loadingLabel.getStyleClass().add("no-tickets-label");
+        ticketsBox.getChildren().add(loadingLabel);
+        popupContent.getChildren().addAll(titleLabel, ticketsBox);
+
+        Popup popup = ticketPopup;
+        AsyncUtil.onFxThread(cinemaService.getCurrentUserTicketsAsync(), tickets -> {
+            if (popup.isShowing()) {
+                showTickets(ticketsBox, tickets);
+            }
+        }, error -> loadingLabel.setText("Could not load your tickets."));
+
+        // Close button
+        Button closeButton = new Button("Close");
+        closeButton.getStyleClass().add("btn-secondary");
+        closeButton.setOnAction(e -> popup.hide());
+        popupContent.getChildren().add(closeButton);
+
+        ticketPopup.getContent().add(popupContent);
         
+        Stage stage = SceneManager.getPrimaryStage();
+        ticketPopup.show(stage, 
+                stage.getX() + stage.getWidth() - 350, 
+                stage.getY() + 100);
+    }
+
+    private void showTickets(VBox ticketsBox, List<Ticket> tickets) {
         if (tickets.isEmpty()) {
             Label noTicketsLabel = new Label("You don't have any tickets yet.");
             noTicketsLabel.getStyleClass().add("no-tickets-label");
-            popupContent.getChildren().addAll(titleLabel, noTicketsLabel);
+            ticketsBox.getChildren().setAll(noTicketsLabel);
         } else {
             // Used tickets section
             VBox usedSection = new VBox(5);
@@ -260,22 +236,8 @@ public class MovieSelectionController {
             }
             ticketList.setContent(ticketItems);
 
-            popupContent.getChildren().addAll(titleLabel, usedSection, unusedSection, 
-                    new Separator(), ticketList);
+            ticketsBox.getChildren().setAll(usedSection, unusedSection, new Separator(), ticketList);
         }
-
-        // Close button
-        Button closeButton = new Button("Close");
-        closeButton.getStyleClass().add("btn-secondary");
-        closeButton.setOnAction(e -> ticketPopup.hide());
-        popupContent.getChildren().add(closeButton);
-
-        ticketPopup.getContent().add(popupContent);
-        
-        Stage stage = SceneManager.getPrimaryStage();
-        ticketPopup.show(stage, 
-                stage.getX() + stage.getWidth() - 350, 
-                stage.getY() + 100);
     }
 
     private VBox createTicketItem(Ticket ticket) {
@@ -302,8 +264,10 @@ public class MovieSelectionController {
     private void updateTicketCount() {
         User currentUser = cinemaService.getCurrentUser();
         if (currentUser != null && currentUser.getRole() != UserRole.GUEST) {
-            int count = cinemaService.getCurrentUserTickets().size();
-            ticketCountLabel.setText("My Tickets (" + count + ")");
+            ticketCountLabel.setText("My Tickets");
+            AsyncUtil.onFxThread(cinemaService.getCurrentUserTicketsAsync(),
+                    tickets -> ticketCountLabel.setText("My Tickets (" + tickets.size() + ")"),
+                    error -> System.err.println("Could not count tickets: " + error.getMessage()));
         }
     }
 
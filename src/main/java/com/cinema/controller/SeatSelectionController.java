@@ -2,16 +2,14 @@ package com.cinema.controller;
 
 import com.cinema.model.*;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
 import com.cinema.util.SceneManager;
+import com.cinema.view.SeatMapView;
 import javafx.fxml.FXML;
-import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ToggleButton;
-import javafx.scene.layout.GridPane;
-import javafx.scene.layout.HBox;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -32,23 +30,27 @@ public class SeatSelectionController {
     private Label totalPriceLabel;
 
     @FXML
-    private GridPane seatsGrid;
+    private SeatMapView seatMap;
 
     @FXML
     private Button reserveButton;
 
+    // How long a guest's seats are held while they fill in their details
+    private static final long GUEST_HOLD_SECONDS = 300;
+
     private final CinemaService cinemaService = CinemaService.getInstance();
     private Screening currentScreening;
     private String guestFirstName;
     private String guestLastName;
-    private final List<Seat> selectedSeats = new ArrayList<>();
     
     // Store pre-selected seats (for when returning from guest details form)
     private List<Seat> preSelectedSeats = null;
 
     @FXML
     public void initialize() {
-        // Will be populated when screening is set
+        // Populated when the screening is set
+        seatMap.setOnSelectionChanged(this::updateSelectionInfo);
+        seatMap.setLiveUpdates(cinemaService);
     }
 
     public void setScreening(Screening screening, String firstName, String lastName) {
@@ -64,8 +66,11 @@ public class SeatSelectionController {
                 screening.getHall()
         );
         
-        // Build seat grid
-        buildSeatGrid();
+        // Show the seat map, keeping the seats chosen before the guest details form
+        seatMap.setScreening(screening);
+        if (preSelectedSeats != null) {
+            seatMap.setSelectedSeats(preSelectedSeats);
+        }
         updateSelectionInfo();
     }
     
@@ -76,86 +81,8 @@ public class SeatSelectionController {
         this.preSelectedSeats = seats;
     }
 
-    private void buildSeatGrid() {
-        seatsGrid.getChildren().clear();
-        
-        int totalRows = currentScreening.getTotalRows();
-        int seatsPerRow = currentScreening.getSeatsPerRow();
-        
-        for (int row = 0; row < totalRows; row++) {
-            char rowLetter = (char) ('A' + row);
-            
-            // Row label on the left
-            Label rowLabel = new Label(String.valueOf(rowLetter));
-            rowLabel.getStyleClass().add("row-label");
-            rowLabel.setMinWidth(30);
-            rowLabel.setAlignment(Pos.CENTER);
-            seatsGrid.add(rowLabel, 0, row);
-            
-            // Seats for this row
-            HBox rowSeats = new HBox(5);
-            rowSeats.setAlignment(Pos.CENTER);
-            
-            for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
-                Seat seat = currentScreening.getSeat(String.valueOf(rowLetter), seatNum);
-                ToggleButton seatButton = createSeatButton(seat);
-                rowSeats.getChildren().add(seatButton);
-            }
-            
-            seatsGrid.add(rowSeats, 1, row);
-            
-            // Row label on the right
-            Label rowLabelRight = new Label(String.valueOf(rowLetter));
-            rowLabelRight.getStyleClass().add("row-label");
-            rowLabelRight.setMinWidth(30);
-            rowLabelRight.setAlignment(Pos.CENTER);
-            seatsGrid.add(rowLabelRight, 2, row);
-        }
-    }
-
-    private ToggleButton createSeatButton(Seat seat) {
-        ToggleButton button = new ToggleButton(String.valueOf(seat.getSeatNumber()));
-        button.setPrefSize(35, 35);
-        button.setMinSize(35, 35);
-        button.setMaxSize(35, 35);
-        
-        if (seat.isAvailable()) {
-            // Check if this seat was pre-selected (returning from guest details)
-            boolean isPreSelected = preSelectedSeats != null && 
-                preSelectedSeats.stream().anyMatch(s -> 
-                    s.getRow().equals(seat.getRow()) && s.getSeatNumber() == seat.getSeatNumber());
-            
-            if (isPreSelected) {
-                button.setSelected(true);
-                button.getStyleClass().add("seat-button-selected");
-                selectedSeats.add(seat);
-            } else {
-                button.getStyleClass().add("seat-button-available");
-            }
-            button.setOnAction(e -> handleSeatToggle(seat, button));
-        } else {
-            button.getStyleClass().add("seat-button-reserved");
-            button.setDisable(true);
-        }
-        
-        return button;
-    }
-
-    private void handleSeatToggle(Seat seat, ToggleButton button) {
-        if (button.isSelected()) {
-            selectedSeats.add(seat);
-            button.getStyleClass().remove("seat-button-available");
-            button.getStyleClass().add("seat-button-selected");
-        } else {
-            selectedSeats.remove(seat);
-            button.getStyleClass().remove("seat-button-selected");
-            button.getStyleClass().add("seat-button-available");
-        }
-        updateSelectionInfo();
-    }
-
     private void updateSelectionInfo() {
-        int count = selectedSeats.size();
+        int count = seatMap.getSelectedSeats().size();
         selectedSeatsLabel.setText("Selected: " + count + " seat" + (count != 1 ? "s" : ""));
         
         double total = count * currentScreening.getPrice();
@@ -166,17 +93,28 @@ public class SeatSelectionController {
 
     @FXML
     private void handleReserve() {
-        if (selectedSeats.isEmpty()) {
+        List<Seat> seats = seatMap.getSelectedSeats();
+        if (seats.isEmpty()) {
             return;
         }
         
         User currentUser = cinemaService.getCurrentUser();
+        // The seats are claimed in Firebase, so wait for the answer off the FX thread
+        reserveButton.setDisable(true);
         
         // Check if user is a guest - redirect to guest details form
         if (currentUser != null && currentUser.getRole() == UserRole.GUEST) {
-            // Store the selected screening and seats for the guest details form
-            GuestDetailsController.setReservationDetails(currentScreening, new ArrayList<>(selectedSeats));
-            SceneManager.switchScene("/fxml/guest_details.fxml");
+            // Hold the seats so they can't be sold while the guest types their details
+            AsyncUtil.onFxThread(cinemaService.holdSeatsAsync(currentScreening, seats, GUEST_HOLD_SECONDS), holdId -> {
+                if (holdId == null) {
+                    handleSeatsUnavailable();
+                    return;
+                }
+
+                // Store the selected screening and seats for the guest details form
+                GuestDetailsController.setReservationDetails(currentScreening, seats, holdId);
+                SceneManager.switchScene("/fxml/guest_details.fxml");
+            }, error -> handleSeatsUnavailable());
             return;
         }
         
@@ -191,17 +129,56 @@ public class SeatSelectionController {
         }
         
         // Create the ticket
-        Ticket ticket = cinemaService.createTicket(currentScreening, selectedSeats, firstName, lastName);
-        
-        // Navigate to success screen
-        SuccessController controller = SceneManager.switchSceneAndGetController("/fxml/success.fxml");
-        if (controller != null) {
-            controller.setTicket(ticket);
-        }
+        AsyncUtil.onFxThread(cinemaService.createTicketAsync(currentScreening, seats, firstName, lastName), ticket -> {
+            if (ticket == null) {
+                handleSeatsUnavailable();
+                return;
+            }
+            
+            // Navigate to success screen
+            SuccessController controller = SceneManager.switchSceneAndGetController("/fxml/success.fxml");
+            if (controller != null) {
+                controller.setTicket(ticket);
+            }
+        }, error -> handleSeatsUnavailable());
+    }
+
+    private void handleSeatsUnavailable() {
+        showAlert("Seats Unavailable", describeUnavailableSeats());
+        seatMap.clearSelection();
+        seatMap.refresh();
+        updateSelectionInfo();
     }
 
     @FXML
     private void handleBack() {
         SceneManager.switchScene("/fxml/movie_selection.fxml");
     }
+
+    private String describeUnavailableSeats() {
+        String taken = describeTakenSeats();
+        if (taken.isEmpty()) {
+            // Nothing is marked taken, so the shared seat store could not be reached
+            return "The seats could not be confirmed right now. Please try again.";
+        }
+        return "Some of the selected seats were just taken: " + taken + ". Please choose again.";
+    }
+
+    private String describeTakenSeats() {
+        return seatMap.getSelectedSeats().stream()
+                .filter(seat -> !seat.isAvailable())
+                .map(Seat::getSeatLabel)
+                .reduce((a, b) -> a + ", " + b)
+                .orElse("");
+    }
+
+    private void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.getDialogPane().getStylesheets().add(
+                getClass().getResource("/styles/style.css").toExternalForm());
+        alert.showAndWait();
+    }
 }
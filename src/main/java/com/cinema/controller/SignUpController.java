@@ -1,7 +1,7 @@
 package com.cinema.controller;
 
-import com.cinema.model.User;
 import com.cinema.service.CinemaService;
+import com.cinema.util.AsyncUtil;
 import com.cinema.util.SceneManager;
 import com.cinema.util.ValidationUtil;
 import javafx.fxml.FXML;
@@ -143,12 +143,13 @@ public class SignUpController {
         }
 
         // Create account
-        User newUser = cinemaService.registerUser(email, firstName, lastName, phone, password);
-        if (newUser != null) {
-            navigateToMovieSelection();
-        } else {
-            showError("Failed to create account. Please try again.");
-        }
+        AsyncUtil.onFxThread(cinemaService.registerUserAsync(email, firstName, lastName, phone, password), newUser -> {
+            if (newUser != null) {
+                navigateToMovieSelection();
+            } else {
+                showError("Failed to create account. Please try again.");
+            }
+        }, error -> showError("Failed to create account. Please try again."));
     }
 
     @FXML
@@ -0,0 +1,132 @@
+package com.cinema.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable seating plan of a cinema hall: geometry, aisles and the type of
+ * every seat. A layout is shared by all screenings in the same hall, so each
+ * screening only has to store which seats are taken.
+ */
+public final class HallLayout {
+    private static final Map<String, HallLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final String hall;
+    private final int totalRows;
+    private final int seatsPerRow;
+    private final SeatType[] seatTypes;
+    private final boolean[] aisleAfterColumn;
+
+    /**
+     * @param hall          name of the hall
+     * @param totalRows     number of rows
+     * @param seatsPerRow   number of seats in each row
+     * @param seatTypes     type of every seat, indexed by {@code row * seatsPerRow + column}
+     * @param aisleColumns  1-based seat numbers that are followed by an aisle
+     */
+    public HallLayout(String hall, int totalRows, int seatsPerRow, SeatType[] seatTypes, int... aisleColumns) {
+        if (seatTypes.length != totalRows * seatsPerRow) {
+            throw new IllegalArgumentException("Expected " + totalRows * seatsPerRow + " seat types");
+        }
+        this.hall = hall;
+        this.totalRows = totalRows;
+        this.seatsPerRow = seatsPerRow;
+        this.seatTypes = seatTypes.clone();
+        this.aisleAfterColumn = new boolean[seatsPerRow];
+        for (int seatNumber : aisleColumns) {
+            if (seatNumber >= 1 && seatNumber < seatsPerRow) {
+                aisleAfterColumn[seatNumber - 1] = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the shared layout for a hall, creating an all-regular layout
+     * without aisles the first time a geometry is seen.
+     */
+    public static HallLayout forHall(String hall, int totalRows, int seatsPerRow) {
+        String key = hall + "|" + totalRows + "x" + seatsPerRow;
+        return LAYOUTS.computeIfAbsent(key, k -> {
+            SeatType[] types = new SeatType[totalRows * seatsPerRow];
+            Arrays.fill(types, SeatType.REGULAR);
+            return new HallLayout(hall, totalRows, seatsPerRow, types);
+        });
+    }
+
+    /**
+     * Registers a custom layout so that later screenings in the hall share it.
+     */
+    public static void register(HallLayout layout) {
+        LAYOUTS.put(layout.hall + "|" + layout.totalRows + "x" + layout.seatsPerRow, layout);
+    }
+
+    public String getHall() {
+        return hall;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int getCapacity() {
+        return seatTypes.length;
+    }
+
+    public SeatType getSeatType(int index) {
+        return seatTypes[index];
+    }
+
+    /**
+     * Returns true if there is an aisle between this 0-based column and the next one.
+     */
+    public boolean isAisleAfter(int column) {
+        return aisleAfterColumn[column];
+    }
+
+    public String getRowLabel(int row) {
+        return SeatCode.rowLabel(row);
+    }
+
+    /**
+     * Returns the 0-based row of a label, or -1 if the label is not a row of this hall.
+     */
+    public int rowIndexOf(String label) {
+        int row = SeatCode.parseRow(label);
+        return row < totalRows ? row : -1;
+    }
+
+    /**
+     * Returns the seat index for a row label and 1-based seat number, or -1 if outside the hall.
+     */
+    public int indexOf(String rowLabel, int seatNumber) {
+        int row = rowIndexOf(rowLabel);
+        if (row < 0 || seatNumber < 1 || seatNumber > seatsPerRow) {
+            return -1;
+        }
+        return row * seatsPerRow + seatNumber - 1;
+    }
+
+    /**
+     * Returns the seat index for a {@link SeatCode}, or -1 if outside the hall.
+     */
+    public int indexOf(int seatCode) {
+        if (seatCode < 0) {
+            return -1;
+        }
+        int row = SeatCode.row(seatCode);
+        int seatNumber = SeatCode.seatNumber(seatCode);
+        if (row >= totalRows || seatNumber < 1 || seatNumber > seatsPerRow) {
+            return -1;
+        }
+        return row * seatsPerRow + seatNumber - 1;
+    }
+
+    public int codeAt(int index) {
+        return SeatCode.of(index / seatsPerRow, index % seatsPerRow + 1);
+    }
+}
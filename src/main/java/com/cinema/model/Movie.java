@@ -4,7 +4,10 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a movie in the cinema system.
@@ -18,10 +21,24 @@ public class Movie {
     private String posterPath;
     private String rating;
     private List<Screening> screenings;
+    private final NavigableMap<LocalDate, List<Screening>> screeningsByDate = new ConcurrentSkipListMap<>();
+
+    // Moves a screening to its new date bucket when its date changes
+    private final Screening.ScheduleListener dateBucketMover = new Screening.ScheduleListener() {
+        @Override
+        public void beforeScheduleChange(Screening screening) {
+            removeFromDateBucket(screening);
+        }
+
+        @Override
+        public void afterScheduleChange(Screening screening) {
+            addToDateBucket(screening);
+        }
+    };
 
     public Movie() {
         this.id = UUID.randomUUID().toString();
-        this.screenings = new ArrayList<>();
+        this.screenings = new CopyOnWriteArrayList<>();
     }
 
     public Movie(String title, String description, String genre, int durationMinutes, String posterPath, String rating) {
@@ -71,8 +88,27 @@ public class Movie {
         return durationMinutes;
     }
 
+    /**
+     * Changes the duration. Screenings without an explicit end time end
+     * earlier or later, so their schedule listeners are told about it.
+     */
     public void setDurationMinutes(int durationMinutes) {
+        if (this.durationMinutes == durationMinutes) {
+            return;
+        }
+        List<Screening> moved = new ArrayList<>();
+        for (Screening screening : screenings) {
+            if (screening.hasDerivedEndTime()) {
+                moved.add(screening);
+            }
+        }
+        for (Screening screening : moved) {
+            screening.fireBeforeScheduleChange();
+        }
         this.durationMinutes = durationMinutes;
+        for (Screening screening : moved) {
+            screening.fireAfterScheduleChange();
+        }
     }
 
     public String getPosterPath() {
@@ -96,17 +132,65 @@ public class Movie {
     }
 
     public void setScreenings(List<Screening> screenings) {
-        this.screenings = screenings;
+        for (Screening screening : this.screenings) {
+            screening.removeScheduleListener(dateBucketMover);
+        }
+        this.screenings = new CopyOnWriteArrayList<>(screenings);
+        screeningsByDate.clear();
+        for (Screening screening : this.screenings) {
+            addToDateBucket(screening);
+            screening.addScheduleListener(dateBucketMover);
+        }
     }
 
     public void addScreening(Screening screening) {
         this.screenings.add(screening);
+        addToDateBucket(screening);
+        screening.addScheduleListener(dateBucketMover);
+    }
+
+    public boolean removeScreening(Screening screening) {
+        if (!screenings.remove(screening)) {
+            return false;
+        }
+        screening.removeScheduleListener(dateBucketMover);
+        removeFromDateBucket(screening);
+        return true;
     }
 
     public List<Screening> getScreeningsForDate(LocalDate date) {
-        return screenings.stream()
-                .filter(s -> s.getDate().equals(date))
-                .toList();
+        List<Screening> bucket = screeningsByDate.get(date);
+        return bucket != null ? List.copyOf(bucket) : List.of();
+    }
+
+    /**
+     * Returns the screenings between two dates (both inclusive), ordered by date.
+     */
+    public List<Screening> getScreeningsBetween(LocalDate from, LocalDate to) {
+        List<Screening> result = new ArrayList<>();
+        for (List<Screening> bucket : screeningsByDate.subMap(from, true, to, true).values()) {
+            result.addAll(bucket);
+        }
+        return result;
+    }
+
+    public boolean hasScreeningsOn(LocalDate date) {
+        return screeningsByDate.containsKey(date);
+    }
+
+    private void removeFromDateBucket(Screening screening) {
+        screeningsByDate.computeIfPresent(screening.getDate(), (date, bucket) -> {
+            bucket.remove(screening);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private void addToDateBucket(Screening screening) {
+        screeningsByDate.compute(screening.getDate(), (date, bucket) -> {
+            List<Screening> list = bucket != null ? bucket : new CopyOnWriteArrayList<>();
+            list.add(screening);
+            return list;
+        });
     }
 
     public String getFormattedDuration() {
@@ -3,50 +3,89 @@ package com.cinema.model;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents a movie screening at a specific date and time.
+ * The seating plan comes from a {@link HallLayout} shared by every screening
+ * in the hall; a screening only stores which seats are taken. Seat occupancy
+ * is kept in a bitmap (one bit per seat, set = reserved)
+ * indexed by {@code row * seatsPerRow + column}. Bitmap words are updated
+ * with compare-and-set, so bookings on different seats never block each other.
+ * Each row also keeps a summary of its longest free run, refreshed on every
+ * reserve/release, so best-available searches can skip full rows outright.
+ * {@link Seat} objects are only created when a seat is actually looked up.
  */
 public class Screening {
     private String id;
     private Movie movie;
     private LocalDate date;
     private LocalTime time;
+    private LocalTime endTime;
     private String hall;
     private double price;
+    private HallLayout layout;
     private int totalRows;
     private int seatsPerRow;
-    private List<Seat> seats;
+    private volatile AtomicReferenceArray<Seat> seatViews;
+    // Sized once by the layout and updated in place, so every thread sees the same arrays
+    private final AtomicLongArray occupancy;
+    private final AtomicIntegerArray longestFreeRuns;
+    private final AtomicIntegerArray rowVersions;
+    private final List<ScheduleListener> scheduleListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Told when the date, start time, end time or hall of a screening
+     * changes, so that indexes keyed by them can move it: the screening is
+     * taken out under its old schedule and put back under the new one.
+     */
+    public interface ScheduleListener {
+        void beforeScheduleChange(Screening screening);
+
+        void afterScheduleChange(Screening screening);
+    }
 
     public Screening() {
-        this.id = UUID.randomUUID().toString();
-        this.seats = new ArrayList<>();
+        this(null, null, null, null, 0, new HallLayout("", 0, 0, new SeatType[0]));
     }
 
     public Screening(Movie movie, LocalDate date, LocalTime time, String hall, double price, int totalRows, int seatsPerRow) {
-        this();
+        this(movie, date, time, hall, price, HallLayout.forHall(hall, totalRows, seatsPerRow));
+    }
+
+    public Screening(Movie movie, LocalDate date, LocalTime time, String hall, double price, HallLayout layout) {
+        this.id = UUID.randomUUID().toString();
         this.movie = movie;
         this.date = date;
         this.time = time;
         this.hall = hall;
         this.price = price;
-        this.totalRows = totalRows;
-        this.seatsPerRow = seatsPerRow;
-        initializeSeats();
-    }
-
-    private void initializeSeats() {
+        // Every seat starts available
+        this.layout = layout;
+        this.totalRows = layout.getTotalRows();
+        this.seatsPerRow = layout.getSeatsPerRow();
+        this.occupancy = new AtomicLongArray(wordCount(layout.getCapacity()));
+        this.longestFreeRuns = new AtomicIntegerArray(totalRows);
+        this.rowVersions = new AtomicIntegerArray(totalRows);
         for (int row = 0; row < totalRows; row++) {
-            char rowLetter = (char) ('A' + row);
-            for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
-                seats.add(new Seat(String.valueOf(rowLetter), seatNum));
-            }
+            refreshRunSummary(row);
         }
     }
 
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -69,7 +108,9 @@ public class Screening {
     }
 
     public void setDate(LocalDate date) {
-        this.date = date;
+        if (!Objects.equals(this.date, date)) {
+            changeSchedule(() -> this.date = date);
+        }
     }
 
     public LocalTime getTime() {
@@ -77,7 +118,35 @@ public class Screening {
     }
 
     public void setTime(LocalTime time) {
-        this.time = time;
+        if (!Objects.equals(this.time, time)) {
+            changeSchedule(() -> this.time = time);
+        }
+    }
+
+    /**
+     * Returns the end time of the screening. If none was set, it is derived
+     * from the movie's duration.
+     */
+    public LocalTime getEndTime() {
+        if (endTime != null || time == null) {
+            return endTime;
+        }
+        int duration = movie != null ? movie.getDurationMinutes() : 0;
+        return time.plusMinutes(Math.max(duration, 1));
+    }
+
+    /**
+     * Returns the end time that was set explicitly, or null if the end time
+     * is derived from the movie's duration.
+     */
+    public LocalTime getExplicitEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        if (!Objects.equals(this.endTime, endTime)) {
+            changeSchedule(() -> this.endTime = endTime);
+        }
     }
 
     public String getHall() {
@@ -85,7 +154,43 @@ public class Screening {
     }
 
     public void setHall(String hall) {
-        this.hall = hall;
+        if (!Objects.equals(this.hall, hall)) {
+            changeSchedule(() -> this.hall = hall);
+        }
+    }
+
+    public void addScheduleListener(ScheduleListener listener) {
+        scheduleListeners.add(listener);
+    }
+
+    public void removeScheduleListener(ScheduleListener listener) {
+        scheduleListeners.remove(listener);
+    }
+
+    private void changeSchedule(Runnable change) {
+        fireBeforeScheduleChange();
+        change.run();
+        fireAfterScheduleChange();
+    }
+
+    /**
+     * Returns true if the end time follows the movie's duration, so a change
+     * of the duration moves it (see {@link Movie#setDurationMinutes}).
+     */
+    boolean hasDerivedEndTime() {
+        return endTime == null && time != null;
+    }
+
+    void fireBeforeScheduleChange() {
+        for (ScheduleListener listener : scheduleListeners) {
+            listener.beforeScheduleChange(this);
+        }
+    }
+
+    void fireAfterScheduleChange() {
+        for (ScheduleListener listener : scheduleListeners) {
+            listener.afterScheduleChange(this);
+        }
     }
 
     public double getPrice() {
@@ -96,47 +201,450 @@ public class Screening {
         this.price = price;
     }
 
-    public int getTotalRows() {
-        return totalRows;
+    public HallLayout getLayout() {
+        return layout;
     }
 
-    public void setTotalRows(int totalRows) {
-        this.totalRows = totalRows;
+    public int getTotalRows() {
+        return totalRows;
     }
 
     public int getSeatsPerRow() {
         return seatsPerRow;
     }
 
-    public void setSeatsPerRow(int seatsPerRow) {
-        this.seatsPerRow = seatsPerRow;
-    }
-
+    /**
+     * Returns all seats in row order. The list is a view; seat objects are
+     * created on first access.
+     */
     public List<Seat> getSeats() {
-        return seats;
+        return new AbstractList<>() {
+            @Override
+            public Seat get(int index) {
+                if (index < 0 || index >= getCapacity()) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return seatAt(index);
+            }
+
+            @Override
+            public int size() {
+                return getCapacity();
+            }
+        };
     }
 
+    /**
+     * Rebuilds the occupancy bitmap from the availability of the given seats.
+     * Seats outside the hall layout are ignored.
+     */
     public void setSeats(List<Seat> seats) {
-        this.seats = seats;
+        int capacity = getCapacity();
+        long[] bitmap = new long[wordCount(capacity)];
+        AtomicReferenceArray<Seat> views = new AtomicReferenceArray<>(capacity);
+        for (Seat seat : seats) {
+            int index = layout.indexOf(seat.getCode());
+            if (index >= 0) {
+                if (!seat.isAvailable()) {
+                    bitmap[index >>> 6] |= 1L << index;
+                }
+                seat.bind(this, index);
+                views.set(index, seat);
+            }
+        }
+        copyIntoOccupancy(bitmap);
+        this.seatViews = views;
+        for (int row = 0; row < totalRows; row++) {
+            refreshRunSummary(row);
+        }
+    }
+
+    /**
+     * Returns a copy of the occupancy bitmap: one bit per seat in layout
+     * order, set when the seat is reserved.
+     */
+    public long[] getOccupancyWords() {
+        long[] words = new long[occupancy.length()];
+        for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+            words[wordIndex] = occupancy.get(wordIndex);
+        }
+        return words;
+    }
+
+    /**
+     * Replaces the occupancy bitmap with one from {@link #getOccupancyWords()}.
+     * Bits beyond the capacity of the hall are ignored.
+     */
+    public void restoreOccupancy(long[] words) {
+        int capacity = getCapacity();
+        long[] bitmap = new long[wordCount(capacity)];
+        System.arraycopy(words, 0, bitmap, 0, Math.min(words.length, bitmap.length));
+        if ((capacity & 63) != 0 && bitmap.length > 0) {
+            bitmap[bitmap.length - 1] &= (1L << capacity) - 1;
+        }
+        copyIntoOccupancy(bitmap);
+        for (int row = 0; row < totalRows; row++) {
+            refreshRunSummary(row);
+        }
+    }
+
+    /**
+     * Overwrites the bitmap word by word. Meant for loading, before the
+     * screening is sold from; a booking racing with it may be overwritten.
+     */
+    private void copyIntoOccupancy(long[] bitmap) {
+        for (int wordIndex = 0; wordIndex < bitmap.length; wordIndex++) {
+            occupancy.set(wordIndex, bitmap[wordIndex]);
+        }
     }
 
     public Seat getSeat(String row, int seatNumber) {
-        return seats.stream()
-                .filter(s -> s.getRow().equals(row) && s.getSeatNumber() == seatNumber)
-                .findFirst()
-                .orElse(null);
+        int index = layout.indexOf(row, seatNumber);
+        return index >= 0 ? seatAt(index) : null;
+    }
+
+    public Seat getSeatByCode(int seatCode) {
+        int index = layout.indexOf(seatCode);
+        return index >= 0 ? seatAt(index) : null;
+    }
+
+    public Seat getSeat(int rowIndex, int seatNumber) {
+        if (rowIndex < 0 || rowIndex >= totalRows || seatNumber < 1 || seatNumber > seatsPerRow) {
+            return null;
+        }
+        return seatAt(rowIndex * seatsPerRow + seatNumber - 1);
+    }
+
+    /**
+     * Returns the seat object for an index, creating it from the layout on
+     * first access. Screenings nobody looks at never allocate seat objects.
+     */
+    private Seat seatAt(int index) {
+        AtomicReferenceArray<Seat> views = seatViews;
+        if (views == null) {
+            synchronized (this) {
+                views = seatViews;
+                if (views == null) {
+                    views = new AtomicReferenceArray<>(getCapacity());
+                    seatViews = views;
+                }
+            }
+        }
+        Seat seat = views.get(index);
+        if (seat == null) {
+            seat = new Seat(layout.codeAt(index), layout.getSeatType(index));
+            seat.bind(this, index);
+            if (!views.compareAndSet(index, null, seat)) {
+                seat = views.get(index);
+            }
+        }
+        return seat;
+    }
+
+    // ==================== Occupancy Bitmap ====================
+
+    /**
+     * Returns whether the seat at {@code rowIndex * seatsPerRow + seatNumber - 1}
+     * is reserved, without creating its seat object.
+     */
+    public boolean isReservedAt(int index) {
+        return isReserved(index);
+    }
+
+    boolean isReserved(int index) {
+        return (occupancy.get(index >>> 6) & (1L << index)) != 0;
     }
 
+    void setReserved(int index, boolean reserved) {
+        long bit = 1L << index;
+        if (reserved) {
+            occupancy.getAndAccumulate(index >>> 6, bit, (word, mask) -> word | mask);
+        } else {
+            occupancy.getAndAccumulate(index >>> 6, bit, (word, mask) -> word & ~mask);
+        }
+        refreshRunSummary(index / seatsPerRow);
+    }
+
+    /**
+     * Reserves all of the given seats or none of them. Bitmap words are
+     * claimed in ascending order with compare-and-set; if any seat turns out
+     * to be taken, the words claimed so far are rolled back.
+     *
+     * @return the seats that could not be reserved, or an empty list when
+     *         every seat was reserved
+     */
+    public List<Seat> tryReserve(List<Seat> requested) {
+        long[] masks = new long[occupancy.length()];
+        List<Seat> conflicts = new ArrayList<>();
+        for (Seat seat : requested) {
+            int index = layout.indexOf(seat.getCode());
+            if (index < 0) {
+                conflicts.add(seat);
+            } else {
+                masks[index >>> 6] |= 1L << index;
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            return conflicts;
+        }
+
+        long[] won = new long[masks.length];
+        while (true) {
+            int failedWord = claim(masks, won);
+            if (failedWord < 0) {
+                refreshRunSummaries(masks);
+                return conflicts;
+            }
+            rollback(won);
+            refreshRunSummaries(masks);
+            conflicts = collectConflicts(masks);
+            if (!conflicts.isEmpty()) {
+                return conflicts;
+            }
+            // The conflicting seats were released meanwhile; try again
+        }
+    }
+
+    /**
+     * Claims every word mask in ascending order, recording in {@code won} the
+     * bits this call set.
+     *
+     * @return -1 on success, otherwise the index of the word that conflicted
+     */
+    private int claim(long[] masks, long[] won) {
+        for (int wordIndex = 0; wordIndex < masks.length; wordIndex++) {
+            long mask = masks[wordIndex];
+            if (mask == 0) {
+                continue;
+            }
+            while (true) {
+                long current = occupancy.get(wordIndex);
+                if ((current & mask) != 0) {
+                    return wordIndex;
+                }
+                if (occupancy.compareAndSet(wordIndex, current, current | mask)) {
+                    won[wordIndex] = mask;
+                    break;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Releases the given seats. Seats that are not part of this screening are ignored.
+     */
+    public void releaseSeats(List<Seat> seatsToRelease) {
+        for (Seat seat : seatsToRelease) {
+            int index = layout.indexOf(seat.getCode());
+            if (index >= 0) {
+                setReserved(index, false);
+            }
+        }
+    }
+
+    /**
+     * Undoes a failed claim with a compare-and-set per word that clears only
+     * the bits the claim won, leaving seats reserved by other callers in the
+     * same word alone. {@code won} is cleared for the next attempt.
+     */
+    private void rollback(long[] won) {
+        for (int wordIndex = 0; wordIndex < won.length; wordIndex++) {
+            long bits = won[wordIndex];
+            if (bits == 0) {
+                continue;
+            }
+            while (true) {
+                long current = occupancy.get(wordIndex);
+                long stillOurs = current & bits;
+                if (stillOurs == 0 || occupancy.compareAndSet(wordIndex, current, current & ~stillOurs)) {
+                    break;
+                }
+            }
+            won[wordIndex] = 0;
+        }
+    }
+
+    /**
+     * Finds the best block of {@code count} adjacent free seats in one row,
+     * never spanning an aisle.
+     * Blocks closer to the middle of the row and to the preferred viewing row
+     * (about a third of the way from the back) score better. Rows whose longest
+     * free run is shorter than {@code count} are skipped without scanning.
+     *
+     * @return the seats of the best block, or an empty list if no row has room
+     */
+    public List<Seat> findBestSeats(int count) {
+        if (count < 1 || count > seatsPerRow) {
+            return new ArrayList<>();
+        }
+        double rowCentre = (seatsPerRow - 1) / 2.0;
+        double preferredRow = (totalRows - 1) / 3.0;
+        int idealStart = (int) Math.round(rowCentre - (count - 1) / 2.0);
+
+        int bestStart = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int row = 0; row < totalRows; row++) {
+            if (longestFreeRuns.get(row) < count) {
+                continue;
+            }
+            double rowScore = 2.0 * Math.abs(row - preferredRow) / totalRows;
+            if (rowScore >= bestScore) {
+                continue;
+            }
+            int rowStart = row * seatsPerRow;
+            int column = 0;
+            while (column < seatsPerRow) {
+                if (isReserved(rowStart + column)) {
+                    column++;
+                    continue;
+                }
+                int runStart = column;
+                while (column < seatsPerRow && !isReserved(rowStart + column)) {
+                    column++;
+                    if (layout.isAisleAfter(column - 1)) {
+                        break;
+                    }
+                }
+                if (column - runStart >= count) {
+                    int start = Math.max(runStart, Math.min(idealStart, column - count));
+                    double blockCentre = start + (count - 1) / 2.0;
+                    double score = rowScore + Math.abs(blockCentre - rowCentre) / seatsPerRow;
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestStart = rowStart + start;
+                    }
+                }
+            }
+        }
+
+        List<Seat> block = new ArrayList<>(count);
+        if (bestStart >= 0) {
+            for (int i = 0; i < count; i++) {
+                block.add(seatAt(bestStart + i));
+            }
+        }
+        return block;
+    }
+
+    public int getLongestFreeRun(int rowIndex) {
+        return longestFreeRuns.get(rowIndex);
+    }
+
+    private void refreshRunSummaries(long[] masks) {
+        int lastRow = -1;
+        for (int wordIndex = 0; wordIndex < masks.length; wordIndex++) {
+            long bits = masks[wordIndex];
+            while (bits != 0) {
+                int row = ((wordIndex << 6) + Long.numberOfTrailingZeros(bits)) / seatsPerRow;
+                if (row != lastRow) {
+                    refreshRunSummary(row);
+                    lastRow = row;
+                }
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Recomputes the longest free run of a row. The row version is bumped
+     * first and re-checked afterwards, so a writer that raced with another
+     * one recomputes until its summary reflects the latest bitmap.
+     */
+    private void refreshRunSummary(int row) {
+        rowVersions.incrementAndGet(row);
+        int version;
+        do {
+            version = rowVersions.get(row);
+            int rowStart = row * seatsPerRow;
+            int longest = 0;
+            int run = 0;
+            for (int column = 0; column < seatsPerRow; column++) {
+                run = isReserved(rowStart + column) ? 0 : run + 1;
+                longest = Math.max(longest, run);
+                if (layout.isAisleAfter(column)) {
+                    run = 0;
+                }
+            }
+            longestFreeRuns.set(row, longest);
+        } while (rowVersions.get(row) != version);
+    }
+
+    private List<Seat> collectConflicts(long[] masks) {
+        List<Seat> conflicts = new ArrayList<>();
+        for (int wordIndex = 0; wordIndex < masks.length; wordIndex++) {
+            long taken = occupancy.get(wordIndex) & masks[wordIndex];
+            while (taken != 0) {
+                conflicts.add(seatAt((wordIndex << 6) + Long.numberOfTrailingZeros(taken)));
+                taken &= taken - 1;
+            }
+        }
+        return conflicts;
+    }
+
+    public int getCapacity() {
+        return layout.getCapacity();
+    }
+
+    public int getReservedSeatCount() {
+        int count = 0;
+        for (int wordIndex = 0; wordIndex < occupancy.length(); wordIndex++) {
+            count += Long.bitCount(occupancy.get(wordIndex));
+        }
+        return count;
+    }
+
+    public int getAvailableSeatCount() {
+        return getCapacity() - getReservedSeatCount();
+    }
+
+    /**
+     * Returns the index of the first reserved seat at or after {@code from},
+     * or -1 if there is none. Allows iterating without allocating.
+     */
+    public int nextReservedIndex(int from) {
+        return nextIndex(from, true);
+    }
+
+    /**
+     * Returns the index of the first available seat at or after {@code from},
+     * or -1 if there is none.
+     */
+    public int nextAvailableIndex(int from) {
+        return nextIndex(from, false);
+    }
+
+    private int nextIndex(int from, boolean reserved) {
+        int capacity = getCapacity();
+        if (from < 0 || from >= capacity) {
+            return -1;
+        }
+        int wordIndex = from >>> 6;
+        long word = (reserved ? occupancy.get(wordIndex) : ~occupancy.get(wordIndex)) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                return index < capacity ? index : -1;
+            }
+            if (++wordIndex == occupancy.length()) {
+                return -1;
+            }
+            word = reserved ? occupancy.get(wordIndex) : ~occupancy.get(wordIndex);
+        }
+    }
+
+    /**
+     * Live view of the available seats, backed by the occupancy bitmap.
+     */
     public List<Seat> getAvailableSeats() {
-        return seats.stream()
-                .filter(Seat::isAvailable)
-                .toList();
+        return new OccupancyView(false);
     }
 
+    /**
+     * Live view of the reserved seats, backed by the occupancy bitmap.
+     */
     public List<Seat> getReservedSeats() {
-        return seats.stream()
-                .filter(s -> !s.isAvailable())
-                .toList();
+        return new OccupancyView(true);
     }
 
     public String getFormattedTime() {
@@ -146,4 +654,54 @@ public class Screening {
     public String getFormattedDate() {
         return date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
     }
+
+    private class OccupancyView extends AbstractList<Seat> {
+        private final boolean reserved;
+
+        OccupancyView(boolean reserved) {
+            this.reserved = reserved;
+        }
+
+        @Override
+        public Seat get(int position) {
+            if (position < 0) {
+                throw new IndexOutOfBoundsException(position);
+            }
+            int index = nextIndex(0, reserved);
+            for (int i = 0; i < position && index >= 0; i++) {
+                index = nextIndex(index + 1, reserved);
+            }
+            if (index < 0) {
+                throw new IndexOutOfBoundsException(position);
+            }
+            return seatAt(index);
+        }
+
+        @Override
+        public int size() {
+            return reserved ? getReservedSeatCount() : getAvailableSeatCount();
+        }
+
+        @Override
+        public Iterator<Seat> iterator() {
+            return new Iterator<>() {
+                private int next = nextIndex(0, reserved);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Seat next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    Seat seat = seatAt(next);
+                    next = nextIndex(next + 1, reserved);
+                    return seat;
+                }
+            };
+        }
+    }
 }
@@ -1,23 +1,36 @@
 package com.cinema.model;
 
 /**
- * Represents a seat in a cinema hall.
+ * Represents a seat in a cinema hall. The position is stored as a packed
+ * {@link SeatCode}; row and label strings are derived from it. The position
+ * is fixed when the seat is created, since a screening indexes its seats by it.
  */
 public class Seat {
-    private String row;
-    private int seatNumber;
+    private int code;
+    private String label;
     private boolean available;
     private SeatType type;
+    private Screening screening;
+    private int index;
 
     public Seat() {
+        this.code = SeatCode.INVALID;
         this.available = true;
         this.type = SeatType.REGULAR;
     }
 
-    public Seat(String row, int seatNumber) {
+    public Seat(int code) {
         this();
-        this.row = row;
-        this.seatNumber = seatNumber;
+        this.code = code;
+    }
+
+    public Seat(int code, SeatType type) {
+        this(code);
+        this.type = type;
+    }
+
+    public Seat(String row, int seatNumber) {
+        this(SeatCode.of(SeatCode.parseRow(row), seatNumber));
     }
 
     public Seat(String row, int seatNumber, SeatType type) {
@@ -26,28 +39,32 @@ public class Seat {
     }
 
     // Getters and Setters
-    public String getRow() {
-        return row;
+    public int getCode() {
+        return code;
     }
 
-    public void setRow(String row) {
-        this.row = row;
+    public String getRow() {
+        return code != SeatCode.INVALID ? SeatCode.rowLabel(SeatCode.row(code)) : null;
     }
 
-    public int getSeatNumber() {
-        return seatNumber;
+    public int getRowIndex() {
+        return code != SeatCode.INVALID ? SeatCode.row(code) : -1;
     }
 
-    public void setSeatNumber(int seatNumber) {
-        this.seatNumber = seatNumber;
+    public int getSeatNumber() {
+        return code != SeatCode.INVALID ? SeatCode.seatNumber(code) : 0;
     }
 
     public boolean isAvailable() {
-        return available;
+        return screening != null ? !screening.isReserved(index) : available;
     }
 
     public void setAvailable(boolean available) {
-        this.available = available;
+        if (screening != null) {
+            screening.setReserved(index, !available);
+        } else {
+            this.available = available;
+        }
     }
 
     public SeatType getType() {
@@ -59,15 +76,27 @@ public class Seat {
     }
 
     public String getSeatLabel() {
-        return row + seatNumber;
+        if (label == null) {
+            label = code != SeatCode.INVALID ? SeatCode.format(code) : "";
+        }
+        return label;
     }
 
     public void reserve() {
-        this.available = false;
+        setAvailable(false);
     }
 
     public void release() {
-        this.available = true;
+        setAvailable(true);
+    }
+
+    /**
+     * Attaches this seat to a screening so that its availability is read from
+     * and written to the screening's occupancy bitmap.
+     */
+    void bind(Screening screening, int index) {
+        this.screening = screening;
+        this.index = index;
     }
 
     @Override
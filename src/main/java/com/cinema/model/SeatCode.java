@@ -0,0 +1,152 @@
+package com.cinema.model;
+
+/**
+ * Packs a seat position into a single {@code int}: the 0-based row in the
+ * upper 16 bits and the 1-based seat number in the lower 16 bits.
+ * Rows are labelled A..Z, AA..AZ, BA.. and so on, like spreadsheet columns.
+ * Both parts are at most {@value #MAX_VALUE}, so a valid code is never
+ * negative and never equals {@link #INVALID}.
+ */
+public final class SeatCode {
+    public static final int INVALID = -1;
+
+    private static final int MAX_VALUE = 0x7FFF;
+    private static final String[] ROW_LABELS = new String[256];
+
+    static {
+        for (int row = 0; row < ROW_LABELS.length; row++) {
+            ROW_LABELS[row] = appendRowLabel(new StringBuilder(2), row).toString();
+        }
+    }
+
+    private SeatCode() {
+    }
+
+    public static int of(int row, int seatNumber) {
+        if (row < 0 || row > MAX_VALUE || seatNumber < 1 || seatNumber > MAX_VALUE) {
+            return INVALID;
+        }
+        return (row << 16) | seatNumber;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the code is {@link #INVALID} or otherwise negative
+     */
+    public static int row(int code) {
+        checkValid(code);
+        return code >>> 16;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the code is {@link #INVALID} or otherwise negative
+     */
+    public static int seatNumber(int code) {
+        checkValid(code);
+        return code & 0xFFFF;
+    }
+
+    private static void checkValid(int code) {
+        if (code < 0) {
+            throw new IllegalArgumentException("Invalid seat code: " + code);
+        }
+    }
+
+    /**
+     * Returns the label of a 0-based row. Labels of common rows are cached.
+     */
+    public static String rowLabel(int row) {
+        if (row < ROW_LABELS.length) {
+            return ROW_LABELS[row];
+        }
+        return appendRowLabel(new StringBuilder(4), row).toString();
+    }
+
+    /**
+     * Appends the seat label (e.g. "A7") to the builder without creating intermediate strings.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, int code) {
+        int row = row(code);
+        if (row < ROW_LABELS.length) {
+            builder.append(ROW_LABELS[row]);
+        } else {
+            appendRowLabel(builder, row);
+        }
+        return builder.append(seatNumber(code));
+    }
+
+    public static String format(int code) {
+        return appendTo(new StringBuilder(6), code).toString();
+    }
+
+    /**
+     * Parses a seat label such as "A7" or "AB12".
+     *
+     * @return the seat code, or {@link #INVALID} if the label is malformed
+     */
+    public static int parse(CharSequence label) {
+        if (label == null) {
+            return INVALID;
+        }
+        int length = label.length();
+        int i = 0;
+        int row = 0;
+        while (i < length && isLetter(label.charAt(i))) {
+            row = row * 26 + (Character.toUpperCase(label.charAt(i)) - 'A' + 1);
+            if (row > MAX_VALUE + 1) {
+                return INVALID;
+            }
+            i++;
+        }
+        if (i == 0 || i == length) {
+            return INVALID;
+        }
+        int seatNumber = 0;
+        while (i < length) {
+            char c = label.charAt(i++);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            seatNumber = seatNumber * 10 + (c - '0');
+            if (seatNumber > MAX_VALUE) {
+                return INVALID;
+            }
+        }
+        return of(row - 1, seatNumber);
+    }
+
+    /**
+     * Parses a row label such as "A" or "AB" into a 0-based row, or returns -1.
+     */
+    public static int parseRow(CharSequence label) {
+        if (label == null || label.length() == 0) {
+            return -1;
+        }
+        int row = 0;
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (!isLetter(c)) {
+                return -1;
+            }
+            row = row * 26 + (Character.toUpperCase(c) - 'A' + 1);
+            if (row > MAX_VALUE + 1) {
+                return -1;
+            }
+        }
+        return row - 1;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static StringBuilder appendRowLabel(StringBuilder builder, int row) {
+        int start = builder.length();
+        int n = row + 1;
+        while (n > 0) {
+            n--;
+            builder.insert(start, (char) ('A' + n % 26));
+            n /= 26;
+        }
+        return builder;
+    }
+}
@@ -47,6 +47,10 @@ public class Ticket {
     }
 
     private void calculateTotalPrice() {
+        if (screening == null) {
+            // Read from storage without its screening; keep the stored price
+            return;
+        }
         this.totalPrice = seats.stream()
                 .mapToDouble(seat -> screening.getPrice() * seat.getType().getPriceMultiplier())
                 .sum();
@@ -143,10 +147,22 @@ public class Ticket {
     }
 
     public String getSeatsDisplay() {
-        return seats.stream()
-                .map(Seat::getSeatLabel)
-                .reduce((a, b) -> a + ", " + b)
-                .orElse("");
+        StringBuilder display = new StringBuilder(seats.size() * 5);
+        for (Seat seat : seats) {
+            if (display.length() > 0) {
+                display.append(", ");
+            }
+            SeatCode.appendTo(display, seat.getCode());
+        }
+        return display.toString();
+    }
+
+    public int[] getSeatCodes() {
+        int[] codes = new int[seats.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = seats.get(i).getCode();
+        }
+        return codes;
     }
 
     public int getSeatCount() {
@@ -0,0 +1,573 @@
+package com.cinema.service;
+
+import com.cinema.model.Ticket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal of ticket operations. Every booking,
+ * cancellation and change is recorded as a replacement of an old ticket by a
+ * new one (either may be absent), the same shape as
+ * {@link DataStore#commitTicketChange}. Once Firebase acknowledges an
+ * operation a commit marker is appended for it.
+ * <p>
+ * Appends are written by a single background thread that takes everything
+ * queued since its last write, writes it, and forces it to disk with one
+ * fsync (group commit), so concurrent sales share the cost of syncing.
+ * <p>
+ * The header holds the sequence number the file continues from, so numbers
+ * keep growing after every committed operation has been compacted away.
+ * Each record is {@code [length][CRC32C][payload]}. When the journal is opened,
+ * a torn or corrupt tail left by a crash is cut off, and the file is rewritten
+ * with only the operations that were never committed. While it is open, the
+ * file is rewritten the same way once it passes {@value #COMPACT_THRESHOLD_BYTES}
+ * bytes and committed records make up more than half of it, so it stays
+ * within twice the size of the operations Firebase has not confirmed yet.
+ */
+class BookingJournal {
+    private static final int MAGIC = 0x434A4E4C; // "CJNL"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final long COMPACT_THRESHOLD_BYTES = 1 << 20;
+
+    private static final byte OPERATION = 1;
+    private static final byte COMMIT = 2;
+
+    private final Path file;
+    private volatile FileChannel channel; // replaced by the writer thread when it compacts the file
+    private final List<Entry> recovered;
+    // Frames of the operations written but not committed, by sequence; only used by the writer thread
+    private final Map<Long, ByteBuffer> uncommitted;
+    private long uncommittedBytes;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private long nextSequence;
+    private volatile boolean closed;
+
+    private BookingJournal(Path file, FileChannel channel, List<Entry> recovered,
+                           Map<Long, ByteBuffer> uncommitted, long nextSequence) {
+        this.file = file;
+        this.channel = channel;
+        this.recovered = Collections.unmodifiableList(recovered);
+        this.uncommitted = uncommitted;
+        for (ByteBuffer frame : uncommitted.values()) {
+            uncommittedBytes += frame.remaining();
+        }
+        this.nextSequence = nextSequence;
+        this.writer = new Thread(this::writeLoop, "booking-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the journal, recovering the operations that were never committed.
+     *
+     * @return the journal, or null if the file cannot be read or written
+     */
+    static BookingJournal open(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Map<Long, Entry> pending = new LinkedHashMap<>();
+            long nextSequence = 1;
+            if (Files.exists(file)) {
+                nextSequence = read(file, pending);
+            }
+
+            // Keep only what still has to reach Firebase
+            Map<Long, ByteBuffer> uncommitted = new LinkedHashMap<>();
+            for (Entry entry : pending.values()) {
+                uncommitted.put(entry.getSequence(), frame(encodeOperation(entry)));
+            }
+            FileChannel channel = rewrite(file, uncommitted.values(), nextSequence);
+            return new BookingJournal(file, channel, new ArrayList<>(pending.values()), uncommitted, nextSequence);
+        } catch (IOException e) {
+            System.err.println("Booking journal unavailable (" + file + "): " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Operations found in the journal at startup that were never committed, in order.
+     */
+    List<Entry> getRecoveredEntries() {
+        return recovered;
+    }
+
+    /**
+     * The sequence number of the last operation appended, or 0 if there is none.
+     * Every operation up to it has already been applied to the local state,
+     * since tickets are stored before their operation is journaled.
+     */
+    synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * Records that {@code oldTicket} was replaced by {@code newTicket}.
+     *
+     * @return a future completed with the operation's sequence number once it is on disk
+     */
+    CompletableFuture<Long> append(Ticket oldTicket, Ticket newTicket) {
+        TicketSnapshot before = oldTicket != null ? TicketSnapshot.of(oldTicket) : null;
+        TicketSnapshot after = newTicket != null ? TicketSnapshot.of(newTicket) : null;
+        synchronized (this) {
+            Entry entry = new Entry(nextSequence++, before, after);
+            return enqueue(encodeOperation(entry)).thenApply(v -> entry.getSequence());
+        }
+    }
+
+    /**
+     * Records that an operation has been stored in Firebase, so it is not
+     * replayed or sent again after a restart.
+     */
+    void markCommitted(long sequence) {
+        ByteBuffer payload = ByteBuffer.allocate(9).put(COMMIT).putLong(sequence);
+        enqueue(payload.array());
+    }
+
+    /**
+     * Writes and syncs everything queued, then closes the file.
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Failed to close booking journal: " + e.getMessage());
+        }
+    }
+
+    private synchronized CompletableFuture<Void> enqueue(byte[] payload) {
+        PendingRecord record = new PendingRecord(frame(payload));
+        if (closed) {
+            record.durable.completeExceptionally(new IOException("Booking journal is closed"));
+        } else {
+            queue.add(record);
+        }
+        return record.durable;
+    }
+
+    // ==================== Group Commit ====================
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            // Not interrupted on close: an interrupt would close the channel mid-write
+            try {
+                PendingRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch);
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) {
+        try {
+            for (PendingRecord record : batch) {
+                writeFully(channel, record.bytes);
+            }
+            channel.force(false);
+            for (PendingRecord record : batch) {
+                track(record.bytes);
+                record.durable.complete(null);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write booking journal " + file + ": " + e.getMessage());
+            for (PendingRecord record : batch) {
+                record.durable.completeExceptionally(e);
+            }
+            return;
+        }
+        compactIfNeeded();
+    }
+
+    private void track(ByteBuffer frame) {
+        // The payload starts after the length and checksum with its type and sequence
+        long sequence = frame.getLong(9);
+        if (frame.get(8) == OPERATION) {
+            uncommitted.put(sequence, frame);
+            uncommittedBytes += frame.remaining();
+        } else {
+            ByteBuffer operation = uncommitted.remove(sequence);
+            if (operation != null) {
+                uncommittedBytes -= operation.remaining();
+            }
+        }
+    }
+
+    /**
+     * Rewrites the file with only the uncommitted operations once committed
+     * ones take up most of it.
+     */
+    private void compactIfNeeded() {
+        try {
+            long size = channel.size();
+            if (size < COMPACT_THRESHOLD_BYTES || uncommittedBytes * 2 > size) {
+                return;
+            }
+            FileChannel previous = channel;
+            channel = rewrite(file, uncommitted.values(), getLastSequence() + 1);
+            previous.close();
+        } catch (IOException e) {
+            // The old file is still complete, so keep appending to it
+            System.err.println("Failed to compact booking journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a new journal file with the given operation frames and moves it
+     * over {@code file} in one step.
+     *
+     * @return the new file, open for appending
+     */
+    private static FileChannel rewrite(Path file, Collection<ByteBuffer> frames, long nextSequence)
+            throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(nextSequence)
+                    .flip();
+            writeFully(out, header);
+            for (ByteBuffer frame : frames) {
+                writeFully(out, frame);
+            }
+            out.force(true);
+            // The open channel follows the file to its new name
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return out;
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    private static final class PendingRecord {
+        final ByteBuffer bytes;
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingRecord(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    // ==================== Encoding ====================
+
+    /**
+     * Reads every intact record into {@code pending}, dropping committed
+     * operations, and cuts off a damaged tail.
+     *
+     * @return the next free sequence number
+     */
+    private static long read(Path file, Map<Long, Entry> pending) throws IOException {
+        long nextSequence = 1;
+        Set<Long> committed = new HashSet<>();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (readFully(in, header)) {
+                if (header.getInt() != MAGIC) {
+                    throw new IOException("not a booking journal");
+                }
+                // Left untouched, so a newer version of the application can still read it
+                int version = header.getInt();
+                if (version != VERSION) {
+                    throw new IOException("unsupported booking journal version " + version);
+                }
+                nextSequence = Math.max(nextSequence, header.getLong());
+            }
+
+            long validEnd = Math.min(in.size(), HEADER_BYTES);
+            ByteBuffer frameHeader = ByteBuffer.allocate(8);
+            while (readFully(in, frameHeader.clear())) {
+                int length = frameHeader.getInt();
+                int checksum = frameHeader.getInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                if (!readFully(in, payload) || checksum(payload.array()) != checksum) {
+                    break;
+                }
+                validEnd = in.position();
+
+                if (payload.get(0) == COMMIT) {
+                    committed.add(payload.getLong(1));
+                } else {
+                    Entry entry = decodeOperation(payload.array());
+                    pending.put(entry.getSequence(), entry);
+                    nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+                }
+            }
+            if (validEnd < in.size()) {
+                System.err.println("Booking journal: discarding " + (in.size() - validEnd) + " damaged bytes at the end");
+                in.truncate(validEnd);
+            }
+        }
+        pending.keySet().removeAll(committed);
+        return nextSequence;
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        return ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length)
+                .putInt(checksum(payload))
+                .put(payload)
+                .flip();
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encodeOperation(Entry entry) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(OPERATION);
+            out.writeLong(entry.getSequence());
+            writeTicket(out, entry.getOldTicket());
+            writeTicket(out, entry.getNewTicket());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen for an in-memory stream
+        }
+    }
+
+    private static Entry decodeOperation(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        in.readByte();
+        long sequence = in.readLong();
+        TicketSnapshot oldTicket = readTicket(in);
+        TicketSnapshot newTicket = readTicket(in);
+        return new Entry(sequence, oldTicket, newTicket);
+    }
+
+    private static void writeTicket(DataOutputStream out, TicketSnapshot ticket) throws IOException {
+        out.writeBoolean(ticket != null);
+        if (ticket != null) {
+            ticket.write(out);
+        }
+    }
+
+    private static TicketSnapshot readTicket(DataInputStream in) throws IOException {
+        return in.readBoolean() ? TicketSnapshot.read(in) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        ByteBuffer view = buffer.duplicate();
+        while (view.hasRemaining()) {
+            channel.write(view);
+        }
+    }
+
+    /**
+     * Fills the buffer and flips it for reading.
+     *
+     * @return false if the file ended first
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    // ==================== Records ====================
+
+    /**
+     * One journaled operation: a booking (no old ticket), a cancellation
+     * (no new ticket) or a change (both).
+     */
+    static final class Entry {
+        private final long sequence;
+        private final TicketSnapshot oldTicket;
+        private final TicketSnapshot newTicket;
+
+        Entry(long sequence, TicketSnapshot oldTicket, TicketSnapshot newTicket) {
+            this.sequence = sequence;
+            this.oldTicket = oldTicket;
+            this.newTicket = newTicket;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+
+        TicketSnapshot getOldTicket() {
+            return oldTicket;
+        }
+
+        TicketSnapshot getNewTicket() {
+            return newTicket;
+        }
+    }
+
+    /**
+     * The fields of a ticket needed to rebuild it. The screening is also
+     * described by movie, date, time and hall, because screenings created
+     * offline get new ids every time the application starts.
+     */
+    static final class TicketSnapshot {
+        final String id;
+        final String screeningId;
+        final String movieTitle;
+        final LocalDate date;
+        final LocalTime time;
+        final String hall;
+        final String firstName;
+        final String lastName;
+        final String userEmail;
+        final String guestInfo;
+        final double totalPrice;
+        final LocalDateTime purchaseTime;
+        final boolean used;
+        final int[] seatCodes;
+
+        TicketSnapshot(String id, String screeningId, String movieTitle, LocalDate date, LocalTime time,
+                       String hall, String firstName, String lastName, String userEmail, String guestInfo,
+                       double totalPrice, LocalDateTime purchaseTime, boolean used, int[] seatCodes) {
+            this.id = id;
+            this.screeningId = screeningId;
+            this.movieTitle = movieTitle;
+            this.date = date;
+            this.time = time;
+            this.hall = hall;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.userEmail = userEmail;
+            this.guestInfo = guestInfo;
+            this.totalPrice = totalPrice;
+            this.purchaseTime = purchaseTime;
+            this.used = used;
+            this.seatCodes = seatCodes;
+        }
+
+        static TicketSnapshot of(Ticket ticket) {
+            return new TicketSnapshot(
+                    ticket.getId(),
+                    ticket.getScreening().getId(),
+                    ticket.getScreening().getMovie() != null ? ticket.getScreening().getMovie().getTitle() : null,
+                    ticket.getScreening().getDate(),
+                    ticket.getScreening().getTime(),
+                    ticket.getScreening().getHall(),
+                    ticket.getCustomerFirstName(),
+                    ticket.getCustomerLastName(),
+                    ticket.getUser() != null ? ticket.getUser().getEmail() : null,
+                    ticket.getGuestInfo(),
+                    ticket.getTotalPrice(),
+                    ticket.getPurchaseTime(),
+                    ticket.isUsed(),
+                    ticket.getSeatCodes());
+        }
+
+        /**
+         * Writes the ticket in the binary form shared by the journal and the
+         * catalog snapshot.
+         */
+        void write(DataOutputStream out) throws IOException {
+            out.writeUTF(id);
+            out.writeUTF(screeningId);
+            writeString(out, movieTitle);
+            out.writeLong(date.toEpochDay());
+            out.writeInt(time.toSecondOfDay());
+            writeString(out, hall);
+            writeString(out, firstName);
+            writeString(out, lastName);
+            writeString(out, userEmail);
+            writeString(out, guestInfo);
+            out.writeDouble(totalPrice);
+            writeString(out, purchaseTime.toString());
+            out.writeBoolean(used);
+            out.writeInt(seatCodes.length);
+            for (int seatCode : seatCodes) {
+                out.writeInt(seatCode);
+            }
+        }
+
+        /**
+         * Reads a ticket written by {@link #write}.
+         */
+        static TicketSnapshot read(DataInputStream in) throws IOException {
+            String id = in.readUTF();
+            String screeningId = in.readUTF();
+            String movieTitle = readString(in);
+            LocalDate date = LocalDate.ofEpochDay(in.readLong());
+            LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+            String hall = readString(in);
+            String firstName = readString(in);
+            String lastName = readString(in);
+            String userEmail = readString(in);
+            String guestInfo = readString(in);
+            double totalPrice = in.readDouble();
+            LocalDateTime purchaseTime = LocalDateTime.parse(readString(in));
+            boolean used = in.readBoolean();
+            int[] seatCodes = new int[in.readInt()];
+            for (int i = 0; i < seatCodes.length; i++) {
+                seatCodes[i] = in.readInt();
+            }
+            return new TicketSnapshot(id, screeningId, movieTitle, date, time, hall, firstName, lastName,
+                    userEmail, guestInfo, totalPrice, purchaseTime, used, seatCodes);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.cinema.service;
+
+import com.cinema.model.Movie;
+import com.cinema.model.Screening;
+import com.cinema.model.Ticket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned binary snapshot of the catalog: movies, screenings with their
+ * seat occupancy bitmaps, and tickets. It lets the application show the
+ * last known catalog at startup instead of waiting for Firebase.
+ * <p>
+ * The file starts with a fixed header and a table holding the offset of
+ * every record, followed by the records, each framed as
+ * {@code [length][CRC32C][payload]}. Opening a snapshot maps the file and
+ * checks only the header and offset table; a record is read and verified
+ * when it is asked for, so a damaged record is skipped rather than
+ * invalidating the whole file. The header also records the last booking
+ * journal operation whose result the saved tickets include, so those
+ * operations are not applied a second time when the journal is replayed.
+ * <p>
+ * Every save writes a new file numbered one above the newest existing one
+ * and then deletes the older files. An existing file is never overwritten,
+ * because a file that is still mapped cannot be replaced on every platform.
+ */
+class CatalogSnapshot {
+    private static final int MAGIC = 0x43534E50; // "CSNP"
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 48;
+    private static final int TABLE_CHECKSUM_OFFSET = 36;
+    private static final int JOURNAL_SEQUENCE_OFFSET = 40;
+    private static final String PREFIX = "catalog-";
+    private static final String SUFFIX = ".snapshot";
+
+    private final MappedByteBuffer buffer;
+    private final long createdAt;
+    private final long journalSequence;
+    private final int movieCount;
+    private final int screeningCount;
+    private final int ticketCount;
+
+    private CatalogSnapshot(MappedByteBuffer buffer, long createdAt, long journalSequence,
+                            int movieCount, int screeningCount, int ticketCount) {
+        this.buffer = buffer;
+        this.createdAt = createdAt;
+        this.journalSequence = journalSequence;
+        this.movieCount = movieCount;
+        this.screeningCount = screeningCount;
+        this.ticketCount = ticketCount;
+    }
+
+    /**
+     * Maps the newest readable snapshot in the directory.
+     *
+     * @return the snapshot, or null if there is none
+     */
+    static CatalogSnapshot open(Path directory) {
+        for (Map.Entry<Long, Path> file : listSnapshots(directory).descendingMap().entrySet()) {
+            try {
+                CatalogSnapshot snapshot = map(file.getValue(), file.getKey());
+                if (snapshot != null) {
+                    return snapshot;
+                }
+                System.err.println("Ignoring invalid catalog snapshot " + file.getValue());
+            } catch (IOException e) {
+                System.err.println("Failed to read catalog snapshot " + file.getValue() + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the catalog to a new snapshot file and removes the older ones.
+     * Screenings whose movie is not in {@code movies} are left out.
+     *
+     * @param heldSeats seat codes per screening id that are only held, not
+     *                  sold; they are saved as free, since a hold does not
+     *                  outlive the process that placed it
+     * @param journalSequence last booking journal operation already applied
+     *                        to {@code tickets}, or 0
+     * @return true if the snapshot was written
+     */
+    static synchronized boolean save(Path directory, Collection<Movie> movies, Collection<Screening> screenings,
+                                     Collection<Ticket> tickets, Map<String, int[]> heldSeats,
+                                     long journalSequence) {
+        List<byte[]> records = new ArrayList<>(movies.size() + screenings.size() + tickets.size());
+        Map<String, Integer> movieIndexes = new HashMap<>();
+        for (Movie movie : movies) {
+            movieIndexes.put(movie.getId(), records.size());
+            records.add(encodeMovie(movie));
+        }
+        int savedMovies = records.size();
+        for (Screening screening : screenings) {
+            Integer movieIndex = screening.getMovie() != null ? movieIndexes.get(screening.getMovie().getId()) : null;
+            if (movieIndex != null) {
+                records.add(encodeScreening(screening, movieIndex, heldSeats.get(screening.getId())));
+            }
+        }
+        int savedScreenings = records.size() - savedMovies;
+        for (Ticket ticket : tickets) {
+            if (ticket.getScreening() != null) {
+                records.add(encode(BookingJournal.TicketSnapshot.of(ticket)::write));
+            }
+        }
+        int savedTickets = records.size() - savedMovies - savedScreenings;
+
+        try {
+            Files.createDirectories(directory);
+            TreeMap<Long, Path> existing = listSnapshots(directory);
+            long generation = existing.isEmpty() ? 1 : existing.lastKey() + 1;
+
+            ByteBuffer table = ByteBuffer.allocate(records.size() * 4);
+            int offset = HEADER_BYTES + table.capacity();
+            for (byte[] record : records) {
+                table.putInt(offset);
+                offset += 8 + record.length;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(generation)
+                    .putLong(System.currentTimeMillis())
+                    .putInt(savedMovies)
+                    .putInt(savedScreenings)
+                    .putInt(savedTickets)
+                    .putInt(checksum(table.array()))
+                    .putLong(journalSequence);
+
+            Path file = directory.resolve(PREFIX + generation + SUFFIX);
+            Path temporary = directory.resolve(PREFIX + generation + SUFFIX + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(out, header.flip());
+                writeFully(out, table.flip());
+                for (byte[] record : records) {
+                    ByteBuffer frame = ByteBuffer.allocate(8).putInt(record.length).putInt(checksum(record));
+                    writeFully(out, frame.flip());
+                    writeFully(out, ByteBuffer.wrap(record));
+                }
+                out.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+
+            for (Path old : existing.values()) {
+                try {
+                    Files.deleteIfExists(old);
+                } catch (IOException e) {
+                    // Still mapped by this process; removed by a later save
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to save catalog snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * When the snapshot was written, in epoch milliseconds.
+     */
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * The last booking journal operation whose result the saved tickets include.
+     */
+    long getJournalSequence() {
+        return journalSequence;
+    }
+
+    int getMovieCount() {
+        return movieCount;
+    }
+
+    int getScreeningCount() {
+        return screeningCount;
+    }
+
+    int getTicketCount() {
+        return ticketCount;
+    }
+
+    /**
+     * @return the movie, or null if its record is damaged
+     */
+    Movie readMovie(int index) {
+        DataInputStream in = record(index);
+        if (in == null) {
+            return null;
+        }
+        try {
+            Movie movie = new Movie(readString(in), readString(in), readString(in), in.readInt(),
+                    readString(in), readString(in));
+            movie.setId(in.readUTF());
+            return movie;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads a screening without adding it to its movie.
+     *
+     * @param movies returns the movie read from a given movie index, or null
+     * @return the screening, or null if its record is damaged or its movie is unknown
+     */
+    Screening readScreening(int index, IntFunction<Movie> movies) {
+        DataInputStream in = record(movieCount + index);
+        if (in == null) {
+            return null;
+        }
+        try {
+            String id = in.readUTF();
+            Movie movie = movies.apply(in.readInt());
+            LocalDate date = LocalDate.ofEpochDay(in.readLong());
+            LocalTime time = LocalTime.ofSecondOfDay(in.readInt());
+            int endSecond = in.readInt();
+            String hall = readString(in);
+            double price = in.readDouble();
+            int totalRows = in.readInt();
+            int seatsPerRow = in.readInt();
+            long[] occupancy = new long[in.readInt()];
+            for (int i = 0; i < occupancy.length; i++) {
+                occupancy[i] = in.readLong();
+            }
+            if (movie == null) {
+                return null;
+            }
+
+            Screening screening = new Screening(movie, date, time, hall, price, totalRows, seatsPerRow);
+            screening.setId(id);
+            screening.setEndTime(endSecond >= 0 ? LocalTime.ofSecondOfDay(endSecond) : null);
+            screening.restoreOccupancy(occupancy);
+            return screening;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the ticket, or null if its record is damaged
+     */
+    BookingJournal.TicketSnapshot readTicket(int index) {
+        DataInputStream in = record(movieCount + screeningCount + index);
+        if (in == null) {
+            return null;
+        }
+        try {
+            return BookingJournal.TicketSnapshot.read(in);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // ==================== File Access ====================
+
+    private static TreeMap<Long, Path> listSnapshots(Path directory) {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list catalog snapshots: " + e.getMessage());
+        }
+        return files;
+    }
+
+    /**
+     * Maps a snapshot file and checks its header and offset table.
+     *
+     * @return the snapshot, or null if the file is not a valid snapshot
+     */
+    private static CatalogSnapshot map(Path file, long expectedGeneration) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != expectedGeneration) {
+            return null;
+        }
+        long createdAt = buffer.getLong(16);
+        int movies = buffer.getInt(24);
+        int screenings = buffer.getInt(28);
+        int tickets = buffer.getInt(32);
+        long records = (long) movies + screenings + tickets;
+        if (movies < 0 || screenings < 0 || tickets < 0
+                || HEADER_BYTES + records * 4 > buffer.capacity()) {
+            return null;
+        }
+        byte[] table = new byte[(int) records * 4];
+        buffer.get(HEADER_BYTES, table);
+        if (checksum(table) != buffer.getInt(TABLE_CHECKSUM_OFFSET)) {
+            return null;
+        }
+        return new CatalogSnapshot(buffer, createdAt, buffer.getLong(JOURNAL_SEQUENCE_OFFSET),
+                movies, screenings, tickets);
+    }
+
+    /**
+     * Returns a stream over a verified record, or null if it is damaged.
+     */
+    private DataInputStream record(int index) {
+        int offset = buffer.getInt(HEADER_BYTES + index * 4);
+        if (offset < 0 || offset > buffer.capacity() - 8) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length < 0 || length > buffer.capacity() - offset - 8) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + 8, payload);
+        if (checksum(payload) != buffer.getInt(offset + 4)) {
+            return null;
+        }
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    // ==================== Encoding ====================
+
+    private static byte[] encodeMovie(Movie movie) {
+        return encode(out -> {
+            writeString(out, movie.getTitle());
+            writeString(out, movie.getDescription());
+            writeString(out, movie.getGenre());
+            out.writeInt(movie.getDurationMinutes());
+            writeString(out, movie.getPosterPath());
+            writeString(out, movie.getRating());
+            out.writeUTF(movie.getId());
+        });
+    }
+
+    private static byte[] encodeScreening(Screening screening, int movieIndex, int[] heldSeatCodes) {
+        return encode(out -> {
+            out.writeUTF(screening.getId());
+            out.writeInt(movieIndex);
+            out.writeLong(screening.getDate().toEpochDay());
+            out.writeInt(screening.getTime().toSecondOfDay());
+            // -1 keeps a derived end time following the movie's duration
+            LocalTime endTime = screening.getExplicitEndTime();
+            out.writeInt(endTime != null ? endTime.toSecondOfDay() : -1);
+            writeString(out, screening.getHall());
+            out.writeDouble(screening.getPrice());
+            out.writeInt(screening.getTotalRows());
+            out.writeInt(screening.getSeatsPerRow());
+            long[] occupancy = screening.getOccupancyWords();
+            if (heldSeatCodes != null) {
+                for (int seatCode : heldSeatCodes) {
+                    int index = screening.getLayout().indexOf(seatCode);
+                    if (index >= 0) {
+                        occupancy[index >>> 6] &= ~(1L << index);
+                    }
+                }
+            }
+            out.writeInt(occupancy.length);
+            for (long word : occupancy) {
+                out.writeLong(word);
+            }
+        });
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(RecordWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            writer.write(new DataOutputStream(bytes));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen for an in-memory stream
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
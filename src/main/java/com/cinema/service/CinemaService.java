@@ -2,47 +2,232 @@ package com.cinema.service;
 
 import com.cinema.model.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Service class for managing cinema data (movies, screenings, users).
- * Works with both local data and Firebase when available.
+ * Works with both local data and a {@link DataStore} (Firebase in production) when available.
+ * Operations that may wait on the network have {@code ...Async} variants
+ * returning a {@link CompletableFuture}; controllers should use those so the
+ * JavaFX thread never blocks.
  */
 public class CinemaService {
+    /** Default time a hall needs between two screenings for cleaning. */
+    public static final int DEFAULT_CLEANING_GAP_MINUTES = 15;
+
+    /** Minimum time between two full reloads while live sync is unavailable. */
+    private static final long RESYNC_INTERVAL_MILLIS = 30_000;
+
+    /** How long a sale waits for the shared seat store before giving up. */
+    private static final long CLAIM_TIMEOUT_SECONDS = 10;
+
+    /** How long a login waits for Firebase to look up an unknown user. */
+    private static final long LOGIN_TIMEOUT_SECONDS = 10;
+
+    /** Where the booking journal and the catalog snapshot are kept. */
+    private static final Path DATA_DIRECTORY = Paths.get(System.getProperty("user.home"), ".cinema");
+
+    /** Write-ahead journal of ticket operations, so sales survive a restart. */
+    private static final String JOURNAL_FILE_NAME = "bookings.journal";
+
+    /** How long a sale waits for its journal entry to reach the disk. */
+    private static final long JOURNAL_SYNC_TIMEOUT_SECONDS = 5;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final Comparator<Screening> SCREENING_ORDER =
+            Comparator.comparing(Screening::getTime).thenComparing(Screening::getId);
+
     private static CinemaService instance;
     private final Map<String, User> users;
     private final Map<String, Movie> movies;
     private final Map<String, Screening> screenings;
+    private final NavigableMap<LocalDate, NavigableSet<Screening>> screeningsByDate;
     private final Map<String, Ticket> tickets;
-    private User currentUser;
-    private final FirebaseService firebaseService;
+    private final Map<String, Set<String>> ticketIdsByScreening;
+    private final Map<String, Set<String>> ticketIdsByUser;
+    private final List<TicketListener> ticketListeners = new CopyOnWriteArrayList<>();
+    private final List<SaleConflictListener> saleConflictListeners = new CopyOnWriteArrayList<>();
+    private final Map<String, List<SeatChangeListener>> seatChangeListeners = new ConcurrentHashMap<>();
+    private final Set<String> changedScreeningIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean seatChangeFlushPending = new AtomicBoolean();
+    private volatile Executor seatChangeExecutor = Runnable::run;
+    private final Map<String, SeatHold> holds;
+    // Per screening id, how many unsettled local claims cover each seat code
+    private final Map<String, Map<Integer, Integer>> claimsInFlight = new ConcurrentHashMap<>();
+    // Per screening id, the seat codes reserved in Firebase as last seen by the replica
+    private final Map<String, Set<Integer>> remoteReservations = new ConcurrentHashMap<>();
+    private final HashedTimingWheel holdExpiry;
+    private final Map<String, HallSchedule> hallSchedules;
+    private volatile int cleaningGapMinutes = DEFAULT_CLEANING_GAP_MINUTES;
+    private volatile User currentUser;
+    private final DataStore dataStore;
+    private final Path dataDirectory;
+    private final Executor backgroundExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SeatClaimStore seatClaims;
+    private volatile long lastResync;
+    private volatile CompletableFuture<Void> runningResync;
+    private final BookingJournal journal;
+    private final List<BookingJournal.Entry> unappliedJournalEntries = new ArrayList<>();
+    private final Queue<RecoveredChange> undrainedChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainingJournal = new AtomicBoolean();
+    // Journal operations up to this one are already part of the restored snapshot
+    private long snapshotJournalSequence;
+    // Completes once the snapshot's tickets and, offline, the journal are applied
+    private final CompletableFuture<Void> ticketsRestored = new CompletableFuture<>();
+    // Re-indexes a screening by date and hall when its schedule is edited
+    private final Screening.ScheduleListener scheduleIndexer = new Screening.ScheduleListener() {
+        @Override
+        public void beforeScheduleChange(Screening screening) {
+            removeFromDateIndex(screening);
+            unscheduleScreening(screening);
+        }
 
-    private CinemaService() {
+        @Override
+        public void afterScheduleChange(Screening screening) {
+            addToDateIndex(screening);
+            indexScreening(screening);
+        }
+    };
+    private final Set<String> snapshotMovieIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> snapshotScreeningIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean servingSnapshot;
+
+    /**
+     * Creates a service on top of the given store, keeping its booking journal
+     * and catalog snapshot in {@code dataDirectory}. The application uses
+     * {@link #getInstance()}; this is for load tests and benchmarks, e.g. with
+     * an {@link InMemoryDataStore}.
+     */
+    public CinemaService(DataStore dataStore, Path dataDirectory) {
+        this.dataStore = dataStore;
+        this.dataDirectory = dataDirectory;
         users = new ConcurrentHashMap<>();
         movies = new ConcurrentHashMap<>();
         screenings = new ConcurrentHashMap<>();
+        screeningsByDate = new ConcurrentSkipListMap<>();
         tickets = new ConcurrentHashMap<>();
-        firebaseService = FirebaseService.getInstance();
+        ticketIdsByScreening = new ConcurrentHashMap<>();
+        ticketIdsByUser = new ConcurrentHashMap<>();
+        holds = new ConcurrentHashMap<>();
+        holdExpiry = new HashedTimingWheel(100, TimeUnit.MILLISECONDS, 512);
+        hallSchedules = new ConcurrentHashMap<>();
         
-        // Try to initialize Firebase
-        firebaseService.initialize();
+        // Try to connect to the data store
+        dataStore.initialize();
+
+        // Seats are claimed in the store so other terminals see them; offline they stay in-process
+        seatClaims = dataStore.isInitialized() ? dataStore : new InMemorySeatClaimStore();
         
-        // Initialize sample data for offline mode
-        initializeSampleData();
+        // Show the catalog saved by the last run while Firebase loads;
+        // without one, fall back to the sample data
+        initializeSampleUsers();
+        CatalogSnapshot snapshot = restoreSnapshot();
+        if (snapshot == null) {
+            createSampleMovies();
+        }
+
+        // Restore sales from the journal. With Firebase this waits until its
+        // screenings have loaded, then the sales are uploaded (see ReplicaHandler.onLive)
+        journal = BookingJournal.open(dataDirectory.resolve(JOURNAL_FILE_NAME));
+        if (journal != null) {
+            unappliedJournalEntries.addAll(journal.getRecoveredEntries());
+        }
+
+        // The snapshot's tickets are decoded in the background, so the catalog
+        // is usable first; the Async ticket lookups complete once they are back
+        CompletableFuture.runAsync(() -> {
+            if (snapshot != null) {
+                restoreSnapshotTickets(snapshot);
+            }
+            if (!dataStore.isInitialized()) {
+                replayJournal();
+            }
+        }, backgroundExecutor).whenComplete((v, error) -> {
+            if (error != null) {
+                System.err.println("Failed to restore tickets: " + error.getMessage());
+            }
+            ticketsRestored.complete(null);
+        });
+
+        // Keep movies and screenings in step with Firebase from now on. Replica
+        // updates check seats against the tickets, so they start once those are back
+        ticketsRestored.thenRun(() -> dataStore.startReplica(new ReplicaHandler(), movies::get));
     }
 
-    public static CinemaService getInstance() {
+    /**
+     * Returns the shared service, creating it on first use. Startup creates
+     * it on a worker thread, so a caller that gets here first waits for it.
+     */
+    public static synchronized CinemaService getInstance() {
         if (instance == null) {
-            instance = new CinemaService();
+            instance = createInstance();
         }
         return instance;
     }
 
-    private void initializeSampleData() {
+    /**
+     * Connects the data store that {@link #getInstance()} will use, so
+     * startup can load the credentials before the service is created.
+     * Does nothing for the in-memory store.
+     *
+     * @return true if the store is connected
+     */
+    public static boolean connectDataStore() {
+        if (usesMemoryStore()) {
+            return true;
+        }
+        FirebaseService firebase = FirebaseService.getInstance();
+        firebase.initialize();
+        return firebase.isInitialized();
+    }
+
+    /**
+     * Uses Firebase, or an {@link InMemoryDataStore} when the application is
+     * started with {@code -Dcinema.store=memory}. The in-memory store starts
+     * empty, so it gets a fresh data directory instead of the snapshot and
+     * journal of earlier runs.
+     */
+    private static CinemaService createInstance() {
+        if (usesMemoryStore()) {
+            try {
+                return new CinemaService(InMemoryDataStore.fromSystemProperties(), Files.createTempDirectory("cinema-"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new CinemaService(FirebaseService.getInstance(), DATA_DIRECTORY);
+    }
+
+    private static boolean usesMemoryStore() {
+        return "memory".equalsIgnoreCase(System.getProperty("cinema.store"));
+    }
+
+    private void initializeSampleUsers() {
         // Add sample admin user (only to local cache, not Firebase - Firebase will be checked separately)
         User admin = new User("admin@cinema.com", "Admin", "User", "1234567890", "admin123", UserRole.ADMIN);
         users.put(admin.getEmail(), admin);
@@ -52,13 +237,10 @@ public class CinemaService {
         users.put(cashier.getEmail(), cashier);
         
         // Save to Firebase only if they don't exist yet
-        if (firebaseService.isInitialized()) {
-            firebaseService.saveUserIfNotExists(admin);
-            firebaseService.saveUserIfNotExists(cashier);
+        if (dataStore.isInitialized()) {
+            dataStore.saveUserIfNotExists(admin);
+            dataStore.saveUserIfNotExists(cashier);
         }
-
-        // Create sample movies
-        createSampleMovies();
     }
 
     private void createSampleMovies() {
@@ -115,62 +297,89 @@ public class CinemaService {
         movies.put(movie3.getId(), movie3);
 
         // Save to Firebase only if movies don't already exist
-        if (firebaseService.isInitialized()) {
-            firebaseService.saveMovieIfNotExists(movie1);
-            firebaseService.saveMovieIfNotExists(movie2);
-            firebaseService.saveMovieIfNotExists(movie3);
+        if (dataStore.isInitialized()) {
+            dataStore.saveMovieIfNotExists(movie1);
+            dataStore.saveMovieIfNotExists(movie2);
+            dataStore.saveMovieIfNotExists(movie3);
         }
     }
 
     public Screening addScreeningToMovie(Movie movie, LocalDate date, LocalTime time, String hall, double price) {
+        return addScreeningToMovie(movie, date, time, null, hall, price);
+    }
+
+    /**
+     * Adds a screening to a movie if the hall is free at that time.
+     *
+     * @param endTime end of the screening, or null to derive it from the movie's duration
+     * @return the new screening, or null if it overlaps another screening in the hall
+     */
+    public Screening addScreeningToMovie(Movie movie, LocalDate date, LocalTime time, LocalTime endTime,
+                                         String hall, double price) {
         Screening screening = new Screening(movie, date, time, hall, price, 6, 10);
+        screening.setEndTime(endTime);
+        if (scheduleScreening(screening) != null) {
+            return null;
+        }
         movie.addScreening(screening);
-        screenings.put(screening.getId(), screening);
+        putScreening(screening);
         return screening;
     }
 
     // ==================== User Management ====================
 
-    public User login(String email, String password) {
+    /**
+     * Logs a user in. Known users are checked locally; unknown ones are looked
+     * up in Firebase without blocking the caller.
+     *
+     * @return a future completed with the user, or with null if the
+     *         credentials are wrong or the lookup failed
+     */
+    public CompletableFuture<User> loginAsync(String email, String password) {
         // First check local cache
         User user = users.get(email);
         if (user != null && user.getPassword().equals(password)) {
             currentUser = user;
-            return user;
+            return CompletableFuture.completedFuture(user);
         }
         
         // If not found locally, try Firebase
-        if (firebaseService.isInitialized()) {
-            try {
-                User firebaseUser = firebaseService.getUserByEmail(email).get(10, java.util.concurrent.TimeUnit.SECONDS);
-                if (firebaseUser != null && firebaseUser.getPassword().equals(password)) {
-                    // Add to local cache
-                    users.put(firebaseUser.getEmail(), firebaseUser);
-                    currentUser = firebaseUser;
-                    return firebaseUser;
-                }
-            } catch (Exception e) {
-                System.err.println("Error fetching user from Firebase: " + e.getMessage());
-            }
+        if (!dataStore.isInitialized()) {
+            return CompletableFuture.completedFuture(null);
         }
-        
-        return null;
+        return dataStore.getUserByEmail(email)
+                .orTimeout(LOGIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .handle((firebaseUser, error) -> {
+                    if (error != null) {
+                        System.err.println("Error fetching user from Firebase: " + error.getMessage());
+                        return null;
+                    }
+                    if (firebaseUser != null && firebaseUser.getPassword().equals(password)) {
+                        // Add to local cache
+                        users.put(firebaseUser.getEmail(), firebaseUser);
+                        currentUser = firebaseUser;
+                        return firebaseUser;
+                    }
+                    return null;
+                });
     }
 
-    public User registerUser(String email, String firstName, String lastName, String phoneNumber, String password) {
-        if (users.containsKey(email)) {
-            return null; // Email already exists
-        }
+    /**
+     * Registers a regular user and logs them in.
+     *
+     * @return a future completed with the new user, or with null if the email
+     *         is already registered; it fails if the user could not be saved
+     */
+    public CompletableFuture<User> registerUserAsync(String email, String firstName, String lastName,
+                                                     String phoneNumber, String password) {
         User newUser = new User(email, firstName, lastName, phoneNumber, password, UserRole.REGULAR_USER);
-        users.put(email, newUser);
-        currentUser = newUser;
-
-        // Save to Firebase
-        if (firebaseService.isInitialized()) {
-            firebaseService.saveUser(newUser);
-        }
-
-        return newUser;
+        return registerUserAsync(newUser).thenApply(added -> {
+            if (!added) {
+                return null; // Email already exists
+            }
+            currentUser = newUser;
+            return newUser;
+        });
     }
 
     public void loginAsGuest() {
@@ -197,322 +406,1754 @@ public class CinemaService {
         return users.containsKey(email);
     }
 
-    public List<User> getAllUsers() {
+    /**
+     * Returns all registered users, refreshed from Firebase when available.
+     */
+    public CompletableFuture<List<User>> getAllUsersAsync() {
         // If Firebase is available, fetch fresh data from Firebase
-        if (firebaseService.isInitialized()) {
-            List<User> firebaseUsers = firebaseService.fetchAllUsers();
+        CompletableFuture<List<User>> fetched = dataStore.isInitialized()
+                ? dataStore.fetchAllUsers()
+                : CompletableFuture.completedFuture(List.of());
+        return fetched.thenApply(firebaseUsers -> {
             // Update local cache with Firebase data
             for (User user : firebaseUsers) {
                 users.put(user.getEmail(), user);
             }
-        }
-        
+            return getAllUsers();
+        });
+    }
+
+    /**
+     * Returns the registered users known locally.
+     */
+    public List<User> getAllUsers() {
         return new ArrayList<>(users.values()).stream()
                 .filter(u -> u.getRole() != UserRole.GUEST)
                 .collect(Collectors.toList());
     }
 
-    public boolean deleteUser(String email) {
-        User removed = users.remove(email);
-        if (removed != null) {
-            // Delete from Firebase
-            if (firebaseService.isInitialized()) {
-                firebaseService.deleteUser(email);
-            }
-            return true;
+    /**
+     * @return a future completed with false if there is no such user; it
+     *         fails if the user could not be deleted from Firebase
+     */
+    public CompletableFuture<Boolean> deleteUserAsync(String email) {
+        if (users.remove(email) == null) {
+            return CompletableFuture.completedFuture(false);
         }
-        return false;
+        return store("delete user " + email, () -> dataStore.deleteUser(email))
+                .thenApply(v -> true);
     }
 
-    public boolean registerUser(User user) {
-        if (users.containsKey(user.getEmail())) {
-            return false;
+    /**
+     * Adds a user and saves it to Firebase. If the save fails the user is
+     * removed again, so the same email can be retried.
+     *
+     * @return a future completed with false if the email is already registered
+     */
+    public CompletableFuture<Boolean> registerUserAsync(User user) {
+        if (users.putIfAbsent(user.getEmail(), user) != null) {
+            return CompletableFuture.completedFuture(false);
         }
-        users.put(user.getEmail(), user);
-        
-        // Save to Firebase
-        if (firebaseService.isInitialized()) {
-            firebaseService.saveUser(user);
-        }
-        return true;
+        return store("save user " + user.getEmail(), () -> dataStore.saveUser(user))
+                .whenComplete((v, error) -> {
+                    if (error != null) {
+                        users.remove(user.getEmail(), user);
+                    }
+                })
+                .thenApply(v -> true);
     }
 
     // ==================== Movie Management ====================
 
+    /**
+     * Returns all movies from the local replica without waiting. While live
+     * sync is unavailable, a full reload from Firebase is started in the
+     * background (at most every 30 seconds).
+     */
     public List<Movie> getAllMovies() {
-        // If Firebase is available, fetch fresh data from Firebase
-        if (firebaseService.isInitialized()) {
-            List<Movie> firebaseMovies = firebaseService.fetchAllMovies();
-            // Update local cache with Firebase data
-            for (Movie movie : firebaseMovies) {
-                if (!movies.containsKey(movie.getId())) {
-                    movies.put(movie.getId(), movie);
-                }
-            }
-            // Also fetch screenings for all movies
-            List<Screening> firebaseScreenings = firebaseService.fetchAllScreenings(movies);
-            for (Screening screening : firebaseScreenings) {
-                if (!screenings.containsKey(screening.getId())) {
-                    screenings.put(screening.getId(), screening);
-                    // Add screening to movie if not already added
-                    Movie movie = screening.getMovie();
-                    if (movie != null && !movie.getScreenings().contains(screening)) {
-                        movie.addScreening(screening);
+        refreshIfStale();
+        return new ArrayList<>(movies.values());
+    }
+
+    /**
+     * Returns all movies, first waiting for a full reload from Firebase if
+     * live sync is unavailable and the data is more than 30 seconds old.
+     * While the catalog restored from the snapshot is still being refreshed,
+     * returns it without waiting.
+     */
+    public CompletableFuture<List<Movie>> getAllMoviesAsync() {
+        return refreshIfStale().thenApply(v -> new ArrayList<>(movies.values()));
+    }
+
+    private CompletableFuture<Void> refreshIfStale() {
+        CompletableFuture<Void> refresh;
+        if (dataStore.isInitialized() && !dataStore.isReplicaLive()
+                && System.currentTimeMillis() - lastResync > RESYNC_INTERVAL_MILLIS) {
+            refresh = resyncFromFirebaseAsync();
+        } else {
+            CompletableFuture<Void> running = runningResync;
+            refresh = running != null ? running : CompletableFuture.completedFuture(null);
+        }
+        // The snapshot is shown as is; Firebase catches up in the background
+        return servingSnapshot ? CompletableFuture.completedFuture(null) : refresh;
+    }
+
+    /**
+     * Reloads all movies and screenings from Firebase and restarts live sync
+     * if it has stopped. Calls made while a reload is running share it.
+     */
+    public synchronized CompletableFuture<Void> resyncFromFirebaseAsync() {
+        if (!dataStore.isInitialized()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (runningResync != null) {
+            return runningResync;
+        }
+        lastResync = System.currentTimeMillis();
+        CompletableFuture<Void> resync = dataStore.fetchAllMovies()
+                .thenCompose(firebaseMovies -> {
+                    // Update local cache with Firebase data
+                    for (Movie movie : firebaseMovies) {
+                        if (!movies.containsKey(movie.getId())) {
+                            movies.put(movie.getId(), movie);
+                        }
                     }
-                }
+                    // Also fetch screenings for all movies
+                    return dataStore.fetchAllScreenings(movies);
+                })
+                .thenAccept(firebaseScreenings -> {
+                    for (Screening screening : firebaseScreenings) {
+                        if (!screenings.containsKey(screening.getId())) {
+                            putScreening(screening);
+                            indexScreening(screening);
+                            // Add screening to movie if not already added
+                            Movie movie = screening.getMovie();
+                            if (movie != null && !movie.getScreenings().contains(screening)) {
+                                movie.addScreening(screening);
+                            }
+                        }
+                    }
+                    lastResync = System.currentTimeMillis();
+                    servingSnapshot = false;
+                    backgroundExecutor.execute(this::saveSnapshot);
+                    if (!dataStore.isReplicaLive()) {
+                        ticketsRestored.thenRun(() -> dataStore.startReplica(new ReplicaHandler(), movies::get));
+                    }
+                });
+        runningResync = resync;
+        resync.whenComplete((v, error) -> {
+            synchronized (this) {
+                runningResync = null;
             }
-        }
-        return new ArrayList<>(movies.values());
+        });
+        return resync;
+    }
+
+    /**
+     * Returns the movies screened on a date, waiting for a pending reload
+     * from Firebase first (see {@link #getAllMoviesAsync()}).
+     */
+    public CompletableFuture<List<Movie>> getMoviesWithScreeningsOnDateAsync(LocalDate date) {
+        return refreshIfStale().thenApply(v -> getMoviesWithScreeningsOnDate(date));
     }
 
+    /**
+     * Returns the movies screened on a date from local data without waiting.
+     */
     public List<Movie> getMoviesWithScreeningsOnDate(LocalDate date) {
-        // Ensure we have the latest data from Firebase
-        getAllMovies();
-        
-        return movies.values().stream()
-                .filter(m -> !m.getScreeningsForDate(date).isEmpty())
-                .collect(Collectors.toList());
+        // Movies come out ordered by their first screening of the day
+        Set<Movie> result = new LinkedHashSet<>();
+        for (Screening screening : getAllScreeningsForDate(date)) {
+            if (screening.getMovie() != null && movies.containsKey(screening.getMovie().getId())) {
+                result.add(screening.getMovie());
+            }
+        }
+        return new ArrayList<>(result);
     }
 
     public Movie getMovieById(String movieId) {
         return movies.get(movieId);
     }
 
-    public Movie addMovie(String title, String description, String genre, int durationMinutes, 
-                          String posterPath, String rating, LocalDate screeningDate, 
-                          LocalTime startTime, LocalTime endTime, String hall, double price) {
+    /**
+     * Adds a movie with its first screening and saves it to Firebase. If the
+     * save fails the movie is removed again, freeing its hall slot.
+     *
+     * @return a future completed with the movie, or with null if the hall is
+     *         already booked at that time
+     */
+    public CompletableFuture<Movie> addMovieAsync(String title, String description, String genre, int durationMinutes,
+                                                  String posterPath, String rating, LocalDate screeningDate,
+                                                  LocalTime startTime, LocalTime endTime, String hall, double price) {
         Movie movie = new Movie(title, description, genre, durationMinutes, posterPath, rating);
         
-        // Add screening
+        // Add screening, unless the hall is already booked at that time
         Screening screening = new Screening(movie, screeningDate, startTime, hall, price, 6, 10);
+        screening.setEndTime(endTime);
+        if (scheduleScreening(screening) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
         movie.addScreening(screening);
-        screenings.put(screening.getId(), screening);
+        putScreening(screening);
         
         movies.put(movie.getId(), movie);
 
-        // Save to Firebase
-        if (firebaseService.isInitialized()) {
-            firebaseService.saveMovie(movie);
-        }
-
-        return movie;
+        return store("save movie " + title, () -> dataStore.saveMovie(movie))
+                .whenComplete((v, error) -> {
+                    if (error != null) {
+                        removeMovieLocally(movie.getId());
+                    }
+                })
+                .thenApply(v -> movie);
     }
 
-    public void addScreeningToExistingMovie(String movieId, LocalDate date, LocalTime time, 
-                                             String hall, double price) {
+    /**
+     * Adds a screening to an existing movie.
+     *
+     * @return false if the movie does not exist or the hall is already booked at that time
+     */
+    public boolean addScreeningToExistingMovie(String movieId, LocalDate date, LocalTime time, 
+                                               String hall, double price) {
         Movie movie = movies.get(movieId);
         if (movie != null) {
             Screening screening = addScreeningToMovie(movie, date, time, hall, price);
-            
-            // Save to Firebase
-            if (firebaseService.isInitialized()) {
-                firebaseService.saveScreening(screening);
+            if (screening == null) {
+                return false;
             }
+            
+            store("save screening " + screening.getId(), () -> dataStore.saveScreening(screening));
+            return true;
         }
+        return false;
     }
 
-    public boolean deleteMovie(String movieId) {
-        Movie movie = movies.remove(movieId);
-        if (movie != null) {
-            // Remove all screenings for this movie
-            for (Screening screening : movie.getScreenings()) {
-                screenings.remove(screening.getId());
-                // Remove tickets for this screening
-                tickets.values().removeIf(t -> t.getScreening().getId().equals(screening.getId()));
-            }
-
-            // Delete from Firebase
-            if (firebaseService.isInitialized()) {
-                firebaseService.deleteMovie(movieId);
-            }
-            return true;
+    /**
+     * @return a future completed with false if there is no such movie; it
+     *         fails if the movie could not be deleted from Firebase
+     */
+    public CompletableFuture<Boolean> deleteMovieAsync(String movieId) {
+        if (removeMovieLocally(movieId) == null) {
+            return CompletableFuture.completedFuture(false);
         }
-        return false;
+        return store("delete movie " + movieId, () -> dataStore.deleteMovie(movieId))
+                .thenApply(v -> true);
     }
 
     public boolean deleteScreening(String screeningId) {
-        Screening screening = screenings.remove(screeningId);
+        Screening screening = screenings.get(screeningId);
         if (screening != null) {
-            screening.getMovie().getScreenings().remove(screening);
-            // Remove tickets for this screening
-            tickets.values().removeIf(t -> t.getScreening().getId().equals(screeningId));
+            screening.getMovie().removeScreening(screening);
+            removeScreening(screening);
+            removeTicketsForScreening(screeningId);
+            store("delete screening " + screeningId, () -> dataStore.deleteScreening(screeningId));
             return true;
         }
         return false;
     }
 
+    private Movie removeMovieLocally(String movieId) {
+        Movie movie = movies.remove(movieId);
+        if (movie != null) {
+            // Remove all screenings for this movie
+            for (Screening screening : movie.getScreenings()) {
+                removeScreening(screening);
+                removeTicketsForScreening(screening.getId());
+            }
+        }
+        return movie;
+    }
+
     // ==================== Screening Management ====================
 
     public Screening getScreeningById(String screeningId) {
         return screenings.get(screeningId);
     }
 
+    /**
+     * Returns the screenings on a date, ordered by start time.
+     */
     public List<Screening> getAllScreeningsForDate(LocalDate date) {
-        return screenings.values().stream()
-                .filter(s -> s.getDate().equals(date))
-                .collect(Collectors.toList());
+        NavigableSet<Screening> day = screeningsByDate.get(date);
+        return day != null ? new ArrayList<>(day) : new ArrayList<>();
     }
 
-    // ==================== Ticket Management ====================
+    /**
+     * Returns the screenings between two dates (both inclusive), ordered by date and start time.
+     */
+    public List<Screening> getScreeningsBetween(LocalDate from, LocalDate to) {
+        List<Screening> result = new ArrayList<>();
+        for (NavigableSet<Screening> day : screeningsByDate.subMap(from, true, to, true).values()) {
+            result.addAll(day);
+        }
+        return result;
+    }
+
+    public boolean hasScreeningsOn(LocalDate date) {
+        return screeningsByDate.containsKey(date);
+    }
 
-    public Ticket createTicket(Screening screening, List<Seat> selectedSeats, String firstName, String lastName) {
-        // Reserve the seats
-        for (Seat seat : selectedSeats) {
-            Seat screeningSeat = screening.getSeat(seat.getRow(), seat.getSeatNumber());
-            if (screeningSeat != null) {
-                screeningSeat.reserve();
+    /**
+     * Adds a screening to the id and date indexes. Callers also add it to its
+     * hall's schedule; from then on a change of its date, time or hall moves
+     * it in both (see {@link #scheduleIndexer}).
+     */
+    private void putScreening(Screening screening) {
+        screenings.put(screening.getId(), screening);
+        addToDateIndex(screening);
+        screening.addScheduleListener(scheduleIndexer);
+    }
+
+    private void removeScreening(Screening screening) {
+        screening.removeScheduleListener(scheduleIndexer);
+        screenings.remove(screening.getId());
+        remoteReservations.remove(screening.getId());
+        removeFromDateIndex(screening);
+        unscheduleScreening(screening);
+    }
+
+    private void addToDateIndex(Screening screening) {
+        screeningsByDate.compute(screening.getDate(), (date, day) -> {
+            NavigableSet<Screening> set = day != null ? day : new ConcurrentSkipListSet<>(SCREENING_ORDER);
+            set.add(screening);
+            return set;
+        });
+    }
+
+    private void removeFromDateIndex(Screening screening) {
+        screeningsByDate.computeIfPresent(screening.getDate(), (date, day) -> {
+            day.remove(screening);
+            return day.isEmpty() ? null : day;
+        });
+    }
+
+    // ==================== Hall Scheduling ====================
+
+    public int getCleaningGapMinutes() {
+        return cleaningGapMinutes;
+    }
+
+    /**
+     * Sets the minimum time between two screenings in the same hall.
+     * Applies to screenings scheduled from now on.
+     */
+    public void setCleaningGapMinutes(int minutes) {
+        this.cleaningGapMinutes = Math.max(0, minutes);
+    }
+
+    /**
+     * Returns an existing screening that a new screening in this slot would overlap
+     * (including the cleaning gap), or null if the hall is free.
+     */
+    public Screening findScheduleConflict(String hall, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        HallSchedule schedule = hallSchedules.get(hall);
+        if (schedule == null) {
+            return null;
+        }
+        return schedule.findConflict(HallSchedule.startMinute(date, startTime),
+                HallSchedule.endMinute(date, startTime, endTime), cleaningGapMinutes);
+    }
+
+    /**
+     * Checks a batch of proposed screenings against the existing schedule and
+     * against each other.
+     *
+     * @return a description of the problem for each conflicting slot, keyed by its
+     *         position in {@code slots}; empty if the whole batch can be scheduled
+     */
+    public Map<Integer, String> validateSchedule(List<ScreeningSlot> slots) {
+        int gap = cleaningGapMinutes;
+        Map<Integer, String> conflicts = new TreeMap<>();
+        Map<String, List<Integer>> byHall = new HashMap<>();
+        long[] starts = new long[slots.size()];
+        long[] ends = new long[slots.size()];
+
+        for (int i = 0; i < slots.size(); i++) {
+            ScreeningSlot slot = slots.get(i);
+            starts[i] = HallSchedule.startMinute(slot.getDate(), slot.getStartTime());
+            ends[i] = HallSchedule.endMinute(slot.getDate(), slot.getStartTime(), slot.getEndTime());
+            byHall.computeIfAbsent(slot.getHall(), h -> new ArrayList<>()).add(i);
+
+            HallSchedule schedule = hallSchedules.get(slot.getHall());
+            Screening existing = schedule != null ? schedule.findConflict(starts[i], ends[i], gap) : null;
+            if (existing != null) {
+                conflicts.put(i, slot.getHall() + " is booked for " + existing.getMovie().getTitle()
+                        + " (" + existing.getFormattedTime() + " - "
+                        + existing.getEndTime().format(TIME_FORMAT) + ").");
             }
         }
 
-        Ticket ticket;
-        if (currentUser != null && currentUser.getRole() != UserRole.GUEST) {
-            ticket = new Ticket(screening, currentUser, selectedSeats);
-            currentUser.addTicket(ticket);
-        } else {
-            ticket = new Ticket(screening, firstName, lastName, selectedSeats);
+        // Within the batch, sort each hall's slots by start and sweep for overlaps
+        for (List<Integer> hallSlots : byHall.values()) {
+            hallSlots.sort(Comparator.comparingLong(i -> starts[i]));
+            int latest = -1;
+            for (int i : hallSlots) {
+                if (latest >= 0 && starts[i] < ends[latest] + gap) {
+                    conflicts.putIfAbsent(i, "Overlaps screening #" + (latest + 1) + " in " + slots.get(i).getHall() + ".");
+                }
+                if (latest < 0 || ends[i] > ends[latest]) {
+                    latest = i;
+                }
+            }
         }
+        return conflicts;
+    }
 
-        tickets.put(ticket.getId(), ticket);
+    /**
+     * Adds the screening to its hall's schedule.
+     *
+     * @return the conflicting screening, or null if the screening was scheduled
+     */
+    private Screening scheduleScreening(Screening screening) {
+        HallSchedule schedule = hallSchedules.computeIfAbsent(screening.getHall(), h -> new HallSchedule());
+        return schedule.addIfFree(screening, HallSchedule.startMinute(screening.getDate(), screening.getTime()),
+                HallSchedule.endMinute(screening.getDate(), screening.getTime(), screening.getEndTime()),
+                cleaningGapMinutes);
+    }
 
-        // Save to Firebase
-        if (firebaseService.isInitialized()) {
-            firebaseService.saveTicket(ticket);
-            firebaseService.updateScreeningSeats(screening);
+    /**
+     * Records a screening loaded from storage without rejecting overlaps, so that
+     * new screenings are still checked against it.
+     */
+    private void indexScreening(Screening screening) {
+        hallSchedules.computeIfAbsent(screening.getHall(), h -> new HallSchedule())
+                .add(screening, HallSchedule.startMinute(screening.getDate(), screening.getTime()),
+                        HallSchedule.endMinute(screening.getDate(), screening.getTime(), screening.getEndTime()));
+    }
+
+    private void unscheduleScreening(Screening screening) {
+        HallSchedule schedule = hallSchedules.get(screening.getHall());
+        if (schedule != null) {
+            schedule.remove(screening, HallSchedule.startMinute(screening.getDate(), screening.getTime()));
         }
+    }
 
-        return ticket;
+    /**
+     * A proposed screening time in a hall, used for batch validation.
+     */
+    public static class ScreeningSlot {
+        private final LocalDate date;
+        private final LocalTime startTime;
+        private final LocalTime endTime;
+        private final String hall;
+
+        public ScreeningSlot(LocalDate date, LocalTime startTime, LocalTime endTime, String hall) {
+            this.date = date;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.hall = hall;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public LocalTime getStartTime() {
+            return startTime;
+        }
+
+        public LocalTime getEndTime() {
+            return endTime;
+        }
+
+        public String getHall() {
+            return hall;
+        }
     }
 
-    public Ticket createTicketForCustomer(Screening screening, List<Seat> selectedSeats, 
-                                           String firstName, String lastName) {
-        // Reserve the seats
-        for (Seat seat : selectedSeats) {
-            Seat screeningSeat = screening.getSeat(seat.getRow(), seat.getSeatNumber());
-            if (screeningSeat != null) {
-                screeningSeat.reserve();
-            }
+    // ==================== Ticket Management ====================
+
+    // A sale is a chain of futures: the seat claim, then the local store and
+    // the journal sync, then the Firebase write. No thread waits on any of
+    // them, and the returned future completes once the sale is on disk.
+
+    /**
+     * Reserves the selected seats and creates a ticket for them.
+     * Completes with null if any of the seats has already been taken, here or
+     * at another terminal; in that case none of the seats are reserved.
+     */
+    public CompletableFuture<Ticket> createTicketAsync(Screening screening, List<Seat> selectedSeats,
+                                                       String firstName, String lastName) {
+        // Reserve the seats (all or nothing)
+        if (!reserveForClaim(screening, selectedSeats)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return issue(newTicket(screening, selectedSeats, firstName, lastName), selectedSeats, null);
+    }
+
+    /**
+     * Reserves the selected seats for a walk-in customer and creates a ticket.
+     * Completes with null if any of the seats has already been taken.
+     */
+    public CompletableFuture<Ticket> createTicketForCustomerAsync(Screening screening, List<Seat> selectedSeats,
+                                                                  String firstName, String lastName) {
+        // Reserve the seats (all or nothing)
+        if (!reserveForClaim(screening, selectedSeats)) {
+            return CompletableFuture.completedFuture(null);
         }
 
         Ticket ticket = new Ticket(screening, firstName, lastName, selectedSeats);
-        tickets.put(ticket.getId(), ticket);
+        return issue(ticket, selectedSeats, null);
+    }
 
-        // Save to Firebase
-        if (firebaseService.isInitialized()) {
-            firebaseService.saveTicket(ticket);
-            firebaseService.updateScreeningSeats(screening);
+    /**
+     * Creates a ticket for the signed-in user, or in the given name for a guest.
+     */
+    private Ticket newTicket(Screening screening, List<Seat> seats, String firstName, String lastName) {
+        User buyer = currentUser;
+        if (buyer != null && buyer.getRole() != UserRole.GUEST) {
+            return new Ticket(screening, buyer, seats);
         }
+        return new Ticket(screening, firstName, lastName, seats);
+    }
 
-        return ticket;
+    /**
+     * Issues a ticket for seats reserved locally: claims them in the shared
+     * seat store, then stores and journals the ticket. Every sale goes
+     * through here. If the claim fails, the local reservation has already
+     * been undone and the future completes with null.
+     *
+     * @param previousOwner hold whose seats the ticket takes over, or null
+     */
+    private CompletableFuture<Ticket> issue(Ticket ticket, List<Seat> seats, String previousOwner) {
+        return claimSeats(ticket.getScreening(), seats, ticket.getId(), previousOwner).thenCompose(claimed -> {
+            if (!claimed) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (ticket.getUser() != null) {
+                ticket.getUser().addTicket(ticket);
+            }
+            storeTicket(ticket);
+
+            // Journal the sale, then save the ticket and its seats to Firebase in one write
+            return recordTicketChange(null, ticket).thenApply(journaled -> ticket);
+        });
     }
 
+    // Tickets saved by the last run are decoded in the background at startup.
+    // The lookups below return what is known so far and never wait; the
+    // Async variants complete once those tickets are back.
+
     public List<Ticket> getCurrentUserTickets() {
-        if (currentUser != null && currentUser.getRole() != UserRole.GUEST) {
-            return currentUser.getTickets();
+        return ticketsOf(currentUser);
+    }
+
+    /**
+     * Completes with the current user's tickets, including those restored at startup.
+     */
+    public CompletableFuture<List<Ticket>> getCurrentUserTicketsAsync() {
+        User user = currentUser;
+        return ticketsRestored.thenApply(restored -> ticketsOf(user));
+    }
+
+    private static List<Ticket> ticketsOf(User user) {
+        if (user != null && user.getRole() != UserRole.GUEST) {
+            return user.getTickets();
         }
         return new ArrayList<>();
     }
 
     public List<Ticket> getTicketsForScreening(String screeningId) {
-        return tickets.values().stream()
-                .filter(t -> t.getScreening().getId().equals(screeningId))
-                .collect(Collectors.toList());
+        return lookupTickets(ticketIdsByScreening.get(screeningId));
+    }
+
+    /**
+     * Completes with the tickets of a screening, including those restored at startup.
+     */
+    public CompletableFuture<List<Ticket>> getTicketsForScreeningAsync(String screeningId) {
+        return ticketsRestored.thenApply(restored -> getTicketsForScreening(screeningId));
+    }
+
+    public List<Ticket> getTicketsForUser(String userId) {
+        return lookupTickets(ticketIdsByUser.get(userId));
     }
 
     public Ticket getTicketById(String ticketId) {
         return tickets.get(ticketId);
     }
 
+    /**
+     * Waits until the tickets saved by the last run are back. Only used at
+     * shutdown, never on the way to the UI.
+     */
+    private void awaitTickets() {
+        ticketsRestored.join();
+    }
+
     public void updateTicket(Ticket ticket) {
         if (ticket != null) {
-            tickets.put(ticket.getId(), ticket);
-            
-            // Update in Firebase
-            if (firebaseService.isInitialized()) {
-                firebaseService.saveTicket(ticket);
-            }
+            storeTicket(ticket);
+            store("save ticket " + ticket.getId(), () -> dataStore.saveTicket(ticket));
         }
     }
 
-    public Ticket bookTicket(Screening screening, Seat seat) {
-        // Reserve the seat
-        Seat screeningSeat = screening.getSeat(seat.getRow(), seat.getSeatNumber());
-        if (screeningSeat != null && screeningSeat.isAvailable()) {
-            screeningSeat.reserve();
-        } else {
-            return null; // Seat not available
-        }
-
+    public CompletableFuture<Ticket> bookTicketAsync(Screening screening, Seat seat) {
         // Create ticket with single seat
         List<Seat> seats = new ArrayList<>();
         seats.add(seat);
-        
+
+        // Reserve the seat
+        if (!reserveForClaim(screening, seats)) {
+            return CompletableFuture.completedFuture(null); // Seat not available
+        }
+
         Ticket ticket = new Ticket(screening, "Guest", "User", seats);
-        tickets.put(ticket.getId(), ticket);
+        return issue(ticket, seats, null);
+    }
+
+    public CompletableFuture<Boolean> cancelTicketAsync(String ticketId) {
+        return ticketsRestored.thenCompose(restored -> cancelTicket(ticketId));
+    }
 
-        // Save to Firebase
-        if (firebaseService.isInitialized()) {
-            firebaseService.saveTicket(ticket);
-            firebaseService.updateScreeningSeats(screening);
+    private CompletableFuture<Boolean> cancelTicket(String ticketId) {
+        Ticket ticket = removeTicket(ticketId, true);
+        if (ticket == null) {
+            return CompletableFuture.completedFuture(false);
         }
 
-        return ticket;
+        // Journal the cancellation, then delete the ticket and free its seats in Firebase in one write
+        return recordTicketChange(ticket, null).thenApply(journaled -> true);
     }
 
-    public boolean cancelTicket(String ticketId) {
+    /**
+     * Removes a ticket from the local state.
+     *
+     * @return the removed ticket, or null if there was none
+     */
+    private Ticket removeTicket(String ticketId, boolean releaseSeats) {
         Ticket ticket = tickets.remove(ticketId);
         if (ticket != null) {
+            unindexTicket(ticket);
+            fireTicketRemoved(ticket);
+
             // Release the seats
             Screening screening = ticket.getScreening();
-            for (Seat ticketSeat : ticket.getSeats()) {
-                Seat screeningSeat = screening.getSeat(ticketSeat.getRow(), ticketSeat.getSeatNumber());
-                if (screeningSeat != null) {
-                    screeningSeat.release();
-                }
+            if (releaseSeats) {
+                screening.releaseSeats(ticket.getSeats());
+                seatsChanged(screening);
             }
 
             // Remove from user's tickets if applicable
             if (ticket.getUser() != null) {
                 ticket.getUser().getTickets().remove(ticket);
             }
+        }
+        return ticket;
+    }
+
+    public CompletableFuture<Ticket> changeTicketAsync(String oldTicketId, Screening newScreening,
+                                                       List<Seat> newSeats) {
+        return ticketsRestored.thenCompose(restored -> changeTicket(oldTicketId, newScreening, newSeats));
+    }
 
-            // Update Firebase
-            if (firebaseService.isInitialized()) {
-                firebaseService.deleteTicket(ticketId);
-                firebaseService.updateScreeningSeats(screening);
+    private CompletableFuture<Ticket> changeTicket(String oldTicketId, Screening newScreening, List<Seat> newSeats) {
+        Ticket oldTicket = tickets.get(oldTicketId);
+        if (oldTicket == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Get customer info from old ticket
+        String firstName = oldTicket.getCustomerFirstName();
+        String lastName = oldTicket.getCustomerLastName();
+        Screening oldScreening = oldTicket.getScreening();
+        boolean sameScreening = oldScreening.getId().equals(newScreening.getId());
+
+        // Claim the new seats before giving up the old ones, so a failed change
+        // leaves the original ticket intact. When staying in the same screening
+        // the seats the customer keeps stay reserved throughout: only the added
+        // ones are reserved now, and the dropped ones are freed after the claim.
+        List<Seat> addedSeats = newSeats;
+        List<Seat> droppedSeats = List.of();
+        if (sameScreening) {
+            addedSeats = seatsNotIn(newSeats, oldTicket.getSeats());
+            droppedSeats = seatsNotIn(oldTicket.getSeats(), newSeats);
+        }
+        if (!reserveForClaim(newScreening, addedSeats)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Create new ticket with same customer info; it may take over seats of the old one
+        Ticket newTicket = new Ticket(newScreening, firstName, lastName, newSeats);
+        List<Seat> keptSeats = sameScreening ? seatsNotIn(newSeats, addedSeats) : List.of();
+        List<Seat> freedSeats = droppedSeats;
+        return claimSeats(newScreening, newSeats, addedSeats, newTicket.getId(), oldTicket.getId())
+                .thenCompose(claimed -> {
+                    if (!claimed) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    // Cancel old ticket; in the same screening only the seats it no longer uses are freed.
+                    // Kept seats stay owned between removing the old ticket and storing the new one.
+                    markClaim(newScreening, seatCodes(keptSeats));
+                    removeTicket(oldTicketId, !sameScreening);
+                    if (!freedSeats.isEmpty()) {
+                        oldScreening.releaseSeats(freedSeats);
+                        seatsChanged(oldScreening);
+                    }
+                    storeTicket(newTicket);
+
+                    // Journal the change, then swap the tickets and their seats in Firebase in one write
+                    return recordTicketChange(oldTicket, newTicket).thenApply(journaled -> newTicket);
+                });
+    }
+
+    /**
+     * Returns the seats of {@code seats} whose code is not among {@code others}.
+     */
+    private static List<Seat> seatsNotIn(List<Seat> seats, List<Seat> others) {
+        Set<Integer> otherCodes = new HashSet<>();
+        for (Seat seat : others) {
+            otherCodes.add(seat.getCode());
+        }
+        List<Seat> remaining = new ArrayList<>();
+        for (Seat seat : seats) {
+            if (!otherCodes.contains(seat.getCode())) {
+                remaining.add(seat);
             }
+        }
+        return remaining;
+    }
+
+    /**
+     * Claims seats that are already reserved locally in the shared seat store.
+     * If another terminal owns any of them, the local reservation is undone and
+     * the seats sold elsewhere are marked as taken here, so the UI can show them.
+     *
+     * @param previousOwner ticket or hold whose seats may be taken over, or null
+     */
+    private CompletableFuture<Boolean> claimSeats(Screening screening, List<Seat> seats, String owner,
+                                                  String previousOwner) {
+        return claimSeats(screening, seats, seats, owner, previousOwner);
+    }
+
+    /**
+     * Like {@link #claimSeats(Screening, List, String, String)}, but on failure
+     * only {@code reservedHere} is released locally; the other seats belong to
+     * {@code previousOwner} and stay reserved for it.
+     */
+    private CompletableFuture<Boolean> claimSeats(Screening screening, List<Seat> seats, List<Seat> reservedHere,
+                                                  String owner, String previousOwner) {
+        // Open seat maps show the local reservation while the claim is in flight
+        seatsChanged(screening);
+        int[] seatCodes = seatCodes(seats);
+        return seatClaims.claimSeats(screening.getId(), seatCodes, owner, previousOwner)
+                .orTimeout(CLAIM_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .handle((taken, error) -> {
+                    if (error != null) {
+                        System.err.println("Seat claim failed: " + describe(error));
+                        taken = null;
+                    }
+                    return claimCompleted(screening, seatCodes, reservedHere, owner, taken);
+                });
+    }
 
+    /**
+     * Finishes a seat claim once the shared store has answered.
+     *
+     * @param taken the seats owned by someone else, or null if the outcome is unknown
+     */
+    private boolean claimCompleted(Screening screening, int[] seatCodes, List<Seat> reservedHere, String owner,
+                                   List<Integer> taken) {
+        if (taken != null && taken.isEmpty()) {
+            // Still in flight until the caller stores the ticket or hold
             return true;
         }
+
+        settleClaim(screening, seatCodes(reservedHere));
+        screening.releaseSeats(reservedHere);
+        if (taken == null) {
+            // The outcome is unknown, so give back anything that may have been claimed
+            seatClaims.releaseSeats(screening.getId(), seatCodes, owner);
+        } else {
+            // The store names the first seat it found taken. Others may be sold
+            // too; the replica skipped them while they were reserved here, so
+            // take them from its last update.
+            Set<Integer> soldElsewhere = new HashSet<>(taken);
+            Set<Integer> remote = remoteReservations.getOrDefault(screening.getId(), Set.of());
+            for (int seatCode : seatCodes) {
+                if (remote.contains(seatCode)) {
+                    soldElsewhere.add(seatCode);
+                }
+            }
+            for (int seatCode : soldElsewhere) {
+                Seat seat = screening.getSeatByCode(seatCode);
+                if (seat != null && seat.isAvailable()) {
+                    seat.reserve();
+                }
+            }
+        }
+        seatsChanged(screening);
         return false;
     }
 
-    public Ticket changeTicket(String oldTicketId, Screening newScreening, List<Seat> newSeats) {
-        Ticket oldTicket = tickets.get(oldTicketId);
-        if (oldTicket == null) {
+    /**
+     * Reserves seats locally (all or nothing) for a claim that follows. The
+     * seats count as in flight from before the reservation, so a replica
+     * update arriving in between cannot free them again.
+     */
+    private boolean reserveForClaim(Screening screening, List<Seat> seats) {
+        int[] seatCodes = seatCodes(seats);
+        markClaim(screening, seatCodes);
+        if (!screening.tryReserve(seats).isEmpty()) {
+            settleClaim(screening, seatCodes);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks seats as in flight until {@link #settleClaim} is called for them.
+     */
+    private void markClaim(Screening screening, int[] seatCodes) {
+        Map<Integer, Integer> inFlight = claimsInFlight.computeIfAbsent(screening.getId(), id -> new ConcurrentHashMap<>());
+        for (int seatCode : seatCodes) {
+            inFlight.merge(seatCode, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Ends the in-flight state of claimed seats once a ticket or hold owns
+     * them, or once the claim has failed. Seats that are not marked are
+     * ignored.
+     */
+    private void settleClaim(Screening screening, int[] seatCodes) {
+        Map<Integer, Integer> inFlight = claimsInFlight.get(screening.getId());
+        if (inFlight != null) {
+            for (int seatCode : seatCodes) {
+                inFlight.computeIfPresent(seatCode, (code, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+
+    private static int[] seatCodes(List<Seat> seats) {
+        int[] seatCodes = new int[seats.size()];
+        for (int i = 0; i < seatCodes.length; i++) {
+            seatCodes[i] = seats.get(i).getCode();
+        }
+        return seatCodes;
+    }
+
+    // ==================== Booking Journal ====================
+
+    /**
+     * Makes a ticket operation durable, then sends it to Firebase. Either
+     * ticket may be null (a booking or a cancellation). The journal entry is
+     * marked as committed once Firebase confirms the write; until then it is
+     * replayed and uploaded again after a restart. If the upload fails, the
+     * operation joins the journal drain and is retried when the replica is
+     * live; while anything is waiting there, later operations queue behind
+     * it so they reach Firebase in order.
+     *
+     * @return a future that completes once the operation is journaled and handed to Firebase
+     */
+    private CompletableFuture<Void> recordTicketChange(Ticket oldTicket, Ticket newTicket) {
+        return journalTicketChange(oldTicket, newTicket).thenAccept(sequence -> {
+            if (dataStore.isInitialized()) {
+                if (!undrainedChanges.isEmpty()) {
+                    queueForDrain(new RecoveredChange(sequence, oldTicket, newTicket));
+                    return;
+                }
+                dataStore.commitTicketChange(oldTicket, newTicket).whenComplete((v, error) -> {
+                    if (error != null) {
+                        System.err.println("Could not upload ticket operation, will retry: " + describe(error));
+                        queueForDrain(new RecoveredChange(sequence, oldTicket, newTicket));
+                    } else if (sequence > 0) {
+                        journal.markCommitted(sequence);
+                    }
+                });
+            } else if (oldTicket != null) {
+                seatClaims.releaseSeats(oldTicket.getScreening().getId(), oldTicket.getSeatCodes(), oldTicket.getId());
+            }
+        });
+    }
+
+    /**
+     * Appends the operation to the journal. The future completes once it is
+     * on disk; concurrent sales share one disk sync.
+     *
+     * @return the journal sequence number, or 0 if the operation could not be journaled
+     */
+    private CompletableFuture<Long> journalTicketChange(Ticket oldTicket, Ticket newTicket) {
+        if (journal == null) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        return journal.append(oldTicket, newTicket)
+                .orTimeout(JOURNAL_SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(error -> {
+                    System.err.println("Could not journal ticket operation: " + describe(error));
+                    return 0L;
+                });
+    }
+
+    /**
+     * Starts a write to Firebase, if it is available, and logs it if it fails.
+     * The returned future fails too, so admin screens can report it.
+     */
+    private CompletableFuture<Void> store(String action, Supplier<CompletableFuture<Void>> write) {
+        if (!dataStore.isInitialized()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return write.get().whenComplete((v, error) -> {
+            if (error != null) {
+                System.err.println("Could not " + action + ": " + describe(error));
+            }
+        });
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof TimeoutException ? "timed out" : cause.getMessage();
+    }
+
+    /**
+     * Applies journaled operations to the local state. Operations whose
+     * screening is not known yet are kept and retried the next time.
+     */
+    private void replayJournal() {
+        synchronized (unappliedJournalEntries) {
+            int restored = 0;
+            Iterator<BookingJournal.Entry> pending = unappliedJournalEntries.iterator();
+            while (pending.hasNext()) {
+                RecoveredChange change = applyJournalEntry(pending.next());
+                if (change != null) {
+                    undrainedChanges.add(change);
+                    pending.remove();
+                    restored++;
+                }
+            }
+            if (restored > 0) {
+                System.out.println("Restored " + restored + " ticket operation(s) from the booking journal.");
+            }
+        }
+    }
+
+    /**
+     * Applies one journaled operation, unless the local state already has its
+     * result, and returns it for upload. Returns null if its screening is not
+     * known yet.
+     */
+    private RecoveredChange applyJournalEntry(BookingJournal.Entry entry) {
+        Ticket oldTicket = null;
+        if (entry.getOldTicket() != null) {
+            oldTicket = findOrRebuildTicket(entry.getOldTicket());
+            if (oldTicket == null) {
+                return null;
+            }
+        }
+        Ticket newTicket = null;
+        if (entry.getNewTicket() != null) {
+            newTicket = findOrRebuildTicket(entry.getNewTicket());
+            if (newTicket == null) {
+                return null;
+            }
+        }
+        if (entry.getSequence() <= snapshotJournalSequence) {
+            // The snapshot was saved after this operation; only the upload is left
+            return new RecoveredChange(entry.getSequence(), oldTicket, newTicket);
+        }
+
+        if (oldTicket != null) {
+            if (removeTicket(oldTicket.getId(), true) == null) {
+                // Sold in an earlier session, so only its seats are known here. If the
+                // operation was applied before, some seats may belong to a later ticket.
+                Screening screening = oldTicket.getScreening();
+                screening.releaseSeats(seatsNotIn(oldTicket.getSeats(), soldSeats(screening)));
+                seatsChanged(screening);
+            }
+            seatClaims.releaseSeats(oldTicket.getScreening().getId(), oldTicket.getSeatCodes(), oldTicket.getId());
+        }
+        if (newTicket != null) {
+            for (Seat seat : newTicket.getSeats()) {
+                if (seat.isAvailable()) {
+                    seat.reserve();
+                }
+            }
+            seatsChanged(newTicket.getScreening());
+            if (!dataStore.isInitialized()) {
+                // Offline the claim store is in memory and starts out empty
+                seatClaims.claimSeats(newTicket.getScreening().getId(), newTicket.getSeatCodes(), newTicket.getId(),
+                        oldTicket != null ? oldTicket.getId() : null);
+            }
+            if (!tickets.containsKey(newTicket.getId())) {
+                if (newTicket.getUser() != null) {
+                    newTicket.getUser().addTicket(newTicket);
+                }
+                storeTicket(newTicket);
+            }
+        }
+        return new RecoveredChange(entry.getSequence(), oldTicket, newTicket);
+    }
+
+    /**
+     * Returns the stored ticket with the snapshot's id, or else rebuilds it.
+     */
+    private Ticket findOrRebuildTicket(BookingJournal.TicketSnapshot snapshot) {
+        Ticket ticket = tickets.get(snapshot.id);
+        return ticket != null ? ticket : rebuildTicket(snapshot);
+    }
+
+    private List<Seat> soldSeats(Screening screening) {
+        List<Seat> sold = new ArrayList<>();
+        // Runs while tickets are being restored, so it cannot wait for them
+        for (Ticket ticket : lookupTickets(ticketIdsByScreening.get(screening.getId()))) {
+            sold.addAll(ticket.getSeats());
+        }
+        return sold;
+    }
+
+    private Ticket rebuildTicket(BookingJournal.TicketSnapshot snapshot) {
+        Screening screening = resolveScreening(snapshot);
+        if (screening == null) {
             return null;
         }
+        List<Seat> seats = new ArrayList<>(snapshot.seatCodes.length);
+        for (int seatCode : snapshot.seatCodes) {
+            Seat seat = screening.getSeatByCode(seatCode);
+            if (seat != null) {
+                seats.add(seat);
+            }
+        }
+        Ticket ticket = new Ticket(screening, snapshot.firstName, snapshot.lastName, seats);
+        ticket.setId(snapshot.id);
+        ticket.setUser(snapshot.userEmail != null ? users.get(snapshot.userEmail) : null);
+        ticket.setGuestInfo(snapshot.guestInfo);
+        ticket.setTotalPrice(snapshot.totalPrice);
+        ticket.setPurchaseTime(snapshot.purchaseTime);
+        ticket.setUsed(snapshot.used);
+        return ticket;
+    }
 
-        // Get customer info from old ticket
-        String firstName = oldTicket.getCustomerFirstName();
-        String lastName = oldTicket.getCustomerLastName();
-        User user = oldTicket.getUser();
+    /**
+     * Finds the screening of a journaled ticket by id, or else by movie, date,
+     * time and hall, since screenings created offline get new ids on every start.
+     */
+    private Screening resolveScreening(BookingJournal.TicketSnapshot snapshot) {
+        Screening screening = screenings.get(snapshot.screeningId);
+        if (screening != null) {
+            return screening;
+        }
+        for (Screening candidate : getAllScreeningsForDate(snapshot.date)) {
+            if (candidate.getTime().equals(snapshot.time)
+                    && Objects.equals(candidate.getHall(), snapshot.hall)
+                    && candidate.getMovie() != null
+                    && Objects.equals(candidate.getMovie().getTitle(), snapshot.movieTitle)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Uploads the operations restored from the journal or left behind by a
+     * failed upload, one at a time and in order. New seats are claimed first, so an offline sale never overwrites
+     * seats that were sold at another terminal in the meantime. The first
+     * upload that fails stops the drain, since later operations may build on
+     * it; it and everything after it stay uncommitted for the next time the
+     * replica goes live.
+     */
+    private void drainJournal() {
+        if (!dataStore.isInitialized() || !drainingJournal.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (RecoveredChange change : undrainedChanges) {
+            chain = chain.thenCompose(v -> drainChange(change));
+        }
+        chain.whenComplete((v, error) -> {
+            if (error != null) {
+                System.err.println("Could not upload journaled ticket operations, will retry: " + describe(error));
+            }
+            drainingJournal.set(false);
+            // Operations queued while this drain ran follow now
+            if (error == null && !undrainedChanges.isEmpty() && dataStore.isReplicaLive()) {
+                drainJournal();
+            }
+        });
+    }
+
+    private CompletableFuture<Void> drainChange(RecoveredChange change) {
+        Ticket oldTicket = change.oldTicket;
+        Ticket newTicket = change.newTicket;
+        // A long backlog waits for room in the store's write queue as it goes
+        CompletableFuture<List<Integer>> claimed = dataStore.awaitWriteCapacity().thenCompose(v -> newTicket == null
+                ? CompletableFuture.completedFuture(List.of())
+                : dataStore.claimSeats(newTicket.getScreening().getId(), newTicket.getSeatCodes(),
+                        newTicket.getId(), oldTicket != null ? oldTicket.getId() : null));
+        return claimed.thenCompose(taken -> {
+            if (!taken.isEmpty()) {
+                // Retrying cannot help: withdraw the operation here and report it
+                rejectOfflineChange(change, taken);
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            return dataStore.commitTicketChange(oldTicket, newTicket);
+        }).thenRun(() -> {
+            if (change.sequence > 0) {
+                journal.markCommitted(change.sequence);
+            }
+            undrainedChanges.remove(change);
+        });
+    }
+
+    /**
+     * Queues an operation whose upload failed, and drains at once if the
+     * replica is live; otherwise the drain runs when it next goes live.
+     */
+    private void queueForDrain(RecoveredChange change) {
+        undrainedChanges.add(change);
+        if (dataStore.isReplicaLive()) {
+            drainJournal();
+        }
+    }
+
+    /**
+     * Undoes a journaled sale or change locally after another terminal sold
+     * some of its seats first. The new ticket only exists here, so it is
+     * removed and its seats are freed, except those sold elsewhere. The old
+     * ticket of a change was never replaced in Firebase and is restored.
+     */
+    private void rejectOfflineChange(RecoveredChange change, List<Integer> takenSeatCodes) {
+        Ticket newTicket = change.newTicket;
+        Screening screening = newTicket.getScreening();
+        removeTicket(newTicket.getId(), true);
+        List<Seat> takenSeats = new ArrayList<>(takenSeatCodes.size());
+        for (int seatCode : takenSeatCodes) {
+            Seat seat = screening.getSeatByCode(seatCode);
+            if (seat != null) {
+                seat.reserve();
+                takenSeats.add(seat);
+            }
+        }
+        seatsChanged(screening);
+
+        Ticket oldTicket = change.oldTicket;
+        if (oldTicket != null && !tickets.containsKey(oldTicket.getId())) {
+            for (Seat seat : oldTicket.getSeats()) {
+                if (seat.isAvailable()) {
+                    seat.reserve();
+                }
+            }
+            seatsChanged(oldTicket.getScreening());
+            if (oldTicket.getUser() != null) {
+                oldTicket.getUser().addTicket(oldTicket);
+            }
+            storeTicket(oldTicket);
+        }
+        fireSaleRejected(newTicket, takenSeats);
+    }
+
+    /**
+     * A journaled operation applied to the local state but not yet in
+     * Firebase: restored at startup, or one whose upload failed. The
+     * sequence is 0 if the operation could not be journaled.
+     */
+    private static final class RecoveredChange {
+        final long sequence;
+        final Ticket oldTicket;
+        final Ticket newTicket;
+
+        RecoveredChange(long sequence, Ticket oldTicket, Ticket newTicket) {
+            this.sequence = sequence;
+            this.oldTicket = oldTicket;
+            this.newTicket = newTicket;
+        }
+    }
+
+    // ==================== Catalog Snapshot ====================
+
+    /**
+     * Loads movies and screenings with their occupied seats from the snapshot
+     * saved by the last run. Its tickets are left for
+     * {@link #restoreSnapshotTickets}.
+     *
+     * @return the snapshot, still mapped, or null if there is no usable one
+     */
+    private CatalogSnapshot restoreSnapshot() {
+        long started = System.nanoTime();
+        CatalogSnapshot snapshot = CatalogSnapshot.open(dataDirectory);
+        if (snapshot == null) {
+            return null;
+        }
+
+        Movie[] restoredMovies = new Movie[snapshot.getMovieCount()];
+        for (int i = 0; i < restoredMovies.length; i++) {
+            Movie movie = snapshot.readMovie(i);
+            if (movie != null) {
+                restoredMovies[i] = movie;
+                movies.put(movie.getId(), movie);
+                snapshotMovieIds.add(movie.getId());
+            }
+        }
+        for (int i = 0; i < snapshot.getScreeningCount(); i++) {
+            Screening screening = snapshot.readScreening(i,
+                    index -> index >= 0 && index < restoredMovies.length ? restoredMovies[index] : null);
+            if (screening != null) {
+                screening.getMovie().addScreening(screening);
+                putScreening(screening);
+                indexScreening(screening);
+                snapshotScreeningIds.add(screening.getId());
+            }
+        }
+        snapshotJournalSequence = snapshot.getJournalSequence();
+        servingSnapshot = dataStore.isInitialized();
+        System.out.println("Restored " + movies.size() + " movie(s) and " + screenings.size()
+                + " screening(s) from the catalog snapshot of " + Instant.ofEpochMilli(snapshot.getCreatedAt())
+                + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+        return snapshot;
+    }
+
+    /**
+     * Loads the tickets of a snapshot whose catalog has been restored. Runs
+     * in the background, so a screening may be deleted meanwhile; its tickets
+     * are then dropped.
+     */
+    private void restoreSnapshotTickets(CatalogSnapshot snapshot) {
+        long started = System.nanoTime();
+        int restoredTickets = 0;
+        for (int i = 0; i < snapshot.getTicketCount(); i++) {
+            BookingJournal.TicketSnapshot saved = snapshot.readTicket(i);
+            Ticket ticket = saved != null ? rebuildTicket(saved) : null;
+            if (ticket == null) {
+                continue;
+            }
+            if (!dataStore.isInitialized()) {
+                // Offline the claim store is in memory and starts out empty
+                seatClaims.claimSeats(ticket.getScreening().getId(), ticket.getSeatCodes(), ticket.getId(), null);
+            }
+            if (ticket.getUser() != null) {
+                ticket.getUser().addTicket(ticket);
+            }
+            storeTicket(ticket);
+            if (!screenings.containsKey(ticket.getScreening().getId())) {
+                // Deleted after the ticket was rebuilt, perhaps before it was stored
+                removeTicket(ticket.getId(), false);
+                continue;
+            }
+            restoredTickets++;
+        }
+        System.out.println("Restored " + restoredTickets + " ticket(s) from the catalog snapshot in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+    }
+
+    /**
+     * Saves the catalog for the next start.
+     */
+    private void saveSnapshot() {
+        // A snapshot taken before the last one's tickets are back would lose them
+        awaitTickets();
+        // Read first: every operation journaled so far is already in the tickets saved below
+        long journalSequence = journal != null ? journal.getLastSequence() : 0;
+        Map<String, int[]> heldSeats = new HashMap<>();
+        for (SeatHold hold : holds.values()) {
+            int[] codes = seatCodes(hold.seats);
+            heldSeats.merge(hold.screening.getId(), codes, (a, b) -> {
+                int[] merged = Arrays.copyOf(a, a.length + b.length);
+                System.arraycopy(b, 0, merged, a.length, b.length);
+                return merged;
+            });
+        }
+        CatalogSnapshot.save(dataDirectory, movies.values(), screenings.values(), tickets.values(), heldSeats,
+                journalSequence);
+    }
+
+    // ==================== Ticket Indexes ====================
+
+    /**
+     * Adds or replaces a ticket and keeps the screening and user indexes in step.
+     */
+    private void storeTicket(Ticket ticket) {
+        Ticket previous = tickets.put(ticket.getId(), ticket);
+        if (previous != null && previous != ticket) {
+            unindexTicket(previous);
+            fireTicketRemoved(previous);
+        }
+        addToIndex(ticketIdsByScreening, ticket.getScreening().getId(), ticket.getId());
+        if (ticket.getUser() != null) {
+            addToIndex(ticketIdsByUser, ticket.getUser().getId(), ticket.getId());
+        }
+        // Only once the screening index lists the ticket, so replica sync always sees an owner
+        settleClaim(ticket.getScreening(), ticket.getSeatCodes());
+        if (previous != ticket) {
+            fireTicketAdded(ticket);
+        }
+    }
+
+    private void unindexTicket(Ticket ticket) {
+        removeFromIndex(ticketIdsByScreening, ticket.getScreening().getId(), ticket.getId());
+        if (ticket.getUser() != null) {
+            removeFromIndex(ticketIdsByUser, ticket.getUser().getId(), ticket.getId());
+        }
+    }
+
+    /**
+     * Drops every ticket of a deleted screening, visiting only those tickets.
+     */
+    private void removeTicketsForScreening(String screeningId) {
+        Set<String> ticketIds = ticketIdsByScreening.remove(screeningId);
+        if (ticketIds == null) {
+            return;
+        }
+        for (String ticketId : ticketIds) {
+            Ticket ticket = tickets.remove(ticketId);
+            if (ticket != null && ticket.getUser() != null) {
+                removeFromIndex(ticketIdsByUser, ticket.getUser().getId(), ticketId);
+            }
+            if (ticket != null) {
+                fireTicketRemoved(ticket);
+            }
+        }
+    }
+
+    private List<Ticket> lookupTickets(Set<String> ticketIds) {
+        if (ticketIds == null) {
+            return new ArrayList<>();
+        }
+        List<Ticket> result = new ArrayList<>(ticketIds.size());
+        for (String ticketId : ticketIds) {
+            Ticket ticket = tickets.get(ticketId);
+            if (ticket != null) {
+                result.add(ticket);
+            }
+        }
+        return result;
+    }
+
+    private static void addToIndex(Map<String, Set<String>> index, String key, String ticketId) {
+        if (key != null) {
+            // compute() rather than computeIfAbsent().add() so a concurrent removal
+            // cannot drop the bucket between the lookup and the add
+            index.compute(key, (k, ids) -> {
+                Set<String> bucket = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                bucket.add(ticketId);
+                return bucket;
+            });
+        }
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> index, String key, String ticketId) {
+        if (key != null) {
+            // Drop empty buckets so the index does not keep one per past screening
+            index.computeIfPresent(key, (k, ids) -> {
+                ids.remove(ticketId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    // ==================== Ticket Listeners ====================
+
+    /**
+     * Receives tickets as they are added to or removed from the local state,
+     * whether sold on this terminal, replayed from the journal or loaded from
+     * the store. A changed ticket is reported as removed, then added. Called
+     * on the thread that made the change.
+     */
+    public interface TicketListener {
+        void onTicketAdded(Ticket ticket);
+
+        void onTicketRemoved(Ticket ticket);
+    }
+
+    public void addTicketListener(TicketListener listener) {
+        ticketListeners.add(listener);
+    }
+
+    public void removeTicketListener(TicketListener listener) {
+        ticketListeners.remove(listener);
+    }
+
+    private void fireTicketAdded(Ticket ticket) {
+        for (TicketListener listener : ticketListeners) {
+            listener.onTicketAdded(ticket);
+        }
+    }
+
+    private void fireTicketRemoved(Ticket ticket) {
+        for (TicketListener listener : ticketListeners) {
+            listener.onTicketRemoved(ticket);
+        }
+    }
+
+    // ==================== Sale Conflicts ====================
+
+    /**
+     * Told when a ticket sold or changed while Firebase was unreachable
+     * could not be uploaded, because another terminal sold some of its seats
+     * in the meantime. By then the ticket has been withdrawn here, and the
+     * ticket it replaced, if any, is back. Called on the thread that
+     * completed the upload attempt.
+     */
+    public interface SaleConflictListener {
+        void onSaleRejected(Ticket ticket, List<Seat> takenSeats);
+    }
+
+    public void addSaleConflictListener(SaleConflictListener listener) {
+        saleConflictListeners.add(listener);
+    }
+
+    public void removeSaleConflictListener(SaleConflictListener listener) {
+        saleConflictListeners.remove(listener);
+    }
+
+    private void fireSaleRejected(Ticket ticket, List<Seat> takenSeats) {
+        if (saleConflictListeners.isEmpty()) {
+            System.err.println("Ticket " + ticket.getId() + " sold offline was withdrawn: seat(s) "
+                    + takenSeats.stream().map(Seat::getSeatLabel).collect(Collectors.joining(", "))
+                    + " were sold elsewhere meanwhile.");
+            return;
+        }
+        for (SaleConflictListener listener : saleConflictListeners) {
+            listener.onSaleRejected(ticket, takenSeats);
+        }
+    }
+
+    // ==================== Seat Change Events ====================
+
+    /**
+     * Told that seats of a screening were reserved or released, here or at
+     * another terminal. Events are coalesced: a listener hears about a
+     * screening once per flush, however many seats changed meanwhile.
+     */
+    public interface SeatChangeListener {
+        void onSeatsChanged(Screening screening);
+    }
+
+    public void addSeatChangeListener(String screeningId, SeatChangeListener listener) {
+        seatChangeListeners.computeIfAbsent(screeningId, id -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void removeSeatChangeListener(String screeningId, SeatChangeListener listener) {
+        seatChangeListeners.computeIfPresent(screeningId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * Sets where seat change events are delivered. Changes made before a
+     * scheduled delivery runs are merged into it, so with
+     * {@code Platform::runLater} listeners run on the JavaFX thread at most
+     * once per screening per pulse. By default events are delivered at once
+     * on the thread that changed the seats.
+     */
+    public void setSeatChangeExecutor(Executor executor) {
+        this.seatChangeExecutor = executor;
+    }
+
+    private void seatsChanged(Screening screening) {
+        // Screenings nobody is looking at cost a map lookup
+        if (!seatChangeListeners.containsKey(screening.getId())) {
+            return;
+        }
+        changedScreeningIds.add(screening.getId());
+        if (seatChangeFlushPending.compareAndSet(false, true)) {
+            seatChangeExecutor.execute(this::flushSeatChanges);
+        }
+    }
+
+    private void flushSeatChanges() {
+        // Cleared first, so changes made while delivering schedule another flush
+        seatChangeFlushPending.set(false);
+        Iterator<String> changed = changedScreeningIds.iterator();
+        while (changed.hasNext()) {
+            String screeningId = changed.next();
+            changed.remove();
+            Screening screening = screenings.get(screeningId);
+            List<SeatChangeListener> listeners = seatChangeListeners.get(screeningId);
+            if (screening != null && listeners != null) {
+                for (SeatChangeListener listener : listeners) {
+                    listener.onSeatsChanged(screening);
+                }
+            }
+        }
+    }
+
+    // ==================== Seat Holds ====================
+
+    /**
+     * Holds the given seats for a limited time so that no other channel can
+     * sell them while the customer completes the booking.
+     *
+     * @return a future for the hold id, which is null if any of the seats is already taken
+     */
+    public CompletableFuture<String> holdSeatsAsync(Screening screening, List<Seat> seats, long seconds) {
+        if (!reserveForClaim(screening, seats)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        SeatHold hold = new SeatHold(screening, new ArrayList<>(seats));
+        return claimSeats(screening, hold.seats, hold.id, null).thenApply(claimed -> {
+            if (!claimed) {
+                return null;
+            }
+            hold.timeout = holdExpiry.schedule(() -> expireHold(hold), seconds, TimeUnit.SECONDS);
+            holds.put(hold.id, hold);
+            settleClaim(screening, seatCodes(hold.seats));
+            return hold.id;
+        });
+    }
+
+    /**
+     * Turns a hold into a ticket carrying the given guest contact details.
+     * Completes with null if the hold has expired or was released.
+     */
+    public CompletableFuture<Ticket> confirmHoldAsync(String holdId, String firstName, String lastName,
+                                                      String guestInfo) {
+        SeatHold hold = holdId != null ? holds.get(holdId) : null;
+        if (hold == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // The seats stay owned while they pass from the hold to the ticket
+        markClaim(hold.screening, seatCodes(hold.seats));
+        if (!holds.remove(holdId, hold)) {
+            settleClaim(hold.screening, seatCodes(hold.seats));
+            return CompletableFuture.completedFuture(null);
+        }
+        hold.timeout.cancel();
+        Ticket ticket = newTicket(hold.screening, hold.seats, firstName, lastName);
+        if (guestInfo != null) {
+            ticket.setGuestInfo(guestInfo);
+        }
+        return issue(ticket, hold.seats, hold.id);
+    }
+
+    /**
+     * Gives the held seats back before the hold expires.
+     */
+    public void releaseHold(String holdId) {
+        SeatHold hold = holdId != null ? holds.remove(holdId) : null;
+        if (hold != null) {
+            hold.timeout.cancel();
+            releaseHeldSeats(hold);
+        }
+    }
+
+    public boolean isHoldActive(String holdId) {
+        return holdId != null && holds.containsKey(holdId);
+    }
+
+    private void expireHold(SeatHold hold) {
+        // Whoever removes the hold first (confirm, release or expiry) owns the seats
+        if (holds.remove(hold.id, hold)) {
+            releaseHeldSeats(hold);
+        }
+    }
 
-        // Cancel old ticket (releases seats)
-        cancelTicket(oldTicketId);
+    private void releaseHeldSeats(SeatHold hold) {
+        hold.screening.releaseSeats(hold.seats);
+        seatsChanged(hold.screening);
+        seatClaims.releaseSeats(hold.screening.getId(), seatCodes(hold.seats), hold.id);
+    }
 
-        // Create new ticket with same customer info
-        Ticket newTicket = createTicketForCustomer(newScreening, newSeats, firstName, lastName);
+    private static class SeatHold {
+        final String id = UUID.randomUUID().toString();
+        final Screening screening;
+        final List<Seat> seats;
+        volatile HashedTimingWheel.Timeout timeout;
 
-        return newTicket;
+        SeatHold(Screening screening, List<Seat> seats) {
+            this.screening = screening;
+            this.seats = seats;
+        }
     }
 
     // ==================== Firebase Sync ====================
 
-    public FirebaseService getFirebaseService() {
-        return firebaseService;
+    public DataStore getDataStore() {
+        return dataStore;
     }
 
     public boolean isFirebaseConnected() {
-        return firebaseService.isInitialized();
+        return dataStore.isInitialized();
+    }
+
+    /**
+     * Returns true while movies and screenings are being kept up to date by live sync.
+     */
+    public boolean isLiveSyncActive() {
+        return dataStore.isReplicaLive();
+    }
+
+    /**
+     * Returns when local data was last refreshed from Firebase, in epoch
+     * milliseconds, or 0 if it never was.
+     */
+    public long getLastSyncTime() {
+        return Math.max(dataStore.getLastReplicaUpdate(), lastResync);
+    }
+
+    /**
+     * Returns the number of changes not yet confirmed by Firebase.
+     */
+    public int getPendingWriteCount() {
+        return dataStore.getPendingWriteCount();
+    }
+
+    /**
+     * Sends queued writes to Firebase, saves the catalog snapshot, then closes
+     * the booking journal, so commits confirmed during shutdown are recorded too.
+     */
+    public void shutdown() {
+        // Give back every hold, here and in the shared store, before the store
+        // stops: nothing would ever expire them once this process is gone
+        holdExpiry.stop();
+        List<CompletableFuture<Void>> releases = new ArrayList<>();
+        for (SeatHold hold : new ArrayList<>(holds.values())) {
+            if (holds.remove(hold.id, hold)) {
+                hold.timeout.cancel();
+                hold.screening.releaseSeats(hold.seats);
+                releases.add(seatClaims.releaseSeats(hold.screening.getId(), seatCodes(hold.seats), hold.id));
+            }
+        }
+        try {
+            CompletableFuture.allOf(releases.toArray(CompletableFuture<?>[]::new))
+                    .get(CLAIM_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Failed to release seat holds: " + e.getMessage());
+        }
+
+        dataStore.shutdown();
+        saveSnapshot();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Copies an edit made elsewhere into a local screening. The setters tell
+     * the schedule listeners, so the date, hall and movie indexes follow.
+     */
+    private void applySchedule(Screening local, Screening remote) {
+        local.setDate(remote.getDate());
+        local.setTime(remote.getTime());
+        local.setEndTime(remote.getExplicitEndTime());
+        local.setHall(remote.getHall());
+        local.setPrice(remote.getPrice());
+    }
+
+    /**
+     * Copies remote reservations into a local screening. Seats that are free
+     * remotely are only released if no local ticket, hold or in-flight claim
+     * owns them, so an echo of an older write cannot free a seat that was
+     * just sold here or is being sold right now.
+     */
+    private void syncReservations(Screening local, Screening remote) {
+        boolean changed = false;
+        Set<Integer> remoteReserved = new HashSet<>();
+        for (Seat seat : remote.getReservedSeats()) {
+            remoteReserved.add(seat.getCode());
+            Seat localSeat = local.getSeatByCode(seat.getCode());
+            if (localSeat != null && localSeat.isAvailable()) {
+                localSeat.reserve();
+                changed = true;
+            }
+        }
+        remoteReservations.put(local.getId(), remoteReserved);
+
+        // A seat is marked in flight before it is reserved here, and passes
+        // from one owner to the next only while in flight. Reading the claims
+        // and owners twice, after the reserved seats, finds every seat that is
+        // still taken, whatever sales run meanwhile.
+        List<Seat> reservedHere = new ArrayList<>(local.getReservedSeats());
+        Set<Integer> owned = new HashSet<>();
+        for (int pass = 0; pass < 2; pass++) {
+            owned.addAll(claimsInFlight.getOrDefault(local.getId(), Map.of()).keySet());
+            addOwnedSeats(local, owned);
+        }
+        for (Seat seat : reservedHere) {
+            if (!remoteReserved.contains(seat.getCode()) && !owned.contains(seat.getCode())) {
+                seat.release();
+                changed = true;
+            }
+        }
+        if (changed) {
+            seatsChanged(local);
+        }
+    }
+
+    private void addOwnedSeats(Screening screening, Set<Integer> owned) {
+        for (Ticket ticket : getTicketsForScreening(screening.getId())) {
+            for (int code : ticket.getSeatCodes()) {
+                owned.add(code);
+            }
+        }
+        for (SeatHold hold : holds.values()) {
+            if (hold.screening == screening) {
+                for (Seat seat : hold.seats) {
+                    owned.add(seat.getCode());
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies changes streamed from Firebase to the local maps and indexes.
+     */
+    private class ReplicaHandler implements DataStore.ReplicaListener {
+        @Override
+        public void onMovieChanged(Movie movie) {
+            snapshotMovieIds.remove(movie.getId());
+            Movie existing = movies.putIfAbsent(movie.getId(), movie);
+            if (existing != null && existing != movie) {
+                existing.setTitle(movie.getTitle());
+                existing.setDescription(movie.getDescription());
+                existing.setGenre(movie.getGenre());
+                existing.setDurationMinutes(movie.getDurationMinutes());
+                existing.setPosterPath(movie.getPosterPath());
+                existing.setRating(movie.getRating());
+            }
+        }
+
+        @Override
+        public void onMovieRemoved(String movieId) {
+            removeMovieLocally(movieId);
+        }
+
+        @Override
+        public void onScreeningChanged(Screening screening) {
+            snapshotScreeningIds.remove(screening.getId());
+            Screening existing = screenings.get(screening.getId());
+            if (existing != null) {
+                applySchedule(existing, screening);
+                syncReservations(existing, screening);
+                return;
+            }
+            putScreening(screening);
+            indexScreening(screening);
+            Movie movie = screening.getMovie();
+            if (movie != null && !movie.getScreenings().contains(screening)) {
+                movie.addScreening(screening);
+            }
+        }
+
+        @Override
+        public void onLive() {
+            // Everything in Firebase has been delivered, so whatever the
+            // snapshot still holds on top of it was deleted elsewhere
+            for (String screeningId : snapshotScreeningIds) {
+                onScreeningRemoved(screeningId);
+            }
+            for (String movieId : snapshotMovieIds) {
+                removeMovieLocally(movieId);
+            }
+            snapshotScreeningIds.clear();
+            snapshotMovieIds.clear();
+            servingSnapshot = false;
+
+            // Screenings are loaded now, so restore and upload journaled sales
+            replayJournal();
+            drainJournal();
+            backgroundExecutor.execute(CinemaService.this::saveSnapshot);
+        }
+
+        @Override
+        public void onScreeningRemoved(String screeningId) {
+            Screening screening = screenings.get(screeningId);
+            if (screening != null) {
+                screening.getMovie().removeScreening(screening);
+                removeScreening(screening);
+                removeTicketsForScreening(screeningId);
+            }
+        }
     }
 }
@@ -0,0 +1,175 @@
+package com.cinema.service;
+
+import com.cinema.model.Movie;
+import com.cinema.model.Screening;
+import com.cinema.model.Ticket;
+import com.cinema.model.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Shared storage behind {@link CinemaService}. {@link FirebaseService} is the
+ * production store; {@link InMemoryDataStore} keeps everything in memory and
+ * can add latency and failures, so the service can be measured without a
+ * network.
+ * <p>
+ * Operations never block the caller. Until the store is initialized, writes
+ * complete at once and reads come back empty.
+ */
+public interface DataStore extends SeatClaimStore {
+
+    /**
+     * Connects to the store. Does nothing if it is unavailable, in which case
+     * {@link #isInitialized()} stays false.
+     */
+    void initialize();
+
+    boolean isInitialized();
+
+    /**
+     * Stops live sync and waits briefly for outstanding writes to be acknowledged.
+     */
+    void shutdown();
+
+    /**
+     * Number of writes not yet acknowledged by the store.
+     */
+    int getPendingWriteCount();
+
+    /**
+     * Returns a future completed once the store has room for more writes.
+     * Writes are accepted at any time; producers of many writes wait on this
+     * so they do not run far ahead of the store.
+     */
+    default CompletableFuture<Void> awaitWriteCapacity() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // ==================== Users ====================
+
+    CompletableFuture<Void> saveUser(User user);
+
+    /**
+     * Saves a user unless one with the same email already exists.
+     */
+    void saveUserIfNotExists(User user);
+
+    /**
+     * @return a future completed with the user, or null if there is none
+     */
+    CompletableFuture<User> getUserByEmail(String email);
+
+    CompletableFuture<Void> deleteUser(String email);
+
+    /**
+     * Completes with an empty list if the store cannot be read.
+     */
+    CompletableFuture<List<User>> fetchAllUsers();
+
+    // ==================== Movies and Screenings ====================
+
+    /**
+     * Saves a movie together with its screenings.
+     */
+    CompletableFuture<Void> saveMovie(Movie movie);
+
+    /**
+     * Saves a movie and its screenings unless a movie with the same title already exists.
+     */
+    void saveMovieIfNotExists(Movie movie);
+
+    /**
+     * Deletes a movie and its screenings.
+     */
+    CompletableFuture<Void> deleteMovie(String movieId);
+
+    /**
+     * Completes with an empty list if the store cannot be read.
+     */
+    CompletableFuture<List<Movie>> fetchAllMovies();
+
+    /**
+     * Fetches every screening whose movie is in {@code moviesMap}. Completes
+     * with an empty list if the store cannot be read.
+     */
+    CompletableFuture<List<Screening>> fetchAllScreenings(Map<String, Movie> moviesMap);
+
+    /**
+     * Saves the details of a screening. Its reserved seats are left alone,
+     * since they are only changed through seat claims and ticket commits.
+     */
+    CompletableFuture<Void> saveScreening(Screening screening);
+
+    /**
+     * Deletes a screening together with its reserved seats.
+     */
+    CompletableFuture<Void> deleteScreening(String screeningId);
+
+    CompletableFuture<List<Screening>> getScreeningsForDate(LocalDate date, Map<String, Movie> moviesMap);
+
+    // ==================== Tickets ====================
+
+    CompletableFuture<Void> saveTicket(Ticket ticket);
+
+    CompletableFuture<Void> deleteTicket(String ticketId);
+
+    /**
+     * Replaces {@code oldTicket} with {@code newTicket} atomically, freeing the
+     * old ticket's seats and reserving the new one's. Either ticket may be null.
+     * Seats kept by the new ticket stay reserved.
+     */
+    CompletableFuture<Void> commitTicketChange(Ticket oldTicket, Ticket newTicket);
+
+    CompletableFuture<List<Ticket>> getTicketsForScreening(String screeningId);
+
+    CompletableFuture<List<Ticket>> getTicketsForUser(String userId);
+
+    // ==================== Live Replica ====================
+
+    /**
+     * Receives changes to movies and screenings as they happen. Called on the
+     * store's event thread.
+     */
+    interface ReplicaListener {
+        void onMovieChanged(Movie movie);
+
+        void onMovieRemoved(String movieId);
+
+        void onScreeningChanged(Screening screening);
+
+        void onScreeningRemoved(String screeningId);
+
+        /**
+         * Called once the replica has caught up after starting, and again
+         * after every reconnect.
+         */
+        default void onLive() {
+        }
+    }
+
+    /**
+     * Starts streaming movies and screenings to the listener. Existing ones
+     * are delivered first, then only those that change. Calling this again
+     * restarts the replica from scratch.
+     *
+     * @param movieLookup resolves a screening's movie id to the replicated movie
+     */
+    void startReplica(ReplicaListener listener, Function<String, Movie> movieLookup);
+
+    void stopReplica();
+
+    /**
+     * Returns true while the replica is connected and has finished its initial load.
+     */
+    boolean isReplicaLive();
+
+    /**
+     * Returns the time of the last change received by the replica, in epoch
+     * milliseconds, or 0 if nothing has been received yet.
+     */
+    long getLastReplicaUpdate();
+}
@@ -14,22 +14,45 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
- * Service class for Firebase Realtime Database operations.
+ * Service class for Firebase Realtime Database operations. This is the
+ * production {@link DataStore}.
  */
-public class FirebaseService {
+public class FirebaseService implements DataStore {
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    private static final long FLUSH_INTERVAL_MILLIS = 5;
+    private static final int MAX_QUEUED_WRITES = 5_000;
+
     private static FirebaseService instance;
     private DatabaseReference database;
     private boolean initialized = false;
+    private WriteBehindQueue writeQueue;
+
+    // Live replica state
+    private ReplicaListener replicaListener;
+    private Function<String, Movie> movieLookup;
+    private ChildEventListener movieWatcher;
+    private ChildEventListener screeningWatcher;
+    private ValueEventListener connectionWatcher;
+    private final Map<String, List<DataSnapshot>> orphanScreenings = new ConcurrentHashMap<>();
+    private final Set<String> migratingScreenings = ConcurrentHashMap.newKeySet();
+    private volatile boolean replicaConnected;
+    private volatile boolean moviesLoaded;
+    private volatile boolean screeningsLoaded;
+    private boolean liveAnnounced;      // guarded by this
+    private volatile boolean replicaFailed;
+    private volatile long lastReplicaUpdate;
 
     private FirebaseService() {
         // Initialize will be called separately
     }
 
-    public static FirebaseService getInstance() {
+    public static synchronized FirebaseService getInstance() {
         if (instance == null) {
             instance = new FirebaseService();
         }
@@ -40,7 +63,8 @@ public class FirebaseService {
      * Initialize Firebase with the service account credentials.
      * The firebase-config.json file should be placed in src/main/resources/
      */
-    public void initialize() {
+    @Override
+    public synchronized void initialize() {
         if (initialized) {
             return;
         }
@@ -68,6 +92,7 @@ public class FirebaseService {
             }
 
             database = FirebaseDatabase.getInstance().getReference();
+            writeQueue = new WriteBehindQueue(this::sendBatch, FLUSH_INTERVAL_MILLIS, MAX_QUEUED_WRITES);
             initialized = true;
             System.out.println("Firebase initialized successfully.");
 
@@ -77,18 +102,86 @@ public class FirebaseService {
         }
     }
 
+    @Override
     public boolean isInitialized() {
         return initialized;
     }
 
+    /**
+     * Stops live sync and sends all queued writes in order, waiting up to
+     * five seconds for the database to acknowledge them.
+     */
+    @Override
+    public void shutdown() {
+        if (!initialized) {
+            return;
+        }
+        stopReplica();
+        if (!writeQueue.shutdown(5, TimeUnit.SECONDS)) {
+            System.err.println("Some writes were not confirmed before shutdown.");
+        }
+    }
+
+    // ==================== Write-Behind ====================
+
+    /**
+     * Queues a write. A null value deletes the path. Writes to the same path
+     * before the next flush are coalesced, and the future completes once the
+     * database has acknowledged the write.
+     */
+    private CompletableFuture<Void> write(String path, Object value) {
+        return writeQueue.enqueue(path, value);
+    }
+
+    /**
+     * Queues several paths to be written atomically in the same batch.
+     */
+    private CompletableFuture<Void> writeAll(Map<String, Object> values) {
+        return writeQueue.enqueueAll(values);
+    }
+
+    private void sendBatch(Map<String, Object> batch, CompletableFuture<Void> ack) {
+        database.updateChildren(batch, (error, ref) -> {
+            if (error != null) {
+                System.err.println("Firebase write failed: " + error.getMessage());
+                ack.completeExceptionally(new Exception(error.getMessage()));
+            } else {
+                ack.complete(null);
+            }
+        });
+    }
+
+    /** Number of writes queued or waiting for acknowledgement. */
+    @Override
+    public int getPendingWriteCount() {
+        return initialized ? writeQueue.getDepth() : 0;
+    }
+
+    @Override
+    public CompletableFuture<Void> awaitWriteCapacity() {
+        return initialized ? writeQueue.whenBelowCapacity() : CompletableFuture.completedFuture(null);
+    }
+
+    /** Time the most recent batch took to be acknowledged. */
+    public long getLastFlushLatencyMillis() {
+        return initialized ? writeQueue.getLastFlushLatencyMillis() : 0;
+    }
+
+    public long getMaxFlushLatencyMillis() {
+        return initialized ? writeQueue.getMaxFlushLatencyMillis() : 0;
+    }
+
+    /** Number of writes that were replaced by a later write to the same path before being sent. */
+    public long getCoalescedWriteCount() {
+        return initialized ? writeQueue.getCoalescedWrites() : 0;
+    }
+
     // ==================== User Operations ====================
 
+    @Override
     public CompletableFuture<Void> saveUser(User user) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-        
         if (!initialized) {
-            future.complete(null);
-            return future;
+            return CompletableFuture.completedFuture(null);
         }
 
         Map<String, Object> userData = new HashMap<>();
@@ -100,20 +193,13 @@ public class FirebaseService {
         userData.put("password", user.getPassword()); // In production, hash this!
         userData.put("role", user.getRole().name());
 
-        database.child("users").child(user.getId()).setValue(userData, (error, ref) -> {
-            if (error != null) {
-                future.completeExceptionally(new Exception(error.getMessage()));
-            } else {
-                future.complete(null);
-            }
-        });
-
-        return future;
+        return write("users/" + user.getId(), userData);
     }
 
     /**
      * Saves a user only if they don't already exist in Firebase (by email).
      */
+    @Override
     public void saveUserIfNotExists(User user) {
         if (!initialized) {
             return;
@@ -138,6 +224,7 @@ public class FirebaseService {
                 });
     }
 
+    @Override
     public CompletableFuture<User> getUserByEmail(String email) {
         CompletableFuture<User> future = new CompletableFuture<>();
 
@@ -184,6 +271,7 @@ public class FirebaseService {
         return user;
     }
 
+    @Override
     public CompletableFuture<Void> deleteUser(String email) {
         CompletableFuture<Void> future = new CompletableFuture<>();
 
@@ -198,7 +286,7 @@ public class FirebaseService {
                     @Override
                     public void onDataChange(DataSnapshot snapshot) {
                         for (DataSnapshot userSnapshot : snapshot.getChildren()) {
-                            userSnapshot.getRef().removeValue((err, ref) -> {});
+                            write("users/" + userSnapshot.getKey(), null);
                         }
                         future.complete(null);
                     }
@@ -213,52 +301,46 @@ public class FirebaseService {
     }
 
     /**
-     * Fetches all users from Firebase.
+     * Fetches all users from Firebase. Completes with an empty list if
+     * Firebase does not answer within 10 seconds.
      */
-    public List<User> fetchAllUsers() {
-        List<User> userList = new ArrayList<>();
-        
+    @Override
+    public CompletableFuture<List<User>> fetchAllUsers() {
+        CompletableFuture<List<User>> future = new CompletableFuture<>();
+
         if (!initialized) {
-            return userList;
+            future.complete(new ArrayList<>());
+            return future;
         }
 
-        CountDownLatch latch = new CountDownLatch(1);
-
         database.child("users").addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot snapshot) {
+                List<User> userList = new ArrayList<>();
                 for (DataSnapshot userSnapshot : snapshot.getChildren()) {
                     User user = parseUser(userSnapshot);
                     if (user != null && user.getEmail() != null) {
                         userList.add(user);
                     }
                 }
-                latch.countDown();
+                future.complete(userList);
             }
 
             @Override
             public void onCancelled(DatabaseError error) {
-                latch.countDown();
+                future.complete(new ArrayList<>());
             }
         });
 
-        try {
-            latch.await(10, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        return userList;
+        return future.completeOnTimeout(new ArrayList<>(), 10, TimeUnit.SECONDS);
     }
 
     // ==================== Movie Operations ====================
 
+    @Override
     public CompletableFuture<Void> saveMovie(Movie movie) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-
         if (!initialized) {
-            future.complete(null);
-            return future;
+            return CompletableFuture.completedFuture(null);
         }
 
         Map<String, Object> movieData = new HashMap<>();
@@ -270,22 +352,18 @@ public class FirebaseService {
         movieData.put("posterPath", movie.getPosterPath());
         movieData.put("rating", movie.getRating());
 
-        database.child("movies").child(movie.getId()).setValue(movieData, (error, ref) -> {
-            if (error != null) {
-                future.completeExceptionally(new Exception(error.getMessage()));
-            } else {
-                // Save screenings separately
-                saveScreeningsForMovie(movie);
-                future.complete(null);
-            }
-        });
+        CompletableFuture<Void> written = write("movies/" + movie.getId(), movieData);
 
-        return future;
+        // Save screenings separately (they usually go out in the same batch)
+        saveScreeningsForMovie(movie);
+
+        return written;
     }
 
     /**
      * Saves a movie and its screenings only if a movie with the same title doesn't already exist.
      */
+    @Override
     public void saveMovieIfNotExists(Movie movie) {
         if (!initialized) {
             return;
@@ -316,6 +394,7 @@ public class FirebaseService {
         }
     }
 
+    @Override
     public CompletableFuture<Void> deleteMovie(String movieId) {
         CompletableFuture<Void> future = new CompletableFuture<>();
 
@@ -325,9 +404,9 @@ public class FirebaseService {
         }
 
         // Delete movie and its screenings
-        database.child("movies").child(movieId).removeValue((error, ref) -> {
+        write("movies/" + movieId, null).whenComplete((v, error) -> {
             if (error != null) {
-                future.completeExceptionally(new Exception(error.getMessage()));
+                future.completeExceptionally(error);
             } else {
                 // Also delete associated screenings
                 database.child("screenings").orderByChild("movieId").equalTo(movieId)
@@ -335,7 +414,7 @@ public class FirebaseService {
                             @Override
                             public void onDataChange(DataSnapshot snapshot) {
                                 for (DataSnapshot screeningSnapshot : snapshot.getChildren()) {
-                                    screeningSnapshot.getRef().removeValue((err, ref) -> {});
+                                    write("screenings/" + screeningSnapshot.getKey(), null);
                                 }
                                 future.complete(null);
                             }
@@ -393,92 +472,80 @@ public class FirebaseService {
     }
 
     /**
-     * Synchronously fetches all movies from Firebase.
+     * Fetches all movies from Firebase.
      * Similar to fetchAllUsers().
      */
-    public List<Movie> fetchAllMovies() {
-        List<Movie> movieList = new ArrayList<>();
-        
+    @Override
+    public CompletableFuture<List<Movie>> fetchAllMovies() {
+        CompletableFuture<List<Movie>> future = new CompletableFuture<>();
+
         if (!initialized) {
-            return movieList;
+            future.complete(new ArrayList<>());
+            return future;
         }
 
-        CountDownLatch latch = new CountDownLatch(1);
-
         database.child("movies").addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot snapshot) {
+                List<Movie> movieList = new ArrayList<>();
                 for (DataSnapshot movieSnapshot : snapshot.getChildren()) {
                     Movie movie = parseMovie(movieSnapshot);
                     if (movie != null && movie.getId() != null) {
                         movieList.add(movie);
                     }
                 }
-                latch.countDown();
+                future.complete(movieList);
             }
 
             @Override
             public void onCancelled(DatabaseError error) {
-                latch.countDown();
+                future.complete(new ArrayList<>());
             }
         });
 
-        try {
-            latch.await(10, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        return movieList;
+        return future.completeOnTimeout(new ArrayList<>(), 10, TimeUnit.SECONDS);
     }
 
     /**
-     * Synchronously fetches all screenings from Firebase for a given movies map.
+     * Fetches all screenings from Firebase for a given movies map.
      */
-    public List<Screening> fetchAllScreenings(Map<String, Movie> moviesMap) {
-        List<Screening> screeningList = new ArrayList<>();
-        
+    @Override
+    public CompletableFuture<List<Screening>> fetchAllScreenings(Map<String, Movie> moviesMap) {
+        CompletableFuture<List<Screening>> future = new CompletableFuture<>();
+
         if (!initialized) {
-            return screeningList;
+            future.complete(new ArrayList<>());
+            return future;
         }
 
-        CountDownLatch latch = new CountDownLatch(1);
-
         database.child("screenings").addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot snapshot) {
+                List<Screening> screeningList = new ArrayList<>();
                 for (DataSnapshot screeningSnapshot : snapshot.getChildren()) {
-                    Screening screening = parseScreening(screeningSnapshot, moviesMap);
+                    Screening screening = parseScreening(screeningSnapshot, moviesMap::get);
                     if (screening != null) {
                         screeningList.add(screening);
                     }
                 }
-                latch.countDown();
+                future.complete(screeningList);
             }
 
             @Override
             public void onCancelled(DatabaseError error) {
-                latch.countDown();
+                future.complete(new ArrayList<>());
             }
         });
 
-        try {
-            latch.await(10, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-
-        return screeningList;
+        return future.completeOnTimeout(new ArrayList<>(), 10, TimeUnit.SECONDS);
     }
 
     // ==================== Screening Operations ====================
 
+    @Override
     public CompletableFuture<Void> saveScreening(Screening screening) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-
         if (!initialized) {
-            future.complete(null);
-            return future;
+            return CompletableFuture.completedFuture(null);
         }
 
         Map<String, Object> screeningData = new HashMap<>();
@@ -487,31 +554,34 @@ public class FirebaseService {
         screeningData.put("movieTitle", screening.getMovie().getTitle());
         screeningData.put("date", screening.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
         screeningData.put("time", screening.getTime().format(DateTimeFormatter.ISO_LOCAL_TIME));
+        // A derived end time is left out so it keeps following the movie's duration
+        LocalTime endTime = screening.getExplicitEndTime();
+        screeningData.put("endTime", endTime != null ? endTime.format(DateTimeFormatter.ISO_LOCAL_TIME) : null);
         screeningData.put("hall", screening.getHall());
         screeningData.put("price", screening.getPrice());
         screeningData.put("totalRows", screening.getTotalRows());
         screeningData.put("seatsPerRow", screening.getSeatsPerRow());
 
-        // Save reserved seats
-        List<String> reservedSeats = new ArrayList<>();
-        for (Seat seat : screening.getSeats()) {
-            if (!seat.isAvailable()) {
-                reservedSeats.add(seat.getSeatLabel());
-            }
+        // Reserved seats are left alone: they are only written through seat
+        // claims, so saving a screening never undoes a sale made elsewhere
+        Map<String, Object> fields = new HashMap<>();
+        for (Map.Entry<String, Object> field : screeningData.entrySet()) {
+            fields.put("screenings/" + screening.getId() + "/" + field.getKey(), field.getValue());
         }
-        screeningData.put("reservedSeats", reservedSeats);
+        return writeAll(fields);
+    }
 
-        database.child("screenings").child(screening.getId()).setValue(screeningData, (error, ref) -> {
-            if (error != null) {
-                future.completeExceptionally(new Exception(error.getMessage()));
-            } else {
-                future.complete(null);
-            }
-        });
+    @Override
+    public CompletableFuture<Void> deleteScreening(String screeningId) {
+        if (!initialized) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-        return future;
+        // Reserved seats live under the screening, so they go with it
+        return write("screenings/" + screeningId, null);
     }
 
+    @Override
     public CompletableFuture<List<Screening>> getScreeningsForDate(LocalDate date, Map<String, Movie> moviesMap) {
         CompletableFuture<List<Screening>> future = new CompletableFuture<>();
 
@@ -528,7 +598,7 @@ public class FirebaseService {
                     public void onDataChange(DataSnapshot snapshot) {
                         List<Screening> screenings = new ArrayList<>();
                         for (DataSnapshot screeningSnapshot : snapshot.getChildren()) {
-                            Screening screening = parseScreening(screeningSnapshot, moviesMap);
+                            Screening screening = parseScreening(screeningSnapshot, moviesMap::get);
                             if (screening != null) {
                                 screenings.add(screening);
                             }
@@ -545,9 +615,9 @@ public class FirebaseService {
         return future;
     }
 
-    private Screening parseScreening(DataSnapshot snapshot, Map<String, Movie> moviesMap) {
+    private Screening parseScreening(DataSnapshot snapshot, Function<String, Movie> movieLookup) {
         String movieId = snapshot.child("movieId").getValue(String.class);
-        Movie movie = moviesMap.get(movieId);
+        Movie movie = movieId != null ? movieLookup.apply(movieId) : null;
         
         if (movie == null) {
             return null;
@@ -568,36 +638,249 @@ public class FirebaseService {
                 totalRows != null ? totalRows.intValue() : 6,
                 seatsPerRow != null ? seatsPerRow.intValue() : 10);
         screening.setId(snapshot.child("id").getValue(String.class));
+        String endTimeStr = snapshot.child("endTime").getValue(String.class);
+        if (endTimeStr != null) {
+            screening.setEndTime(LocalTime.parse(endTimeStr, DateTimeFormatter.ISO_LOCAL_TIME));
+        }
 
         // Restore reserved seats
         DataSnapshot reservedSeatsSnapshot = snapshot.child("reservedSeats");
         if (reservedSeatsSnapshot.exists()) {
+            boolean legacyList = false;
             for (DataSnapshot seatSnapshot : reservedSeatsSnapshot.getChildren()) {
-                String seatLabel = seatSnapshot.getValue(String.class);
-                if (seatLabel != null && seatLabel.length() >= 2) {
-                    String row = seatLabel.substring(0, 1);
-                    int seatNum = Integer.parseInt(seatLabel.substring(1));
-                    Seat seat = screening.getSeat(row, seatNum);
-                    if (seat != null) {
-                        seat.reserve();
-                    }
+                legacyList |= isLegacySeatEntry(seatSnapshot);
+                Seat seat = screening.getSeatByCode(readSeatCode(seatSnapshot));
+                if (seat != null) {
+                    seat.reserve();
                 }
             }
+            if (legacyList) {
+                migrateReservedSeats(screening.getId());
+            }
         }
 
         return screening;
     }
 
+    // ==================== Live Replica ====================
+
+    /**
+     * Starts streaming the movies and screenings nodes to the listener. Existing
+     * children are delivered first, then only the children that change.
+     * Calling this again restarts the replica from scratch.
+     *
+     * @param movieLookup resolves a screening's movie id to the replicated movie
+     */
+    @Override
+    public synchronized void startReplica(ReplicaListener listener, Function<String, Movie> movieLookup) {
+        if (!initialized) {
+            return;
+        }
+        stopReplica();
+        this.replicaListener = listener;
+        this.movieLookup = movieLookup;
+        replicaFailed = false;
+
+        connectionWatcher = new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                replicaConnected = Boolean.TRUE.equals(snapshot.getValue(Boolean.class));
+                announceIfLive();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                replicaConnected = false;
+                announceIfLive();
+            }
+        };
+        FirebaseDatabase.getInstance().getReference(".info/connected").addValueEventListener(connectionWatcher);
+
+        movieWatcher = database.child("movies").addChildEventListener(new ReplicaWatcher() {
+            @Override
+            void changed(DataSnapshot snapshot) {
+                Movie movie = parseMovie(snapshot);
+                if (movie.getId() == null) {
+                    return;
+                }
+                listener.onMovieChanged(movie);
+                // Screenings that arrived before their movie can be delivered now
+                List<DataSnapshot> waiting = orphanScreenings.remove(movie.getId());
+                if (waiting != null) {
+                    for (DataSnapshot screeningSnapshot : waiting) {
+                        deliverScreening(screeningSnapshot);
+                    }
+                }
+            }
+
+            @Override
+            void removed(DataSnapshot snapshot) {
+                listener.onMovieRemoved(snapshot.getKey());
+            }
+        });
+        screeningWatcher = database.child("screenings").addChildEventListener(new ReplicaWatcher() {
+            @Override
+            void changed(DataSnapshot snapshot) {
+                deliverScreening(snapshot);
+            }
+
+            @Override
+            void removed(DataSnapshot snapshot) {
+                listener.onScreeningRemoved(snapshot.getKey());
+            }
+        });
+
+        // Value events fire after the child events of the initial load, so these
+        // mark the point where the replica has caught up
+        database.child("movies").addListenerForSingleValueEvent(new LoadMarker(() -> moviesLoaded = true));
+        database.child("screenings").addListenerForSingleValueEvent(new LoadMarker(() -> screeningsLoaded = true));
+    }
+
+    /**
+     * Tells the listener when the replica goes live, once per connection.
+     */
+    private void announceIfLive() {
+        ReplicaListener listener;
+        synchronized (this) {
+            if (!replicaConnected) {
+                liveAnnounced = false;
+                return;
+            }
+            if (liveAnnounced || !isReplicaLive()) {
+                return;
+            }
+            liveAnnounced = true;
+            listener = replicaListener;
+        }
+        listener.onLive();
+    }
+
+    @Override
+    public synchronized void stopReplica() {
+        if (movieWatcher != null) {
+            database.child("movies").removeEventListener(movieWatcher);
+        }
+        if (screeningWatcher != null) {
+            database.child("screenings").removeEventListener(screeningWatcher);
+        }
+        if (connectionWatcher != null) {
+            FirebaseDatabase.getInstance().getReference(".info/connected").removeEventListener(connectionWatcher);
+        }
+        movieWatcher = null;
+        screeningWatcher = null;
+        connectionWatcher = null;
+        replicaListener = null;
+        orphanScreenings.clear();
+        moviesLoaded = false;
+        screeningsLoaded = false;
+        replicaConnected = false;
+        liveAnnounced = false;
+    }
+
+    /**
+     * Returns true while the replica is connected, has finished its initial load
+     * and has not been cancelled by the server.
+     */
+    @Override
+    public boolean isReplicaLive() {
+        return replicaListener != null && replicaConnected && moviesLoaded && screeningsLoaded && !replicaFailed;
+    }
+
+    /**
+     * Returns the time of the last change received by the replica, in epoch
+     * milliseconds, or 0 if nothing has been received yet.
+     */
+    @Override
+    public long getLastReplicaUpdate() {
+        return lastReplicaUpdate;
+    }
+
+    private void deliverScreening(DataSnapshot snapshot) {
+        ReplicaListener listener = replicaListener;
+        if (listener == null) {
+            return;
+        }
+        Screening screening = parseScreening(snapshot, movieLookup);
+        if (screening != null) {
+            listener.onScreeningChanged(screening);
+            return;
+        }
+        String movieId = snapshot.child("movieId").getValue(String.class);
+        if (movieId != null) {
+            orphanScreenings.computeIfAbsent(movieId, id -> new ArrayList<>()).add(snapshot);
+        }
+    }
+
+    /**
+     * Routes added and changed children to one method and records the time of each event.
+     */
+    private abstract class ReplicaWatcher implements ChildEventListener {
+        abstract void changed(DataSnapshot snapshot);
+
+        abstract void removed(DataSnapshot snapshot);
+
+        @Override
+        public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+            lastReplicaUpdate = System.currentTimeMillis();
+            changed(snapshot);
+        }
+
+        @Override
+        public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+            lastReplicaUpdate = System.currentTimeMillis();
+            changed(snapshot);
+        }
+
+        @Override
+        public void onChildRemoved(DataSnapshot snapshot) {
+            lastReplicaUpdate = System.currentTimeMillis();
+            removed(snapshot);
+        }
+
+        @Override
+        public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+            // Order is not used
+        }
+
+        @Override
+        public void onCancelled(DatabaseError error) {
+            System.err.println("Live sync cancelled: " + error.getMessage());
+            replicaFailed = true;
+        }
+    }
+
+    private class LoadMarker implements ValueEventListener {
+        private final Runnable onLoaded;
+
+        LoadMarker(Runnable onLoaded) {
+            this.onLoaded = onLoaded;
+        }
+
+        @Override
+        public void onDataChange(DataSnapshot snapshot) {
+            lastReplicaUpdate = System.currentTimeMillis();
+            onLoaded.run();
+            announceIfLive();
+        }
+
+        @Override
+        public void onCancelled(DatabaseError error) {
+            replicaFailed = true;
+        }
+    }
+
     // ==================== Ticket Operations ====================
 
+    @Override
     public CompletableFuture<Void> saveTicket(Ticket ticket) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-
         if (!initialized) {
-            future.complete(null);
-            return future;
+            return CompletableFuture.completedFuture(null);
         }
 
+        return write("tickets/" + ticket.getId(), ticketData(ticket));
+    }
+
+    private Map<String, Object> ticketData(Ticket ticket) {
         Map<String, Object> ticketData = new HashMap<>();
         ticketData.put("id", ticket.getId());
         ticketData.put("screeningId", ticket.getScreening().getId());
@@ -615,43 +898,194 @@ public class FirebaseService {
             ticketData.put("userId", ticket.getUser().getId());
         }
 
-        // Save seats as list of labels
-        List<String> seatLabels = new ArrayList<>();
-        for (Seat seat : ticket.getSeats()) {
-            seatLabels.add(seat.getSeatLabel());
+        // Save seats as packed seat codes
+        List<Integer> seatCodes = new ArrayList<>();
+        for (int seatCode : ticket.getSeatCodes()) {
+            seatCodes.add(seatCode);
         }
-        ticketData.put("seats", seatLabels);
+        ticketData.put("seats", seatCodes);
+        return ticketData;
+    }
 
-        database.child("tickets").child(ticket.getId()).setValue(ticketData, (error, ref) -> {
-            if (error != null) {
-                future.completeExceptionally(new Exception(error.getMessage()));
-            } else {
-                future.complete(null);
+    /**
+     * Replaces {@code oldTicket} with {@code newTicket} in one atomic multi-path
+     * update that touches only the two ticket nodes and the affected seat paths.
+     * Either ticket may be null. Seats kept by the new ticket stay reserved.
+     */
+    @Override
+    public CompletableFuture<Void> commitTicketChange(Ticket oldTicket, Ticket newTicket) {
+        if (!initialized) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<String, Object> updates = new HashMap<>();
+        if (oldTicket != null) {
+            updates.put("tickets/" + oldTicket.getId(), null);
+            for (int seatCode : oldTicket.getSeatCodes()) {
+                updates.put(seatPath(oldTicket.getScreening(), seatCode), null);
             }
-        });
+        }
+        if (newTicket != null) {
+            updates.put("tickets/" + newTicket.getId(), ticketData(newTicket));
+            // Written after the releases so a seat kept across a change ends up reserved
+            for (int seatCode : newTicket.getSeatCodes()) {
+                updates.put(seatPath(newTicket.getScreening(), seatCode), newTicket.getId());
+            }
+        }
+
+        return writeAll(updates);
+    }
+
+    private static String seatPath(Screening screening, int seatCode) {
+        return "screenings/" + screening.getId() + "/reservedSeats/" + seatCode;
+    }
+
+    // ==================== Seat Claims ====================
+
+    /**
+     * Claims seats with one transaction per seat node, so terminals selling
+     * different seats of the same screening never contend. Seats are claimed in
+     * ascending order and released again on the first conflict. When two
+     * terminals race for overlapping seats, one of them always wins.
+     * Transactions that fail (rather than lose a race) are retried a few times.
+     */
+    @Override
+    public CompletableFuture<List<Integer>> claimSeats(String screeningId, int[] seatCodes,
+                                                       String owner, String previousOwner) {
+        CompletableFuture<List<Integer>> future = new CompletableFuture<>();
+
+        if (!initialized) {
+            future.complete(new ArrayList<>());
+            return future;
+        }
 
+        int[] sorted = seatCodes.clone();
+        Arrays.sort(sorted);
+        if (writeQueue.getDepth() == 0) {
+            claimNext(screeningId, sorted, 0, owner, previousOwner, new ArrayList<>(), 1, future);
+        } else {
+            // Hand queued writes (e.g. a cancellation freeing these seats) to the
+            // client first, so the transactions see them
+            writeQueue.flushNow().thenRun(() ->
+                    claimNext(screeningId, sorted, 0, owner, previousOwner, new ArrayList<>(), 1, future));
+        }
         return future;
     }
 
-    public CompletableFuture<Void> deleteTicket(String ticketId) {
+    private void claimNext(String screeningId, int[] seatCodes, int index, String owner, String previousOwner,
+                           List<Object> priorOwners, int attempt, CompletableFuture<List<Integer>> future) {
+        if (index == seatCodes.length) {
+            future.complete(new ArrayList<>());
+            return;
+        }
+
+        int seatCode = seatCodes[index];
+        Object[] prior = new Object[1];
+        seatRef(screeningId, seatCode).runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData data) {
+                Object current = data.getValue();
+                if (current == null || owner.equals(current) || (previousOwner != null && previousOwner.equals(current))) {
+                    prior[0] = current;
+                    data.setValue(owner);
+                    return Transaction.success(data);
+                }
+                return Transaction.abort();
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    if (attempt < MAX_CLAIM_ATTEMPTS) {
+                        CompletableFuture.delayedExecutor(50L * attempt, TimeUnit.MILLISECONDS).execute(() ->
+                                claimNext(screeningId, seatCodes, index, owner, previousOwner, priorOwners, attempt + 1, future));
+                    } else {
+                        undoClaims(screeningId, seatCodes, owner, priorOwners);
+                        future.completeExceptionally(error.toException());
+                    }
+                } else if (!committed) {
+                    // Owned by another ticket or hold
+                    undoClaims(screeningId, seatCodes, owner, priorOwners);
+                    List<Integer> conflicts = new ArrayList<>();
+                    conflicts.add(seatCode);
+                    future.complete(conflicts);
+                } else {
+                    priorOwners.add(prior[0]);
+                    claimNext(screeningId, seatCodes, index + 1, owner, previousOwner, priorOwners, 1, future);
+                }
+            }
+        });
+    }
+
+    private void undoClaims(String screeningId, int[] seatCodes, String owner, List<Object> priorOwners) {
+        for (int i = 0; i < priorOwners.size(); i++) {
+            Object prior = priorOwners.get(i);
+            if (!owner.equals(prior)) {
+                restoreSeat(screeningId, seatCodes[i], owner, prior, null);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseSeats(String screeningId, int[] seatCodes, String owner) {
         CompletableFuture<Void> future = new CompletableFuture<>();
 
-        if (!initialized) {
+        if (!initialized || seatCodes.length == 0) {
             future.complete(null);
             return future;
         }
 
-        database.child("tickets").child(ticketId).removeValue((error, ref) -> {
-            if (error != null) {
-                future.completeExceptionally(new Exception(error.getMessage()));
-            } else {
-                future.complete(null);
+        AtomicInteger remaining = new AtomicInteger(seatCodes.length);
+        for (int seatCode : seatCodes) {
+            restoreSeat(screeningId, seatCode, owner, null, () -> {
+                if (remaining.decrementAndGet() == 0) {
+                    future.complete(null);
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Sets a seat back to {@code value} (null frees it) if {@code owner} still holds it.
+     */
+    private void restoreSeat(String screeningId, int seatCode, String owner, Object value, Runnable onDone) {
+        seatRef(screeningId, seatCode).runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData data) {
+                if (!owner.equals(data.getValue())) {
+                    return Transaction.abort();
+                }
+                data.setValue(value);
+                return Transaction.success(data);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    System.err.println("Failed to release seat " + SeatCode.format(seatCode) + ": " + error.getMessage());
+                }
+                if (onDone != null) {
+                    onDone.run();
+                }
             }
         });
+    }
 
-        return future;
+    private DatabaseReference seatRef(String screeningId, int seatCode) {
+        return database.child("screenings").child(screeningId).child("reservedSeats").child(String.valueOf(seatCode));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTicket(String ticketId) {
+        if (!initialized) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return write("tickets/" + ticketId, null);
     }
 
+    @Override
     public CompletableFuture<List<Ticket>> getTicketsForScreening(String screeningId) {
         CompletableFuture<List<Ticket>> future = new CompletableFuture<>();
 
@@ -683,6 +1117,7 @@ public class FirebaseService {
         return future;
     }
 
+    @Override
     public CompletableFuture<List<Ticket>> getTicketsForUser(String userId) {
         CompletableFuture<List<Ticket>> future = new CompletableFuture<>();
 
@@ -729,12 +1164,9 @@ public class FirebaseService {
         DataSnapshot seatsSnapshot = snapshot.child("seats");
         if (seatsSnapshot.exists()) {
             for (DataSnapshot seatSnapshot : seatsSnapshot.getChildren()) {
-                String seatLabel = seatSnapshot.getValue(String.class);
-                if (seatLabel != null && seatLabel.length() >= 2) {
-                    String row = seatLabel.substring(0, 1);
-                    int seatNum = Integer.parseInt(seatLabel.substring(1));
-                    Seat seat = new Seat(row, seatNum);
-                    seats.add(seat);
+                int seatCode = readSeatCode(seatSnapshot);
+                if (seatCode != SeatCode.INVALID) {
+                    seats.add(new Seat(seatCode));
                 }
             }
         }
@@ -745,9 +1177,113 @@ public class FirebaseService {
 
     // ==================== Utility Methods ====================
 
-    public void updateScreeningSeats(Screening screening) {
-        if (!initialized) return;
-        saveScreening(screening);
+    /**
+     * Reads a reserved seat stored as a map entry keyed by seat code, or as a
+     * legacy list element holding a seat code or a label like "A7".
+     */
+    private static int readSeatCode(DataSnapshot seatSnapshot) {
+        if (!isLegacySeatEntry(seatSnapshot)) {
+            // Map entry: the key is the seat code, the value its owner (or true)
+            try {
+                return Integer.parseInt(seatSnapshot.getKey());
+            } catch (NumberFormatException e) {
+                return SeatCode.INVALID;
+            }
+        }
+        return legacySeatCode(seatSnapshot.getValue());
+    }
+
+    /**
+     * Returns true for an element of the old list form, which holds a seat code
+     * or a seat label, as opposed to a map entry holding the seat's owner.
+     */
+    private static boolean isLegacySeatEntry(DataSnapshot seatSnapshot) {
+        return legacySeatCode(seatSnapshot.getValue()) != SeatCode.INVALID;
+    }
+
+    /**
+     * Returns the seat code held by an element of the old list form, or
+     * {@link SeatCode#INVALID} if the value is an owner instead.
+     */
+    private static int legacySeatCode(Object value) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        if (value instanceof String label) {
+            return SeatCode.parse(label);
+        }
+        return SeatCode.INVALID;
+    }
+
+    /**
+     * Rewrites the old list elements among a screening's reserved seats into
+     * map entries owned by the tickets holding those seats, so the
+     * owner-checked releases can free them later. Entries that already name
+     * an owner are left alone.
+     * <p>
+     * The old list is keyed by position, and positions share the key space
+     * with seat codes (seat A1 is code 1), so moving one element can land on
+     * another. The rewrite therefore runs as one transaction on the node,
+     * which Firebase runs again if any seat is claimed or released meanwhile.
+     * Legacy seats that no ticket holds are dropped, since nothing could ever
+     * release them.
+     */
+    private void migrateReservedSeats(String screeningId) {
+        if (!migratingScreenings.add(screeningId)) {
+            return;
+        }
+        getTicketsForScreening(screeningId).whenComplete((tickets, error) -> {
+            if (error != null) {
+                // Retried on the next update of the screening
+                migratingScreenings.remove(screeningId);
+                System.err.println("Could not migrate reserved seats of screening " + screeningId + ": "
+                        + error.getMessage());
+                return;
+            }
+            Map<Integer, String> owners = new HashMap<>();
+            for (Ticket ticket : tickets) {
+                for (int seatCode : ticket.getSeatCodes()) {
+                    owners.put(seatCode, ticket.getId());
+                }
+            }
+            database.child("screenings").child(screeningId).child("reservedSeats")
+                    .runTransaction(new Transaction.Handler() {
+                        @Override
+                        public Transaction.Result doTransaction(MutableData data) {
+                            Map<String, Integer> legacy = new HashMap<>();
+                            for (MutableData seat : data.getChildren()) {
+                                int seatCode = legacySeatCode(seat.getValue());
+                                if (seatCode != SeatCode.INVALID) {
+                                    legacy.put(seat.getKey(), seatCode);
+                                }
+                            }
+                            if (legacy.isEmpty()) {
+                                return Transaction.abort();
+                            }
+                            // Clear every old element first, so moves between them cannot collide
+                            for (String key : legacy.keySet()) {
+                                data.child(key).setValue(null);
+                            }
+                            for (int seatCode : legacy.values()) {
+                                MutableData seat = data.child(String.valueOf(seatCode));
+                                String owner = owners.get(seatCode);
+                                if (owner != null && seat.getValue() == null) {
+                                    seat.setValue(owner);
+                                }
+                            }
+                            return Transaction.success(data);
+                        }
+
+                        @Override
+                        public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                            migratingScreenings.remove(screeningId);
+                            if (error != null) {
+                                System.err.println("Could not migrate reserved seats of screening " + screeningId
+                                        + ": " + error.getMessage());
+                            }
+                        }
+                    });
+        });
     }
 
     /**
@@ -0,0 +1,205 @@
+package com.cinema.service;
+
+import com.cinema.model.Screening;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Interval tree of the screenings in one hall. Times are absolute minutes
+ * (epoch day * 1440 + minute of day), so screenings running past midnight
+ * are checked against the next day's schedule too. Each node stores the
+ * largest end time in its subtree, so an overlap query costs O(log n).
+ */
+class HallSchedule {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private Node root;
+
+    static long startMinute(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * MINUTES_PER_DAY + time.toSecondOfDay() / 60;
+    }
+
+    static long endMinute(LocalDate date, LocalTime start, LocalTime end) {
+        long startMinute = startMinute(date, start);
+        long endMinute = startMinute(date, end);
+        // An end time at or before the start means the screening runs past midnight
+        return endMinute > startMinute ? endMinute : endMinute + MINUTES_PER_DAY;
+    }
+
+    /**
+     * Returns a screening that overlaps [start, end) once both are widened by
+     * {@code gapMinutes}, or null if the slot is free.
+     */
+    synchronized Screening findConflict(long start, long end, int gapMinutes) {
+        return findOverlap(root, start - gapMinutes, end + gapMinutes);
+    }
+
+    /**
+     * Adds the screening unless it conflicts with an existing one.
+     *
+     * @return the conflicting screening, or null if the screening was added
+     */
+    synchronized Screening addIfFree(Screening screening, long start, long end, int gapMinutes) {
+        Screening conflict = findOverlap(root, start - gapMinutes, end + gapMinutes);
+        if (conflict == null) {
+            root = insert(root, new Node(screening, start, end));
+        }
+        return conflict;
+    }
+
+    /**
+     * Adds the screening without checking for conflicts (used for data loaded from storage).
+     */
+    synchronized void add(Screening screening, long start, long end) {
+        root = insert(root, new Node(screening, start, end));
+    }
+
+    synchronized void remove(Screening screening, long start) {
+        root = delete(root, start, screening.getId());
+    }
+
+    synchronized boolean isEmpty() {
+        return root == null;
+    }
+
+    // ==================== AVL Tree ====================
+
+    private static final class Node {
+        final Screening screening;
+        final long start;
+        final long end;
+        long maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(Screening screening, long start, long end) {
+            this.screening = screening;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+
+        int compareTo(long otherStart, String otherId) {
+            int byStart = Long.compare(start, otherStart);
+            return byStart != 0 ? byStart : screening.getId().compareTo(otherId);
+        }
+    }
+
+    private static Screening findOverlap(Node node, long start, long end) {
+        while (node != null) {
+            if (node.start < end && start < node.end) {
+                return node.screening;
+            }
+            // If the left subtree reaches past our start, any overlap is guaranteed to be there
+            if (node.left != null && node.left.maxEnd > start) {
+                node = node.left;
+            } else if (node.start < end) {
+                node = node.right;
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (node.compareTo(added.start, added.screening.getId()) > 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private static Node delete(Node node, long start, String id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = node.compareTo(start, id);
+        if (cmp > 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp < 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return rebalance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
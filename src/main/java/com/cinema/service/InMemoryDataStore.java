@@ -0,0 +1,774 @@
+package com.cinema.service;
+
+import com.cinema.model.Movie;
+import com.cinema.model.Screening;
+import com.cinema.model.Seat;
+import com.cinema.model.Ticket;
+import com.cinema.model.User;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link DataStore} that keeps everything in memory, so load tests and
+ * benchmarks can run without a network. Latency, jitter and a failure rate
+ * can be set to see how the application copes with slow or unreliable
+ * storage.
+ * <p>
+ * As with Firebase, all operations run on one event thread, and operations
+ * issued by one client complete in the order they were issued even when
+ * jitter gives them different delays. A failed operation is not applied and
+ * its future completes exceptionally, except for the bulk fetches, which
+ * come back empty the way they do with Firebase.
+ * <p>
+ * Stores created with {@link #connect()} share the same data, so several
+ * terminals can be simulated in one process. Each has its own latency
+ * settings and live replica.
+ */
+public class InMemoryDataStore implements DataStore {
+    private final Backend backend;
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double failureRate;
+    private volatile boolean initialized;
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicInteger forcedWriteFailures = new AtomicInteger();
+    private CompletableFuture<Void> lastOperation = CompletableFuture.completedFuture(null); // guarded by this
+
+    // Live replica state; the listener is only called on the event thread
+    private volatile ReplicaListener replicaListener;
+    private volatile Function<String, Movie> movieLookup;
+    private volatile boolean replicaLive;
+    private volatile long lastReplicaUpdate;
+
+    public InMemoryDataStore() {
+        this(new Backend());
+    }
+
+    private InMemoryDataStore(Backend backend) {
+        this.backend = backend;
+        backend.clients.add(this);
+    }
+
+    /**
+     * Creates a store with the latency, jitter and failure rate given by the
+     * system properties {@code cinema.store.latencyMillis},
+     * {@code cinema.store.jitterMillis} and {@code cinema.store.failureRate}.
+     */
+    public static InMemoryDataStore fromSystemProperties() {
+        InMemoryDataStore store = new InMemoryDataStore();
+        store.setLatency(Long.getLong("cinema.store.latencyMillis", 0), Long.getLong("cinema.store.jitterMillis", 0));
+        store.setFailureRate(Double.parseDouble(System.getProperty("cinema.store.failureRate", "0")));
+        return store;
+    }
+
+    /**
+     * Returns another client of the same data, with no latency or failures
+     * until they are set.
+     */
+    public InMemoryDataStore connect() {
+        return new InMemoryDataStore(backend);
+    }
+
+    /**
+     * Delays each operation by {@code latencyMillis} plus a random extra of up
+     * to {@code jitterMillis}.
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        if (latencyMillis < 0 || jitterMillis < 0) {
+            throw new IllegalArgumentException("Latency and jitter must not be negative");
+        }
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * Makes each operation fail with the given probability, from 0 to 1.
+     */
+    public void setFailureRate(double failureRate) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("Failure rate must be between 0 and 1");
+        }
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * Makes the next {@code count} writes fail, whatever the failure rate.
+     */
+    public void failNextWrites(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative");
+        }
+        forcedWriteFailures.set(count);
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public long getJitterMillis() {
+        return jitterMillis;
+    }
+
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    @Override
+    public void initialize() {
+        backend.clients.addIfAbsent(this);
+        initialized = true;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Stops live sync, leaves the shared data and waits up to five seconds
+     * for issued operations to complete.
+     */
+    @Override
+    public void shutdown() {
+        // Otherwise every client ever connected would keep receiving the changes of the others
+        backend.clients.remove(this);
+        if (!initialized) {
+            return;
+        }
+        stopReplica();
+        CompletableFuture<Void> last;
+        synchronized (this) {
+            last = lastOperation;
+        }
+        try {
+            last.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("Some writes were not confirmed before shutdown.");
+        }
+    }
+
+    @Override
+    public int getPendingWriteCount() {
+        return pendingWrites.get();
+    }
+
+    // ==================== User Operations ====================
+
+    @Override
+    public CompletableFuture<Void> saveUser(User user) {
+        User copy = copyUser(user);
+        return call(true, null, () -> {
+            backend.users.put(copy.getId(), copy);
+            return null;
+        });
+    }
+
+    @Override
+    public void saveUserIfNotExists(User user) {
+        User copy = copyUser(user);
+        call(true, null, () -> {
+            if (findUser(copy.getEmail()) == null) {
+                backend.users.put(copy.getId(), copy);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<User> getUserByEmail(String email) {
+        return call(false, null, () -> {
+            User user = findUser(email);
+            return user != null ? copyUser(user) : null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteUser(String email) {
+        return call(true, null, () -> {
+            backend.users.values().removeIf(user -> email.equals(user.getEmail()));
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<User>> fetchAllUsers() {
+        return call(false, new ArrayList<User>(), () -> {
+            List<User> users = new ArrayList<>();
+            for (User user : backend.users.values()) {
+                users.add(copyUser(user));
+            }
+            return users;
+        }).exceptionally(error -> new ArrayList<>());
+    }
+
+    private User findUser(String email) {
+        for (User user : backend.users.values()) {
+            if (user.getEmail() != null && user.getEmail().equals(email)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    // ==================== Movie Operations ====================
+
+    @Override
+    public CompletableFuture<Void> saveMovie(Movie movie) {
+        Movie copy = copyMovie(movie);
+        List<ScreeningRecord> screenings = screeningRecords(movie);
+        return call(true, null, () -> {
+            storeMovie(copy, screenings);
+            return null;
+        });
+    }
+
+    @Override
+    public void saveMovieIfNotExists(Movie movie) {
+        Movie copy = copyMovie(movie);
+        List<ScreeningRecord> screenings = screeningRecords(movie);
+        call(true, null, () -> {
+            for (Movie existing : backend.movies.values()) {
+                if (existing.getTitle() != null && existing.getTitle().equals(copy.getTitle())) {
+                    return null;
+                }
+            }
+            storeMovie(copy, screenings);
+            return null;
+        });
+    }
+
+    private void storeMovie(Movie movie, List<ScreeningRecord> screenings) {
+        backend.movies.put(movie.getId(), movie);
+        backend.publishMovie(movie);
+        for (ScreeningRecord screening : screenings) {
+            backend.screenings.put(screening.id, screening);
+            backend.publishScreening(screening.id);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteMovie(String movieId) {
+        return call(true, null, () -> {
+            if (backend.movies.remove(movieId) != null) {
+                backend.publishMovieRemoved(movieId);
+            }
+            List<String> removed = new ArrayList<>();
+            for (ScreeningRecord screening : backend.screenings.values()) {
+                if (movieId.equals(screening.movieId)) {
+                    removed.add(screening.id);
+                }
+            }
+            for (String screeningId : removed) {
+                backend.screenings.remove(screeningId);
+                backend.reservedSeats.remove(screeningId);
+                backend.publishScreeningRemoved(screeningId);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Movie>> fetchAllMovies() {
+        return call(false, new ArrayList<Movie>(), () -> {
+            List<Movie> movies = new ArrayList<>();
+            for (Movie movie : backend.movies.values()) {
+                movies.add(copyMovie(movie));
+            }
+            return movies;
+        }).exceptionally(error -> new ArrayList<>());
+    }
+
+    @Override
+    public CompletableFuture<List<Screening>> fetchAllScreenings(Map<String, Movie> moviesMap) {
+        return call(false, new ArrayList<Screening>(), () -> backend.screenings(null, moviesMap::get))
+                .exceptionally(error -> new ArrayList<>());
+    }
+
+    // ==================== Screening Operations ====================
+
+    @Override
+    public CompletableFuture<Void> saveScreening(Screening screening) {
+        ScreeningRecord record = ScreeningRecord.of(screening);
+        return call(true, null, () -> {
+            backend.screenings.put(record.id, record);
+            backend.publishScreening(record.id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteScreening(String screeningId) {
+        return call(true, null, () -> {
+            if (backend.screenings.remove(screeningId) != null) {
+                backend.reservedSeats.remove(screeningId);
+                backend.publishScreeningRemoved(screeningId);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Screening>> getScreeningsForDate(LocalDate date, Map<String, Movie> moviesMap) {
+        return call(false, new ArrayList<>(), () -> backend.screenings(date, moviesMap::get));
+    }
+
+    // ==================== Ticket Operations ====================
+
+    @Override
+    public CompletableFuture<Void> saveTicket(Ticket ticket) {
+        TicketRecord record = TicketRecord.of(ticket);
+        return call(true, null, () -> {
+            backend.tickets.put(record.id, record);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTicket(String ticketId) {
+        return call(true, null, () -> {
+            backend.tickets.remove(ticketId);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> commitTicketChange(Ticket oldTicket, Ticket newTicket) {
+        TicketRecord before = oldTicket != null ? TicketRecord.of(oldTicket) : null;
+        TicketRecord after = newTicket != null ? TicketRecord.of(newTicket) : null;
+        return call(true, null, () -> {
+            Set<String> changedScreenings = new LinkedHashSet<>();
+            if (before != null) {
+                backend.tickets.remove(before.id);
+                Map<Integer, String> seats = backend.seatsOf(before.screeningId);
+                for (int seatCode : before.seatCodes) {
+                    seats.remove(seatCode);
+                }
+                changedScreenings.add(before.screeningId);
+            }
+            if (after != null) {
+                backend.tickets.put(after.id, after);
+                Map<Integer, String> seats = backend.seatsOf(after.screeningId);
+                for (int seatCode : after.seatCodes) {
+                    seats.put(seatCode, after.id);
+                }
+                changedScreenings.add(after.screeningId);
+            }
+            for (String screeningId : changedScreenings) {
+                backend.publishScreening(screeningId);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Ticket>> getTicketsForScreening(String screeningId) {
+        return call(false, new ArrayList<>(), () -> {
+            List<Ticket> tickets = new ArrayList<>();
+            for (TicketRecord ticket : backend.tickets.values()) {
+                if (screeningId.equals(ticket.screeningId)) {
+                    tickets.add(ticket.toTicket());
+                }
+            }
+            return tickets;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Ticket>> getTicketsForUser(String userId) {
+        return call(false, new ArrayList<>(), () -> {
+            List<Ticket> tickets = new ArrayList<>();
+            for (TicketRecord ticket : backend.tickets.values()) {
+                if (userId.equals(ticket.userId)) {
+                    tickets.add(ticket.toTicket());
+                }
+            }
+            return tickets;
+        });
+    }
+
+    // ==================== Seat Claims ====================
+
+    @Override
+    public CompletableFuture<List<Integer>> claimSeats(String screeningId, int[] seatCodes,
+                                                       String owner, String previousOwner) {
+        int[] sorted = seatCodes.clone();
+        Arrays.sort(sorted);
+        return call(false, new ArrayList<>(), () -> {
+            Map<Integer, String> seats = backend.seatsOf(screeningId);
+            for (int seatCode : sorted) {
+                String current = seats.get(seatCode);
+                if (current != null && !current.equals(owner) && !current.equals(previousOwner)) {
+                    List<Integer> conflicts = new ArrayList<>();
+                    conflicts.add(seatCode);
+                    return conflicts;
+                }
+            }
+            for (int seatCode : sorted) {
+                seats.put(seatCode, owner);
+            }
+            backend.publishScreening(screeningId);
+            return new ArrayList<>();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseSeats(String screeningId, int[] seatCodes, String owner) {
+        return call(false, null, () -> {
+            Map<Integer, String> seats = backend.seatsOf(screeningId);
+            for (int seatCode : seatCodes) {
+                seats.remove(seatCode, owner);
+            }
+            backend.publishScreening(screeningId);
+            return null;
+        });
+    }
+
+    // ==================== Live Replica ====================
+
+    /**
+     * Delivers every movie and screening to the listener, then reports the
+     * replica as live. Later changes by any client are delivered as they are
+     * applied.
+     */
+    @Override
+    public void startReplica(ReplicaListener listener, Function<String, Movie> movieLookup) {
+        if (!initialized) {
+            return;
+        }
+        stopReplica();
+        call(false, null, () -> {
+            this.movieLookup = movieLookup;
+            this.replicaListener = listener;
+            for (Movie movie : backend.movies.values()) {
+                deliverMovie(movie);
+            }
+            for (String screeningId : backend.screenings.keySet()) {
+                deliverScreening(screeningId);
+            }
+            replicaLive = true;
+            lastReplicaUpdate = System.currentTimeMillis();
+            listener.onLive();
+            return null;
+        });
+    }
+
+    @Override
+    public void stopReplica() {
+        replicaListener = null;
+        replicaLive = false;
+    }
+
+    @Override
+    public boolean isReplicaLive() {
+        return replicaListener != null && replicaLive;
+    }
+
+    @Override
+    public long getLastReplicaUpdate() {
+        return lastReplicaUpdate;
+    }
+
+    private void deliverMovie(Movie movie) {
+        ReplicaListener listener = replicaListener;
+        if (listener != null) {
+            lastReplicaUpdate = System.currentTimeMillis();
+            listener.onMovieChanged(copyMovie(movie));
+        }
+    }
+
+    private void deliverScreening(String screeningId) {
+        ReplicaListener listener = replicaListener;
+        ScreeningRecord record = backend.screenings.get(screeningId);
+        if (listener != null && record != null) {
+            Screening screening = record.toScreening(movieLookup, backend.reservedSeats.get(screeningId));
+            if (screening != null) {
+                lastReplicaUpdate = System.currentTimeMillis();
+                listener.onScreeningChanged(screening);
+            }
+        }
+    }
+
+    private void deliverMovieRemoved(String movieId) {
+        ReplicaListener listener = replicaListener;
+        if (listener != null) {
+            lastReplicaUpdate = System.currentTimeMillis();
+            listener.onMovieRemoved(movieId);
+        }
+    }
+
+    private void deliverScreeningRemoved(String screeningId) {
+        ReplicaListener listener = replicaListener;
+        if (listener != null) {
+            lastReplicaUpdate = System.currentTimeMillis();
+            listener.onScreeningRemoved(screeningId);
+        }
+    }
+
+    // ==================== Fault Injection ====================
+
+    /**
+     * Runs an operation on the event thread after the configured delay, but
+     * never before the operation this client issued before it.
+     *
+     * @param whenOffline the result while the store is not initialized
+     */
+    private <T> CompletableFuture<T> call(boolean write, T whenOffline, Supplier<T> operation) {
+        if (!initialized) {
+            return CompletableFuture.completedFuture(whenOffline);
+        }
+        long jitter = jitterMillis;
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis
+                + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0));
+        boolean failed = (write && forcedWriteFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0)
+                || (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate);
+        long due = System.nanoTime() + delayNanos;
+        if (write) {
+            pendingWrites.incrementAndGet();
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                if (failed) {
+                    result.completeExceptionally(new IOException("Injected data store failure"));
+                } else {
+                    result.complete(operation.get());
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                if (write) {
+                    pendingWrites.decrementAndGet();
+                }
+                done.complete(null);
+            }
+        };
+        synchronized (this) {
+            lastOperation.whenComplete((v, error) ->
+                    backend.eventThread.schedule(task, Math.max(0, due - System.nanoTime()), TimeUnit.NANOSECONDS));
+            lastOperation = done;
+        }
+        return result;
+    }
+
+    // ==================== Records ====================
+
+    private static User copyUser(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setPhoneNumber(user.getPhoneNumber());
+        copy.setPassword(user.getPassword());
+        copy.setRole(user.getRole());
+        return copy;
+    }
+
+    /**
+     * Copies a movie without its screenings, which are stored separately.
+     */
+    private static Movie copyMovie(Movie movie) {
+        Movie copy = new Movie();
+        copy.setId(movie.getId());
+        copy.setTitle(movie.getTitle());
+        copy.setDescription(movie.getDescription());
+        copy.setGenre(movie.getGenre());
+        copy.setDurationMinutes(movie.getDurationMinutes());
+        copy.setPosterPath(movie.getPosterPath());
+        copy.setRating(movie.getRating());
+        return copy;
+    }
+
+    private static List<ScreeningRecord> screeningRecords(Movie movie) {
+        List<ScreeningRecord> records = new ArrayList<>();
+        for (Screening screening : movie.getScreenings()) {
+            records.add(ScreeningRecord.of(screening));
+        }
+        return records;
+    }
+
+    /**
+     * The stored fields of a screening. Reserved seats are kept apart, so
+     * saving a screening never undoes a sale.
+     */
+    private static final class ScreeningRecord {
+        final String id;
+        final String movieId;
+        final LocalDate date;
+        final LocalTime time;
+        final LocalTime endTime;    // null when derived from the movie's duration
+        final String hall;
+        final double price;
+        final int totalRows;
+        final int seatsPerRow;
+
+        private ScreeningRecord(Screening screening) {
+            this.id = screening.getId();
+            this.movieId = screening.getMovie().getId();
+            this.date = screening.getDate();
+            this.time = screening.getTime();
+            this.endTime = screening.getExplicitEndTime();
+            this.hall = screening.getHall();
+            this.price = screening.getPrice();
+            this.totalRows = screening.getTotalRows();
+            this.seatsPerRow = screening.getSeatsPerRow();
+        }
+
+        static ScreeningRecord of(Screening screening) {
+            return new ScreeningRecord(screening);
+        }
+
+        /**
+         * @return the screening, or null if its movie cannot be resolved
+         */
+        Screening toScreening(Function<String, Movie> movieLookup, Map<Integer, String> reservedSeats) {
+            Movie movie = movieLookup != null ? movieLookup.apply(movieId) : null;
+            if (movie == null) {
+                return null;
+            }
+            Screening screening = new Screening(movie, date, time, hall, price, totalRows, seatsPerRow);
+            screening.setId(id);
+            screening.setEndTime(endTime);
+            if (reservedSeats != null) {
+                for (int seatCode : reservedSeats.keySet()) {
+                    Seat seat = screening.getSeatByCode(seatCode);
+                    if (seat != null) {
+                        seat.reserve();
+                    }
+                }
+            }
+            return screening;
+        }
+    }
+
+    private static final class TicketRecord {
+        final String id;
+        final String screeningId;
+        final String userId;
+        final String firstName;
+        final String lastName;
+        final double totalPrice;
+        final boolean used;
+        final LocalDateTime purchaseTime;
+        final int[] seatCodes;
+
+        private TicketRecord(Ticket ticket) {
+            this.id = ticket.getId();
+            this.screeningId = ticket.getScreening().getId();
+            this.userId = ticket.getUser() != null ? ticket.getUser().getId() : null;
+            this.firstName = ticket.getCustomerFirstName();
+            this.lastName = ticket.getCustomerLastName();
+            this.totalPrice = ticket.getTotalPrice();
+            this.used = ticket.isUsed();
+            this.purchaseTime = ticket.getPurchaseTime();
+            this.seatCodes = ticket.getSeatCodes();
+        }
+
+        static TicketRecord of(Ticket ticket) {
+            return new TicketRecord(ticket);
+        }
+
+        /**
+         * Rebuilds the ticket without its screening, like a ticket read from Firebase.
+         */
+        Ticket toTicket() {
+            Ticket ticket = new Ticket();
+            ticket.setId(id);
+            ticket.setCustomerFirstName(firstName);
+            ticket.setCustomerLastName(lastName);
+            List<Seat> seats = new ArrayList<>(seatCodes.length);
+            for (int seatCode : seatCodes) {
+                seats.add(new Seat(seatCode));
+            }
+            ticket.setSeats(seats);
+            ticket.setTotalPrice(totalPrice);
+            ticket.setUsed(used);
+            ticket.setPurchaseTime(purchaseTime);
+            return ticket;
+        }
+    }
+
+    /**
+     * The data shared by all clients. Only touched on the event thread.
+     */
+    private static final class Backend {
+        final ScheduledExecutorService eventThread = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "in-memory-datastore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final CopyOnWriteArrayList<InMemoryDataStore> clients = new CopyOnWriteArrayList<>();
+        final Map<String, User> users = new LinkedHashMap<>();
+        final Map<String, Movie> movies = new LinkedHashMap<>();
+        final Map<String, ScreeningRecord> screenings = new LinkedHashMap<>();
+        final Map<String, Map<Integer, String>> reservedSeats = new HashMap<>();
+        final Map<String, TicketRecord> tickets = new LinkedHashMap<>();
+
+        Map<Integer, String> seatsOf(String screeningId) {
+            return reservedSeats.computeIfAbsent(screeningId, id -> new HashMap<>());
+        }
+
+        /**
+         * Returns the screenings on a date, or all of them if the date is null,
+         * that belong to a movie known to the lookup.
+         */
+        List<Screening> screenings(LocalDate date, Function<String, Movie> movieLookup) {
+            List<Screening> result = new ArrayList<>();
+            for (ScreeningRecord record : screenings.values()) {
+                if (date == null || date.equals(record.date)) {
+                    Screening screening = record.toScreening(movieLookup, reservedSeats.get(record.id));
+                    if (screening != null) {
+                        result.add(screening);
+                    }
+                }
+            }
+            return result;
+        }
+
+        void publishMovie(Movie movie) {
+            for (InMemoryDataStore client : clients) {
+                client.deliverMovie(movie);
+            }
+        }
+
+        void publishScreening(String screeningId) {
+            for (InMemoryDataStore client : clients) {
+                client.deliverScreening(screeningId);
+            }
+        }
+
+        void publishMovieRemoved(String movieId) {
+            for (InMemoryDataStore client : clients) {
+                client.deliverMovieRemoved(movieId);
+            }
+        }
+
+        void publishScreeningRemoved(String screeningId) {
+            for (InMemoryDataStore client : clients) {
+                client.deliverScreeningRemoved(screeningId);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.cinema.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process {@link SeatClaimStore} with the same all-or-nothing semantics as
+ * the Firebase one. Used in offline mode, and lets several CinemaService
+ * instances share seats without a database.
+ */
+public class InMemorySeatClaimStore implements SeatClaimStore {
+    private final Map<String, Map<Integer, String>> claims = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<List<Integer>> claimSeats(String screeningId, int[] seatCodes,
+                                                       String owner, String previousOwner) {
+        Map<Integer, String> seats = claims.computeIfAbsent(screeningId, id -> new ConcurrentHashMap<>());
+        int[] sorted = seatCodes.clone();
+        Arrays.sort(sorted);
+
+        // Claim in ascending order, like the Firebase store, and undo on the first conflict
+        List<Integer> claimed = new ArrayList<>();
+        List<String> priorOwners = new ArrayList<>();
+        for (int seatCode : sorted) {
+            String current = seats.putIfAbsent(seatCode, owner);
+            if (current == null) {
+                claimed.add(seatCode);
+                priorOwners.add(null);
+            } else if (current.equals(previousOwner) && seats.replace(seatCode, previousOwner, owner)) {
+                claimed.add(seatCode);
+                priorOwners.add(previousOwner);
+            } else if (!current.equals(owner)) {
+                for (int i = 0; i < claimed.size(); i++) {
+                    if (priorOwners.get(i) == null) {
+                        seats.remove(claimed.get(i), owner);
+                    } else {
+                        seats.replace(claimed.get(i), owner, priorOwners.get(i));
+                    }
+                }
+                return CompletableFuture.completedFuture(List.of(seatCode));
+            }
+        }
+        return CompletableFuture.completedFuture(List.of());
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseSeats(String screeningId, int[] seatCodes, String owner) {
+        Map<Integer, String> seats = claims.get(screeningId);
+        if (seats != null) {
+            for (int seatCode : seatCodes) {
+                seats.remove(seatCode, owner);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.cinema.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shared record of which ticket or hold owns each seat, so that several
+ * box-office terminals cannot sell the same seat.
+ */
+public interface SeatClaimStore {
+
+    /**
+     * Claims all of the seats for {@code owner}, or none of them. Seats already
+     * claimed by {@code owner} or by {@code previousOwner} count as free, which
+     * lets a hold or an old ticket hand its seats over.
+     *
+     * @param previousOwner owner whose seats may be taken over, or null
+     * @return the codes of the seats owned by someone else; empty if every seat was claimed
+     */
+    CompletableFuture<List<Integer>> claimSeats(String screeningId, int[] seatCodes, String owner, String previousOwner);
+
+    /**
+     * Releases those of the seats that are still claimed by {@code owner}.
+     */
+    CompletableFuture<Void> releaseSeats(String screeningId, int[] seatCodes, String owner);
+}
@@ -0,0 +1,290 @@
+package com.cinema.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Buffers database writes by path and sends them as multi-path batches from a
+ * background thread. A path written several times before the next flush is
+ * sent once with its latest value. Paths enqueued together always land in the
+ * same batch, and batches are sent in the order they were sealed.
+ * <p>
+ * Writes are never dropped and enqueueing never blocks, since writers include
+ * the FX thread and database callback threads. Backpressure is a future
+ * instead: once {@code maxDepth} paths are outstanding (queued, or sent but not
+ * yet acknowledged) the queue is flushed at once, and {@link #whenBelowCapacity()}
+ * stays incomplete until acknowledgements bring the depth back below the limit.
+ * Producers that can wait, such as bulk uploads, compose on it before writing.
+ */
+class WriteBehindQueue {
+    private final BiConsumer<Map<String, Object>, CompletableFuture<Void>> sender;
+    private final int maxDepth;
+    private final ScheduledExecutorService flusher;
+
+    // Guarded by this
+    private NavigableMap<String, PendingWrite> pending = new TreeMap<>();
+    private final Deque<NavigableMap<String, PendingWrite>> sealed = new ArrayDeque<>();
+    private int depth;          // queued plus sent but not yet acknowledged
+    private boolean overCapacity;
+    private CompletableFuture<Void> capacity = CompletableFuture.completedFuture(null);
+    private boolean shutdown;
+    private CompletableFuture<?> finalFlush; // set once shut down
+
+    private final AtomicLong coalescedWrites = new AtomicLong();
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private volatile long lastFlushLatencyMillis;
+    private final AtomicLong maxFlushLatencyMillis = new AtomicLong();
+
+    /**
+     * @param sender              sends one batch of path/value pairs and completes the future when acknowledged
+     * @param flushIntervalMillis time between flushes
+     * @param maxDepth            number of outstanding paths at which the queue is flushed early and
+     *                            {@link #whenBelowCapacity()} starts holding producers back
+     */
+    WriteBehindQueue(BiConsumer<Map<String, Object>, CompletableFuture<Void>> sender,
+                     long flushIntervalMillis, int maxDepth) {
+        this.sender = sender;
+        this.maxDepth = maxDepth;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "firebase-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    CompletableFuture<Void> enqueue(String path, Object value) {
+        Map<String, Object> writes = new HashMap<>();
+        writes.put(path, value);
+        return enqueueAll(writes);
+    }
+
+    /**
+     * Queues several paths to be written atomically. A null value deletes the path.
+     *
+     * @return a future completed once every path has been acknowledged by the
+     *         database, or failed at once if the queue is shut down
+     */
+    CompletableFuture<Void> enqueueAll(Map<String, Object> writes) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        boolean flushEarly = false;
+        synchronized (this) {
+            if (shutdown) {
+                future.completeExceptionally(new IllegalStateException("Write queue is shut down"));
+                return future;
+            }
+
+            // The database rejects a batch that writes both a path and its parent,
+            // so start a new batch when a queued path would nest with one of ours
+            for (String path : writes.keySet()) {
+                if (nestsWithPending(path)) {
+                    seal();
+                    break;
+                }
+            }
+            for (Map.Entry<String, Object> write : writes.entrySet()) {
+                PendingWrite existing = pending.get(write.getKey());
+                if (existing != null) {
+                    existing.value = write.getValue();
+                    existing.waiters.add(future);
+                    coalescedWrites.incrementAndGet();
+                } else {
+                    PendingWrite added = new PendingWrite(write.getValue());
+                    added.waiters.add(future);
+                    pending.put(write.getKey(), added);
+                    depth++;
+                }
+            }
+            if (depth >= maxDepth && !overCapacity) {
+                overCapacity = true;
+                capacity = new CompletableFuture<>();
+                flushEarly = true;
+                System.err.println("Write queue is full (" + depth + " paths); flushing early");
+            }
+        }
+        if (flushEarly) {
+            flushNow();
+        }
+        return future;
+    }
+
+    /**
+     * Sends everything queued so far without waiting for the next tick.
+     *
+     * @return a future completed once those writes have been handed to the
+     *         database client, so later operations are ordered after them
+     */
+    CompletableFuture<Void> flushNow() {
+        CompletableFuture<Void> handedOver = new CompletableFuture<>();
+        try {
+            flusher.execute(() -> {
+                flush();
+                handedOver.complete(null);
+            });
+        } catch (RejectedExecutionException e) {
+            // Shut down: the final flush takes everything that was queued
+            synchronized (this) {
+                return finalFlush.thenApply(ack -> null);
+            }
+        }
+        return handedOver;
+    }
+
+    /**
+     * Stops accepting writes and sends the remaining batches in order.
+     *
+     * @return true if every batch was acknowledged within the timeout
+     */
+    boolean shutdown(long timeout, TimeUnit unit) {
+        synchronized (this) {
+            if (shutdown) {
+                return true;
+            }
+            shutdown = true;
+        }
+        // Producers waiting for room go on and find the queue shut down
+        whenBelowCapacity().complete(null);
+        CompletableFuture<CompletableFuture<Void>> acknowledged = new CompletableFuture<>();
+        synchronized (this) {
+            finalFlush = acknowledged;
+        }
+        flusher.execute(() -> acknowledged.complete(flush()));
+        flusher.shutdown();
+        try {
+            acknowledged.thenCompose(ack -> ack).get(timeout, unit);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    int getDepth() {
+        synchronized (this) {
+            return depth;
+        }
+    }
+
+    long getLastFlushLatencyMillis() {
+        return lastFlushLatencyMillis;
+    }
+
+    long getMaxFlushLatencyMillis() {
+        return maxFlushLatencyMillis.get();
+    }
+
+    long getCoalescedWrites() {
+        return coalescedWrites.get();
+    }
+
+    long getFlushedBatches() {
+        return flushedBatches.get();
+    }
+
+    /**
+     * Returns a future completed once fewer than {@code maxDepth} paths are
+     * outstanding; already completed while the queue is below the limit.
+     */
+    synchronized CompletableFuture<Void> whenBelowCapacity() {
+        return capacity;
+    }
+
+    private CompletableFuture<Void> flush() {
+        List<NavigableMap<String, PendingWrite>> batches;
+        synchronized (this) {
+            seal();
+            if (sealed.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            batches = new ArrayList<>(sealed);
+            sealed.clear();
+        }
+
+        List<CompletableFuture<Void>> sent = new ArrayList<>(batches.size());
+        for (NavigableMap<String, PendingWrite> batch : batches) {
+            sent.add(send(batch));
+        }
+        return CompletableFuture.allOf(sent.toArray(CompletableFuture<?>[]::new));
+    }
+
+    private CompletableFuture<Void> send(NavigableMap<String, PendingWrite> batch) {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, PendingWrite> entry : batch.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().value);
+        }
+
+        long started = System.nanoTime();
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        sender.accept(values, ack);
+        return ack.whenComplete((v, error) -> {
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            lastFlushLatencyMillis = latency;
+            maxFlushLatencyMillis.accumulateAndGet(latency, Math::max);
+            flushedBatches.incrementAndGet();
+            CompletableFuture<Void> freed = null;
+            synchronized (WriteBehindQueue.this) {
+                depth -= batch.size();
+                if (depth < maxDepth && overCapacity) {
+                    overCapacity = false;
+                    freed = capacity;
+                }
+            }
+            if (freed != null) {
+                freed.complete(null);
+            }
+            for (PendingWrite write : batch.values()) {
+                for (CompletableFuture<Void> waiter : write.waiters) {
+                    if (error != null) {
+                        waiter.completeExceptionally(error);
+                    } else {
+                        waiter.complete(null);
+                    }
+                }
+            }
+        });
+    }
+
+    private void seal() {
+        if (!pending.isEmpty()) {
+            sealed.add(pending);
+            pending = new TreeMap<>();
+        }
+    }
+
+    /**
+     * Returns true if a different queued path is an ancestor or descendant of {@code path}.
+     */
+    private boolean nestsWithPending(String path) {
+        int slash = path.indexOf('/');
+        while (slash > 0) {
+            if (pending.containsKey(path.substring(0, slash))) {
+                return true;
+            }
+            slash = path.indexOf('/', slash + 1);
+        }
+        String descendants = path + "/";
+        String next = pending.ceilingKey(descendants);
+        return next != null && next.startsWith(descendants);
+    }
+
+    private static final class PendingWrite {
+        Object value;
+        final List<CompletableFuture<Void>> waiters = new ArrayList<>(1);
+
+        PendingWrite(Object value) {
+            this.value = value;
+        }
+    }
+}
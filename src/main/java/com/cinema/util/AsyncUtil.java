@@ -0,0 +1,29 @@
+package com.cinema.util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Utility class for handing results of background work back to the JavaFX thread.
+ */
+public class AsyncUtil {
+
+    /**
+     * Runs {@code onSuccess} with the result, or {@code onError} with the
+     * failure, on the JavaFX application thread once the future completes.
+     */
+    public static <T> void onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess,
+                                      Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onError.accept(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        }));
+    }
+}
@@ -0,0 +1,119 @@
+package com.cinema.util;
+
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a background search for the latest request only. Requests that come
+ * in quick succession, such as a user stepping through dates, are merged
+ * into one search after a short pause, and a result that arrives after a
+ * newer request was made is dropped instead of being shown. All methods and
+ * callbacks run on the JavaFX thread.
+ *
+ * @param <K> what is searched for, e.g. a date
+ * @param <R> the search result
+ */
+public class DebouncedSearch<K, R> {
+    private final Function<K, CompletableFuture<R>> search;
+    private final BiConsumer<K, R> onResult;
+    private final BiConsumer<K, Throwable> onError;
+    private final PauseTransition pause;
+    private Consumer<Boolean> onLoadingChanged = loading -> { };
+
+    private K pendingKey;
+    private CompletableFuture<R> running;
+    private long generation;
+
+    /**
+     * @param delay    how long requests must stop before the search starts
+     * @param search   starts the search in the background
+     * @param onResult shows the result of the latest request
+     * @param onError  handles a failure of the latest request
+     */
+    public DebouncedSearch(Duration delay, Function<K, CompletableFuture<R>> search,
+                           BiConsumer<K, R> onResult, BiConsumer<K, Throwable> onError) {
+        this.search = search;
+        this.onResult = onResult;
+        this.onError = onError;
+        this.pause = new PauseTransition(delay);
+        pause.setOnFinished(e -> requestNow(pendingKey));
+    }
+
+    /**
+     * Called with true when a search starts and with false once the latest
+     * one has finished or been cancelled.
+     */
+    public void setOnLoadingChanged(Consumer<Boolean> onLoadingChanged) {
+        this.onLoadingChanged = onLoadingChanged;
+    }
+
+    /**
+     * Searches for {@code key} once no further request has come in for the
+     * delay. Any search still running is abandoned right away.
+     */
+    public void request(K key) {
+        pendingKey = key;
+        abandonRunning();
+        onLoadingChanged.accept(true);
+        pause.playFromStart();
+    }
+
+    /**
+     * Searches for {@code key} immediately, e.g. for an explicit search
+     * button, replacing any pending or running request.
+     */
+    public void requestNow(K key) {
+        pause.stop();
+        pendingKey = null;
+        abandonRunning();
+        long current = ++generation;
+        onLoadingChanged.accept(true);
+
+        CompletableFuture<R> future = search.apply(key);
+        running = future;
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (current != generation) {
+                return; // a newer request has taken over
+            }
+            running = null;
+            onLoadingChanged.accept(false);
+            if (error == null) {
+                onResult.accept(key, result);
+            } else {
+                onError.accept(key, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        }));
+    }
+
+    /**
+     * Drops any pending or running request without showing its result.
+     */
+    public void cancel() {
+        pause.stop();
+        pendingKey = null;
+        abandonRunning();
+        onLoadingChanged.accept(false);
+    }
+
+    public boolean isLoading() {
+        return running != null || pause.getStatus() == Animation.Status.RUNNING;
+    }
+
+    private void abandonRunning() {
+        generation++;
+        if (running != null) {
+            // Only this caller's stage is cancelled; work shared with other callers goes on
+            running.cancel(false);
+            running = null;
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package com.cinema.util;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Shared cache of movie posters. Decoded images are kept in memory in
+ * least-recently-used order up to a fixed number of bytes; the downloaded
+ * files are kept on disk under a hash of their URL, so a poster is
+ * downloaded once and decoded again only after it has been evicted.
+ * Downloading and decoding happen on a small background pool, and
+ * concurrent requests for the same poster share one load.
+ */
+public class PosterCache {
+    /** Size of the thumbnails shown on movie cards. */
+    public static final double THUMBNAIL_WIDTH = 180;
+    public static final double THUMBNAIL_HEIGHT = 250;
+
+    private static final long MEMORY_BUDGET_BYTES = 64L * 1024 * 1024;
+    private static final long DISK_BUDGET_BYTES = 200L * 1024 * 1024;
+    private static final int MAX_DOWNLOAD_BYTES = 10 * 1024 * 1024;
+    private static final int TIMEOUT_MILLIS = 10_000;
+    private static final int LOADER_THREADS = 4;
+    private static final String REQUEST_KEY = "posterCache.request";
+
+    private static PosterCache instance;
+
+    private final Path directory;
+    private final ExecutorService loader;
+    private final Map<String, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final LinkedHashMap<String, Image> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong downloads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong prefetches = new AtomicLong();
+
+    private PosterCache(Path directory) {
+        this.directory = directory;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.loader = Executors.newFixedThreadPool(LOADER_THREADS, r -> {
+            Thread thread = new Thread(r, "poster-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.execute(this::trimDisk);
+    }
+
+    public static synchronized PosterCache getInstance() {
+        if (instance == null) {
+            instance = new PosterCache(Paths.get(System.getProperty("user.home"), ".cinema", "posters"));
+        }
+        return instance;
+    }
+
+    /**
+     * Loads a poster scaled to fit {@code width} x {@code height}.
+     *
+     * @return a future completed with the image, or with null if it cannot be loaded
+     */
+    public CompletableFuture<Image> load(String url, double width, double height) {
+        if (url == null || url.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Image cached = lookup(url, width, height);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return fetchAsync(url, width, height);
+    }
+
+    /**
+     * Shows a poster in the view. A cached poster is set at once; otherwise
+     * the view is cleared and the poster is set on the JavaFX thread when it
+     * arrives, unless the view has been given another poster in the meantime.
+     *
+     * @param onLoaded run after the poster is set, e.g. to hide a placeholder; may be null
+     */
+    public void loadInto(ImageView view, String url, double width, double height, Runnable onLoaded) {
+        String key = key(url, width, height);
+        view.getProperties().put(REQUEST_KEY, key);
+        Image cached = url != null && !url.isBlank() ? lookup(url, width, height) : null;
+        if (cached != null) {
+            view.setImage(cached);
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+            return;
+        }
+        view.setImage(null);
+        if (url == null || url.isBlank()) {
+            return;
+        }
+        AsyncUtil.onFxThread(fetchAsync(url, width, height), image -> {
+            if (image != null && key.equals(view.getProperties().get(REQUEST_KEY))) {
+                view.setImage(image);
+                if (onLoaded != null) {
+                    onLoaded.run();
+                }
+            }
+        }, error -> {
+            // Keep the placeholder
+        });
+    }
+
+    /**
+     * Starts loading posters that are not in memory yet, so they show
+     * instantly when they are needed.
+     */
+    public void prefetch(Collection<String> urls, double width, double height) {
+        for (String url : urls) {
+            if (url == null || url.isBlank()) {
+                continue;
+            }
+            boolean cached;
+            synchronized (this) {
+                cached = memory.containsKey(key(url, width, height));
+            }
+            if (!cached) {
+                prefetches.incrementAndGet();
+                fetchAsync(url, width, height);
+            }
+        }
+    }
+
+    /**
+     * Drops all decoded images. Posters stay on disk.
+     */
+    public synchronized void clearMemory() {
+        memory.clear();
+        memoryBytes = 0;
+    }
+
+    public Stats getStats() {
+        int cachedImages;
+        long cachedBytes;
+        synchronized (this) {
+            cachedImages = memory.size();
+            cachedBytes = memoryBytes;
+        }
+        return new Stats(requests.get(), memoryHits.get(), diskHits.get(), downloads.get(), failures.get(),
+                evictions.get(), prefetches.get(), cachedImages, cachedBytes);
+    }
+
+    // ==================== Memory Tier ====================
+
+    private Image lookup(String url, double width, double height) {
+        requests.incrementAndGet();
+        Image image;
+        synchronized (this) {
+            image = memory.get(key(url, width, height));
+        }
+        if (image != null) {
+            memoryHits.incrementAndGet();
+        }
+        return image;
+    }
+
+    private synchronized void remember(String key, Image image) {
+        Image previous = memory.put(key, image);
+        if (previous != null) {
+            memoryBytes -= sizeOf(previous);
+        }
+        memoryBytes += sizeOf(image);
+        Iterator<Image> eldest = memory.values().iterator();
+        while (memoryBytes > MEMORY_BUDGET_BYTES && memory.size() > 1) {
+            memoryBytes -= sizeOf(eldest.next());
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    private static String key(String url, double width, double height) {
+        return (int) width + "x" + (int) height + " " + url;
+    }
+
+    // ==================== Loading ====================
+
+    private CompletableFuture<Image> fetchAsync(String url, double width, double height) {
+        String key = key(url, width, height);
+        CompletableFuture<Image> future = new CompletableFuture<>();
+        CompletableFuture<Image> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return running;
+        }
+        loader.execute(() -> {
+            Image image = null;
+            try {
+                image = fetch(url, width, height);
+                if (image != null) {
+                    remember(key, image);
+                }
+            } finally {
+                inFlight.remove(key, future);
+                future.complete(image);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Reads a poster from disk, or downloads it, and decodes it at the requested size.
+     *
+     * @return the image, or null if it cannot be loaded
+     */
+    private Image fetch(String url, double width, double height) {
+        Path file = directory.resolve(hash(url));
+        byte[] bytes = readDisk(file);
+        if (bytes != null) {
+            diskHits.incrementAndGet();
+        } else {
+            bytes = download(url);
+            if (bytes == null) {
+                failures.incrementAndGet();
+                return null;
+            }
+            downloads.incrementAndGet();
+            writeDisk(file, bytes);
+        }
+
+        Image image = new Image(new ByteArrayInputStream(bytes), width, height, true, true);
+        if (image.isError()) {
+            failures.incrementAndGet();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Replaced by the next download
+            }
+            return null;
+        }
+        return image;
+    }
+
+    private static byte[] download(String url) {
+        try {
+            URLConnection connection = URI.create(url).toURL().openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+                byte[] buffer = new byte[16 * 1024];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, read);
+                    if (out.size() > MAX_DOWNLOAD_BYTES) {
+                        System.err.println("Poster too large: " + url);
+                        return null;
+                    }
+                }
+                return out.toByteArray();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Failed to download poster " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // ==================== Disk Tier ====================
+
+    private static byte[] readDisk(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            // The modification time orders the files for trimming
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return bytes;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeDisk(Path file, byte[] bytes) {
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.write(temporary, bytes);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to cache poster on disk: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the least recently used posters once the disk cache grows past its budget.
+     */
+    private void trimDisk() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(Files::isRegularFile).forEach(files::add);
+        } catch (IOException e) {
+            return;
+        }
+
+        long total = 0;
+        Map<Path, long[]> attributes = new LinkedHashMap<>();
+        for (Path file : files) {
+            try {
+                long size = Files.size(file);
+                attributes.put(file, new long[]{size, Files.getLastModifiedTime(file).toMillis()});
+                total += size;
+            } catch (IOException e) {
+                // Deleted meanwhile
+            }
+        }
+        if (total <= DISK_BUDGET_BYTES) {
+            return;
+        }
+        List<Map.Entry<Path, long[]>> oldestFirst = new ArrayList<>(attributes.entrySet());
+        oldestFirst.sort(Comparator.comparingLong(entry -> entry.getValue()[1]));
+        for (Map.Entry<Path, long[]> entry : oldestFirst) {
+            if (total <= DISK_BUDGET_BYTES) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.getKey());
+                total -= entry.getValue()[0];
+            } catch (IOException e) {
+                // Try again next start
+            }
+        }
+    }
+
+    private static String hash(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM provides SHA-256
+        }
+    }
+
+    // ==================== Statistics ====================
+
+    /**
+     * Counters since the cache was created.
+     */
+    public static final class Stats {
+        private final long requests;
+        private final long memoryHits;
+        private final long diskHits;
+        private final long downloads;
+        private final long failures;
+        private final long evictions;
+        private final long prefetches;
+        private final int cachedImages;
+        private final long cachedBytes;
+
+        Stats(long requests, long memoryHits, long diskHits, long downloads, long failures, long evictions,
+              long prefetches, int cachedImages, long cachedBytes) {
+            this.requests = requests;
+            this.memoryHits = memoryHits;
+            this.diskHits = diskHits;
+            this.downloads = downloads;
+            this.failures = failures;
+            this.evictions = evictions;
+            this.prefetches = prefetches;
+            this.cachedImages = cachedImages;
+            this.cachedBytes = cachedBytes;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getMemoryHits() {
+            return memoryHits;
+        }
+
+        public long getDiskHits() {
+            return diskHits;
+        }
+
+        public long getDownloads() {
+            return downloads;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getPrefetches() {
+            return prefetches;
+        }
+
+        public int getCachedImages() {
+            return cachedImages;
+        }
+
+        public long getCachedBytes() {
+            return cachedBytes;
+        }
+
+        /**
+         * Share of requests answered from memory, from 0 to 1.
+         */
+        public double getHitRate() {
+            return requests == 0 ? 0 : (double) memoryHits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %.1f%% from memory, %d read from disk, %d downloaded, "
+                            + "%d failed, %d evicted, %d prefetched, %d images (%d KB) in memory",
+                    requests, getHitRate() * 100, diskHits, downloads, failures, evictions, prefetches,
+                    cachedImages, cachedBytes / 1024);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.cinema.util;
+
+/**
+ * Controller of a view that {@link SceneManager} loads once and shows again
+ * on later visits instead of parsing its FXML every time.
+ * <p>
+ * When a cached view is shown again, {@link #reset()} is called first, then
+ * the caller binds new data through the controller's usual setters, exactly
+ * as it would after a fresh load.
+ */
+public interface ReusableView {
+
+    /**
+     * Returns the view to the state it had right after loading, dropping
+     * everything left by the previous visit.
+     */
+    void reset();
+
+    /**
+     * Called when another view replaces this one. Views that listen to
+     * shared state release their listeners here.
+     */
+    default void onHidden() {
+    }
+}
@@ -6,13 +6,25 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Utility class for managing scene navigation.
+ * <p>
+ * Views whose controller implements {@link ReusableView} are loaded once and
+ * kept, so returning to them only resets the controller instead of parsing
+ * the FXML and building the node graph again. Other views are loaded fresh
+ * on every visit.
  */
 public class SceneManager {
     private static Stage primaryStage;
 
+    private static final Map<String, LoadedView> viewCache = new HashMap<>();
+    private static final Map<String, SwitchTiming> switchTimings = new LinkedHashMap<>();
+    private static Object currentController;
+
     public static void setPrimaryStage(Stage stage) {
         primaryStage = stage;
     }
@@ -22,38 +34,97 @@ public class SceneManager {
     }
 
     public static void switchScene(String fxmlPath) {
-        try {
-            FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(fxmlPath));
-            Parent root = loader.load();
-            
-            // Reuse existing scene if available, otherwise create new one
-            if (primaryStage.getScene() != null) {
-                primaryStage.getScene().setRoot(root);
-            } else {
-                Scene scene = new Scene(root);
-                scene.getStylesheets().add(SceneManager.class.getResource("/styles/style.css").toExternalForm());
-                primaryStage.setScene(scene);
+        show(fxmlPath);
+    }
+
+    public static <T> T switchSceneAndGetController(String fxmlPath) {
+        LoadedView view = show(fxmlPath);
+        if (view == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        T controller = (T) view.controller;
+        return controller;
+    }
+
+    public static FXMLLoader getLoader(String fxmlPath) {
+        return new FXMLLoader(SceneManager.class.getResource(fxmlPath));
+    }
+
+    /**
+     * Loads views ahead of their first visit so the first switch to them is
+     * as fast as later ones; they are reset when first shown, so nothing
+     * loaded now goes stale. Views that are not reusable are skipped, since
+     * they would be loaded again anyway. Must be called on the JavaFX thread.
+     */
+    public static void prewarm(String... fxmlPaths) {
+        for (String fxmlPath : fxmlPaths) {
+            if (viewCache.containsKey(fxmlPath)) {
+                continue;
+            }
+            LoadedView view = load(fxmlPath);
+            if (view != null && view.controller instanceof ReusableView) {
+                viewCache.put(fxmlPath, view);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.err.println("Failed to load scene: " + fxmlPath);
         }
     }
 
-    public static <T> T switchSceneAndGetController(String fxmlPath) {
+    /**
+     * Drops all cached views. They are loaded again on their next visit.
+     */
+    public static void clearCache() {
+        viewCache.clear();
+    }
+
+    /**
+     * Describes how long switches to each view took, separating fresh loads
+     * from reuses of a cached view.
+     */
+    public static String getSwitchTimings() {
+        StringBuilder report = new StringBuilder();
+        switchTimings.forEach((path, timing) -> report.append(path).append(": ").append(timing).append('\n'));
+        return report.toString();
+    }
+
+    private static LoadedView show(String fxmlPath) {
+        long start = System.nanoTime();
+        LoadedView view = viewCache.get(fxmlPath);
+        boolean reused = view != null;
+        if (reused) {
+            ((ReusableView) view.controller).reset();
+        } else {
+            view = load(fxmlPath);
+            if (view == null) {
+                return null;
+            }
+            if (view.controller instanceof ReusableView) {
+                viewCache.put(fxmlPath, view);
+            }
+        }
+
+        if (currentController instanceof ReusableView && currentController != view.controller) {
+            ((ReusableView) currentController).onHidden();
+        }
+        currentController = view.controller;
+
+        // Reuse existing scene if available, otherwise create new one
+        if (primaryStage.getScene() != null) {
+            primaryStage.getScene().setRoot(view.root);
+        } else {
+            Scene scene = new Scene(view.root);
+            scene.getStylesheets().add(SceneManager.class.getResource("/styles/style.css").toExternalForm());
+            primaryStage.setScene(scene);
+        }
+
+        switchTimings.computeIfAbsent(fxmlPath, path -> new SwitchTiming()).record(reused, System.nanoTime() - start);
+        return view;
+    }
+
+    private static LoadedView load(String fxmlPath) {
         try {
             FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(fxmlPath));
             Parent root = loader.load();
-            
-            // Reuse existing scene if available, otherwise create new one
-            if (primaryStage.getScene() != null) {
-                primaryStage.getScene().setRoot(root);
-            } else {
-                Scene scene = new Scene(root);
-                scene.getStylesheets().add(SceneManager.class.getResource("/styles/style.css").toExternalForm());
-                primaryStage.setScene(scene);
-            }
-            return loader.getController();
+            return new LoadedView(root, loader.getController());
         } catch (IOException e) {
             e.printStackTrace();
             System.err.println("Failed to load scene: " + fxmlPath);
@@ -61,7 +132,37 @@ public class SceneManager {
         }
     }
 
-    public static FXMLLoader getLoader(String fxmlPath) {
-        return new FXMLLoader(SceneManager.class.getResource(fxmlPath));
+    private static final class LoadedView {
+        final Parent root;
+        final Object controller;
+
+        LoadedView(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+
+    private static final class SwitchTiming {
+        private int loads;
+        private long loadNanos;
+        private int reuses;
+        private long reuseNanos;
+
+        void record(boolean reused, long nanos) {
+            if (reused) {
+                reuses++;
+                reuseNanos += nanos;
+            } else {
+                loads++;
+                loadNanos += nanos;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d loads averaging %.1f ms, %d reuses averaging %.1f ms",
+                    loads, loads == 0 ? 0 : loadNanos / 1e6 / loads,
+                    reuses, reuses == 0 ? 0 : reuseNanos / 1e6 / reuses);
+        }
     }
 }
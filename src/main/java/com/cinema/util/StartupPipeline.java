@@ -0,0 +1,175 @@
+package com.cinema.util;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the steps of application startup and times each of them. Steps that
+ * do not depend on each other run at the same time on a small pool of
+ * worker threads; steps that must run on a particular thread, such as the
+ * JavaFX thread, are timed where they run. Once the first screen can be
+ * used, {@link #markInteractive()} fixes the time to interactive, and
+ * {@link #getReport()} lists every step with its start offset, duration
+ * and thread.
+ */
+public class StartupPipeline {
+    private static final int WORKER_THREADS = 3;
+    private static final DateTimeFormatter LOG_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final long startNanos = System.nanoTime();
+    private final ExecutorService workers;
+    private final List<StageTiming> stages = new ArrayList<>(); // guarded by itself
+    private volatile long interactiveNanos = -1;
+    private volatile long interactiveSinceJvmStartMillis = -1;
+
+    public StartupPipeline() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+            Thread thread = new Thread(r, "startup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a step on a worker thread.
+     *
+     * @return a future completed with the step's result, or exceptionally if it threw
+     */
+    public <T> CompletableFuture<T> startStage(String name, Supplier<T> step) {
+        return CompletableFuture.supplyAsync(() -> runStage(name, step), workers);
+    }
+
+    /**
+     * Starts a step on a worker thread once {@code prerequisite} has
+     * completed. The step is skipped, and the returned future fails, if the
+     * prerequisite failed.
+     */
+    public <T> CompletableFuture<T> startStageAfter(CompletableFuture<?> prerequisite, String name, Supplier<T> step) {
+        return prerequisite.thenApplyAsync(ignored -> runStage(name, step), workers);
+    }
+
+    /**
+     * Runs a step on the calling thread and records how long it took.
+     */
+    public <T> T runStage(String name, Supplier<T> step) {
+        long started = System.nanoTime();
+        try {
+            return step.get();
+        } finally {
+            StageTiming timing = new StageTiming(name, Thread.currentThread().getName(),
+                    started - startNanos, System.nanoTime() - started);
+            synchronized (stages) {
+                stages.add(timing);
+            }
+        }
+    }
+
+    /**
+     * Records that the first screen is shown and can be used. Only the first
+     * call counts. The worker threads are released, since startup is over.
+     */
+    public void markInteractive() {
+        if (interactiveNanos >= 0) {
+            return;
+        }
+        interactiveNanos = System.nanoTime() - startNanos;
+        interactiveSinceJvmStartMillis = System.currentTimeMillis()
+                - ManagementFactory.getRuntimeMXBean().getStartTime();
+        workers.shutdown();
+    }
+
+    /**
+     * Milliseconds from the creation of the pipeline until
+     * {@link #markInteractive()}, or -1 if startup has not finished.
+     */
+    public long getTimeToInteractiveMillis() {
+        return interactiveNanos < 0 ? -1 : interactiveNanos / 1_000_000;
+    }
+
+    /**
+     * Milliseconds from the start of the JVM until {@link #markInteractive()},
+     * including the launch of the JavaFX runtime, or -1 if startup has not
+     * finished.
+     */
+    public long getTimeToInteractiveSinceJvmStartMillis() {
+        return interactiveSinceJvmStartMillis;
+    }
+
+    /**
+     * Lists the steps in the order they started.
+     */
+    public String getReport() {
+        List<StageTiming> sorted = sortedStages();
+        StringBuilder report = new StringBuilder("Startup:\n");
+        for (StageTiming stage : sorted) {
+            report.append(String.format("  %-14s +%5d ms  %5d ms  [%s]%n",
+                    stage.name, stage.offsetNanos / 1_000_000, stage.durationNanos / 1_000_000, stage.thread));
+        }
+        if (interactiveNanos >= 0) {
+            report.append(String.format("  Interactive after %d ms (%d ms after JVM start)%n",
+                    getTimeToInteractiveMillis(), interactiveSinceJvmStartMillis));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Appends one line with the time to interactive and each step's duration
+     * to a log file, so startup times can be compared across runs. Failures
+     * are reported and otherwise ignored.
+     */
+    public void appendToLog(Path logFile) {
+        StringBuilder line = new StringBuilder(LocalDateTime.now().format(LOG_TIME))
+                .append(" interactive=").append(getTimeToInteractiveMillis()).append("ms")
+                .append(" jvm=").append(interactiveSinceJvmStartMillis).append("ms");
+        for (StageTiming stage : sortedStages()) {
+            line.append(' ').append(stage.name.replace(' ', '-')).append('=')
+                    .append(stage.durationNanos / 1_000_000).append("ms");
+        }
+        line.append(System.lineSeparator());
+        try {
+            Files.createDirectories(logFile.getParent());
+            Files.writeString(logFile, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Failed to write startup log: " + e.getMessage());
+        }
+    }
+
+    private List<StageTiming> sortedStages() {
+        List<StageTiming> sorted;
+        synchronized (stages) {
+            sorted = new ArrayList<>(stages);
+        }
+        sorted.sort(Comparator.comparingLong(stage -> stage.offsetNanos));
+        return sorted;
+    }
+
+    private static final class StageTiming {
+        final String name;
+        final String thread;
+        final long offsetNanos;
+        final long durationNanos;
+
+        StageTiming(String name, String thread, long offsetNanos, long durationNanos) {
+            this.name = name;
+            this.thread = thread;
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+}
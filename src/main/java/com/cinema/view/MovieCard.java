@@ -0,0 +1,177 @@
+package com.cinema.view;
+
+import com.cinema.model.Movie;
+import com.cinema.model.Screening;
+import com.cinema.util.PosterCache;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Card showing a movie's poster, title and the showtimes of one day. A card
+ * is built once per movie and rebound with {@link #bind} whenever another
+ * day is shown; showtime buttons are reused and only added when a day has
+ * more screenings than the card has shown before.
+ */
+public class MovieCard extends VBox {
+    private static final double POSTER_WIDTH = 180;
+    private static final double POSTER_HEIGHT = 250;
+
+    private final Label posterLabel = new Label("\ud83c\udfac");
+    private final ImageView posterImageView = new ImageView();
+    private final Label titleLabel = new Label();
+    private final Label infoLabel = new Label();
+    private final FlowPane timesBox = new FlowPane();
+    private final Button deleteButton = new Button("Delete Movie");
+
+    private Movie movie;
+    private String boundPosterUrl;
+    private Consumer<Screening> onScreeningSelected;
+    private Consumer<Movie> onDelete;
+
+    public MovieCard() {
+        super(10);
+        getStyleClass().add("movie-card");
+        setAlignment(Pos.TOP_CENTER);
+        setPrefWidth(220);
+        setPadding(new Insets(15));
+
+        // Movie poster container
+        StackPane posterContainer = new StackPane();
+        posterContainer.getStyleClass().add("poster-container");
+        posterContainer.setPrefSize(POSTER_WIDTH, POSTER_HEIGHT);
+
+        Rectangle posterPlaceholder = new Rectangle(POSTER_WIDTH, POSTER_HEIGHT);
+        posterPlaceholder.setFill(Color.web("#2a2a2a"));
+        posterPlaceholder.setArcWidth(10);
+        posterPlaceholder.setArcHeight(10);
+
+        posterLabel.setStyle("-fx-font-size: 48px;");
+
+        posterImageView.setFitWidth(POSTER_WIDTH);
+        posterImageView.setFitHeight(POSTER_HEIGHT);
+        posterImageView.setPreserveRatio(true);
+
+        // Create a clipping rectangle for rounded corners
+        Rectangle clip = new Rectangle(POSTER_WIDTH, POSTER_HEIGHT);
+        clip.setArcWidth(10);
+        clip.setArcHeight(10);
+        posterImageView.setClip(clip);
+
+        posterContainer.getChildren().addAll(posterPlaceholder, posterLabel, posterImageView);
+
+        // Movie title
+        titleLabel.getStyleClass().add("movie-title");
+        titleLabel.setWrapText(true);
+        titleLabel.setMaxWidth(POSTER_WIDTH);
+
+        // Movie info
+        infoLabel.getStyleClass().add("movie-info");
+
+        // Screenings for the shown date
+        VBox screeningsBox = new VBox(5);
+        screeningsBox.setAlignment(Pos.CENTER);
+
+        Label screeningsTitle = new Label("Showtimes:");
+        screeningsTitle.getStyleClass().add("screenings-title");
+
+        timesBox.setHgap(5);
+        timesBox.setVgap(5);
+        timesBox.setAlignment(Pos.CENTER);
+        timesBox.setPrefWrapLength(POSTER_WIDTH);
+
+        screeningsBox.getChildren().addAll(screeningsTitle, timesBox);
+
+        // Only shown when a delete handler is set
+        deleteButton.getStyleClass().add("btn-delete");
+        deleteButton.setOnAction(e -> {
+            if (onDelete != null && movie != null) {
+                onDelete.accept(movie);
+            }
+        });
+        setShown(deleteButton, false);
+
+        getChildren().addAll(posterContainer, titleLabel, infoLabel, screeningsBox, deleteButton);
+    }
+
+    public Movie getMovie() {
+        return movie;
+    }
+
+    public void setOnScreeningSelected(Consumer<Screening> onScreeningSelected) {
+        this.onScreeningSelected = onScreeningSelected;
+    }
+
+    /**
+     * Shows a "Delete Movie" button that passes the card's movie to the
+     * handler. A null handler hides the button.
+     */
+    public void setOnDelete(Consumer<Movie> onDelete) {
+        this.onDelete = onDelete;
+        setShown(deleteButton, onDelete != null);
+    }
+
+    /**
+     * Shows a movie with the given showtimes. The poster is only requested
+     * again when its URL changed since the last bind.
+     */
+    public void bind(Movie movie, List<Screening> screenings) {
+        this.movie = movie;
+        titleLabel.setText(movie.getTitle());
+        infoLabel.setText(movie.getFormattedDuration() + " | " + movie.getRating());
+        bindPoster(movie.getPosterPath());
+        bindShowtimes(screenings);
+    }
+
+    private void bindPoster(String posterUrl) {
+        String url = posterUrl != null && posterUrl.startsWith("http") ? posterUrl : null;
+        if (Objects.equals(url, boundPosterUrl) && (url == null || posterImageView.getImage() != null)) {
+            return;
+        }
+        boundPosterUrl = url;
+        posterLabel.setVisible(true);
+        // Hide placeholder when image loads successfully
+        PosterCache.getInstance().loadInto(posterImageView, url,
+                PosterCache.THUMBNAIL_WIDTH, PosterCache.THUMBNAIL_HEIGHT,
+                () -> posterLabel.setVisible(false));
+    }
+
+    private void bindShowtimes(List<Screening> screenings) {
+        List<Node> buttons = timesBox.getChildren();
+        while (buttons.size() < screenings.size()) {
+            Button timeButton = new Button();
+            timeButton.getStyleClass().add("btn-time");
+            timeButton.setOnAction(e -> {
+                if (onScreeningSelected != null && timeButton.getUserData() instanceof Screening screening) {
+                    onScreeningSelected.accept(screening);
+                }
+            });
+            buttons.add(timeButton);
+        }
+        for (int i = 0; i < buttons.size(); i++) {
+            Button timeButton = (Button) buttons.get(i);
+            boolean used = i < screenings.size();
+            Screening screening = used ? screenings.get(i) : null;
+            timeButton.setUserData(screening);
+            timeButton.setText(used ? screening.getFormattedTime() : "");
+            setShown(timeButton, used);
+        }
+    }
+
+    private static void setShown(Node node, boolean shown) {
+        node.setVisible(shown);
+        node.setManaged(shown);
+    }
+}
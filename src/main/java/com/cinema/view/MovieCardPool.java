@@ -0,0 +1,103 @@
+package com.cinema.view;
+
+import com.cinema.model.Movie;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one {@link MovieCard} per movie id in a pane. Showing another date
+ * rebinds the cards of the movies on it and hides the others, so the pane
+ * keeps the same nodes instead of building a new card graph on every date
+ * change. New cards are only created for movies that have not been shown
+ * before.
+ */
+public class MovieCardPool {
+    private final Pane container;
+    private final Supplier<MovieCard> cardFactory;
+    private final Map<String, MovieCard> cards = new HashMap<>();
+    private int createdCards;
+
+    /**
+     * @param container   the pane holding the cards, e.g. a FlowPane
+     * @param cardFactory creates a card with its handlers already set
+     */
+    public MovieCardPool(Pane container, Supplier<MovieCard> cardFactory) {
+        this.container = container;
+        this.cardFactory = cardFactory;
+    }
+
+    /**
+     * Shows the movies with their screenings on the date, in the given
+     * order, and hides every other card.
+     */
+    public void show(LocalDate date, List<Movie> movies) {
+        List<MovieCard> shown = new ArrayList<>(movies.size());
+        Set<MovieCard> shownSet = new HashSet<>();
+        for (Movie movie : movies) {
+            MovieCard card = cards.computeIfAbsent(keyOf(movie), key -> {
+                createdCards++;
+                return cardFactory.get();
+            });
+            card.bind(movie, movie.getScreeningsForDate(date));
+            shown.add(card);
+            shownSet.add(card);
+        }
+
+        for (MovieCard card : cards.values()) {
+            boolean visible = shownSet.contains(card);
+            card.setVisible(visible);
+            card.setManaged(visible);
+        }
+
+        // Shown cards must lead the pane in order; only touch the children when they do not
+        ObservableList<Node> children = container.getChildren();
+        if (children.size() != cards.size() || !children.subList(0, shown.size()).equals(shown)) {
+            List<Node> ordered = new ArrayList<>(shown);
+            for (MovieCard card : cards.values()) {
+                if (!shownSet.contains(card)) {
+                    ordered.add(card);
+                }
+            }
+            children.setAll(ordered);
+        }
+    }
+
+    /**
+     * Drops the card of a movie, e.g. after it was deleted.
+     */
+    public void remove(String movieId) {
+        MovieCard card = cards.remove(movieId);
+        if (card != null) {
+            container.getChildren().remove(card);
+        }
+    }
+
+    /**
+     * Drops all cards; the next {@link #show} builds them again.
+     */
+    public void clear() {
+        cards.clear();
+        container.getChildren().clear();
+    }
+
+    /**
+     * Number of cards built since the pool was created.
+     */
+    public int getCreatedCards() {
+        return createdCards;
+    }
+
+    private static String keyOf(Movie movie) {
+        return movie.getId() != null ? movie.getId() : movie.getTitle();
+    }
+}
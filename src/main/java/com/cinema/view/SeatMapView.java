@@ -0,0 +1,608 @@
+package com.cinema.view;
+
+import com.cinema.model.Screening;
+import com.cinema.model.Seat;
+import com.cinema.service.CinemaService;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Seat map of a screening drawn on a single canvas. Replaces the grid of
+ * one toggle button per seat, so a large hall costs one node instead of
+ * hundreds and needs no CSS or layout passes.
+ * <p>
+ * Seats are selected with the mouse, or with the arrow keys and Space or
+ * Enter once the map has focus. Only seats whose state changed are redrawn:
+ * hovering, selecting and {@link #refresh()} after a sale each repaint just
+ * the affected cells. Aisles of the hall layout are drawn as wider gaps
+ * between columns.
+ */
+public class SeatMapView extends Region {
+
+    // Same colours as the seat legend (.seat-available, .seat-selected, .seat-reserved)
+    private static final Color AVAILABLE_FILL = Color.web("#ecf0f1");
+    private static final Color AVAILABLE_STROKE = Color.web("#bdc3c7");
+    private static final Color AVAILABLE_TEXT = Color.web("#2d3e50");
+    private static final Color HOVER_FILL = Color.web("#3498db");
+    private static final Color HOVER_STROKE = Color.web("#2980b9");
+    private static final Color SELECTED_FILL = Color.web("#27ae60");
+    private static final Color SELECTED_STROKE = Color.web("#219a52");
+    private static final Color RESERVED_FILL = Color.web("#95a5a6");
+    private static final Color RESERVED_STROKE = Color.web("#7f8c8d");
+    private static final Color FOCUS_STROKE = Color.web("#f39c12");
+    private static final Color ROW_LABEL_TEXT = Color.web("#2d3e50");
+    private static final double CORNER_RADIUS = 10;
+
+    // Seat states as last drawn, so refresh() repaints only what changed
+    private static final byte STATE_AVAILABLE = 0;
+    private static final byte STATE_RESERVED = 1;
+    private static final byte STATE_SELECTED = 2;
+
+    private final Canvas canvas = new Canvas();
+
+    private double seatSize = 35;
+    private double seatGap = 5;
+    private double aisleWidth = 20;
+    private double rowGap = 8;
+    private double rowLabelWidth = 30;
+    private double labelGap = 8;
+    private boolean rowLabelsOnBothSides = true;
+
+    private Screening screening;
+    private int rows;
+    private int seatsPerRow;
+    private double[] columnX = new double[0]; // left edge of each seat column, aisles included
+    private Font seatFont;
+    private Font rowLabelFont;
+    private byte[] drawnStates = new byte[0];
+    private final Set<Integer> selection = new LinkedHashSet<>();
+    private final Set<Integer> heldSeats = new HashSet<>();
+    private int hoverIndex = -1;
+    private int focusIndex = -1;
+    private Runnable onSelectionChanged;
+
+    // Live updates: subscribed to the shown screening only while the map is in a scene
+    private CinemaService liveUpdates;
+    private String subscribedScreeningId;
+    private final CinemaService.SeatChangeListener seatChangeListener = changed -> {
+        if (Platform.isFxApplicationThread()) {
+            refresh();
+        } else {
+            Platform.runLater(this::refresh);
+        }
+    };
+
+    public SeatMapView() {
+        getStyleClass().add("seat-map");
+        getChildren().add(canvas);
+        updateFonts();
+        setFocusTraversable(true);
+
+        canvas.addEventHandler(MouseEvent.MOUSE_MOVED, e -> setHover(indexAt(e.getX(), e.getY())));
+        canvas.addEventHandler(MouseEvent.MOUSE_EXITED, e -> setHover(-1));
+        canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            int index = indexAt(e.getX(), e.getY());
+            if (index >= 0) {
+                requestFocus();
+                moveFocus(index);
+                toggle(index);
+            }
+        });
+        addEventHandler(KeyEvent.KEY_PRESSED, this::handleKey);
+        sceneProperty().addListener((obs, oldScene, newScene) -> updateSubscription());
+        focusedProperty().addListener((obs, wasFocused, isFocused) -> {
+            if (isFocused && focusIndex < 0 && screening != null) {
+                focusIndex = 0;
+            }
+            if (focusIndex >= 0) {
+                drawSeat(focusIndex);
+            }
+        });
+    }
+
+    // ==================== Configuration ====================
+
+    public double getSeatSize() {
+        return seatSize;
+    }
+
+    public void setSeatSize(double seatSize) {
+        this.seatSize = seatSize;
+        updateFonts();
+        rebuild();
+    }
+
+    /** Horizontal space between seats. */
+    public double getSeatGap() {
+        return seatGap;
+    }
+
+    public void setSeatGap(double seatGap) {
+        this.seatGap = seatGap;
+        rebuild();
+    }
+
+    /** Extra horizontal space where the hall layout has an aisle. */
+    public double getAisleWidth() {
+        return aisleWidth;
+    }
+
+    public void setAisleWidth(double aisleWidth) {
+        this.aisleWidth = aisleWidth;
+        rebuild();
+    }
+
+    /** Vertical space between rows. */
+    public double getRowGap() {
+        return rowGap;
+    }
+
+    public void setRowGap(double rowGap) {
+        this.rowGap = rowGap;
+        rebuild();
+    }
+
+    public double getRowLabelWidth() {
+        return rowLabelWidth;
+    }
+
+    public void setRowLabelWidth(double rowLabelWidth) {
+        this.rowLabelWidth = rowLabelWidth;
+        rebuild();
+    }
+
+    /** Space between the row labels and the seats. */
+    public double getLabelGap() {
+        return labelGap;
+    }
+
+    public void setLabelGap(double labelGap) {
+        this.labelGap = labelGap;
+        rebuild();
+    }
+
+    /** Whether row labels are drawn on the right as well as on the left. */
+    public boolean isRowLabelsOnBothSides() {
+        return rowLabelsOnBothSides;
+    }
+
+    public void setRowLabelsOnBothSides(boolean rowLabelsOnBothSides) {
+        this.rowLabelsOnBothSides = rowLabelsOnBothSides;
+        rebuild();
+    }
+
+    /**
+     * Keeps the map in step with seat changes of the shown screening, e.g.
+     * sales at other terminals, repainting only the seats that changed. The
+     * subscription follows the shown screening and is dropped whenever the
+     * map leaves its scene, so a screen that is navigated away from leaves
+     * no listener behind.
+     */
+    public void setLiveUpdates(CinemaService service) {
+        unsubscribe();
+        this.liveUpdates = service;
+        updateSubscription();
+    }
+
+    /**
+     * Called after the user selects or deselects a seat, and after
+     * {@link #refresh()} drops selected seats that were sold meanwhile.
+     * Not called by {@link #setSelectedSeats} or {@link #clearSelection()}.
+     */
+    public void setOnSelectionChanged(Runnable onSelectionChanged) {
+        this.onSelectionChanged = onSelectionChanged;
+    }
+
+    // ==================== Content ====================
+
+    public Screening getScreening() {
+        return screening;
+    }
+
+    /**
+     * Shows a screening with nothing selected, or clears the map if null.
+     */
+    public void setScreening(Screening screening) {
+        this.screening = screening;
+        selection.clear();
+        heldSeats.clear();
+        hoverIndex = -1;
+        focusIndex = -1;
+        updateSubscription();
+        rebuild();
+    }
+
+    /**
+     * Returns the selected seats in the order they were selected.
+     */
+    public List<Seat> getSelectedSeats() {
+        List<Seat> seats = new ArrayList<>(selection.size());
+        if (screening != null) {
+            for (int index : selection) {
+                seats.add(seatAt(index));
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Replaces the selection. Seats that are reserved or not part of the
+     * screening are skipped.
+     */
+    public void setSelectedSeats(Collection<Seat> seats) {
+        selection.clear();
+        if (screening != null) {
+            for (Seat seat : seats) {
+                Seat own = screening.getSeatByCode(seat.getCode());
+                if (own != null && !isTaken(indexOf(own))) {
+                    selection.add(indexOf(own));
+                }
+            }
+        }
+        repaintChanged();
+    }
+
+    /**
+     * Marks reserved seats that belong to the ticket being changed. They are
+     * shown and selectable like free seats, so the customer can keep them.
+     * Cleared by {@link #setScreening}.
+     */
+    public void setHeldSeats(Collection<Seat> seats) {
+        heldSeats.clear();
+        if (screening != null) {
+            for (Seat seat : seats) {
+                Seat own = screening.getSeatByCode(seat.getCode());
+                if (own != null) {
+                    heldSeats.add(indexOf(own));
+                }
+            }
+        }
+        repaintChanged();
+    }
+
+    public void clearSelection() {
+        selection.clear();
+        repaintChanged();
+    }
+
+    /**
+     * Redraws the seats whose availability changed since they were last
+     * drawn, e.g. after a sale on another terminal. Selected seats that have
+     * been reserved meanwhile are dropped from the selection.
+     */
+    public void refresh() {
+        if (screening == null) {
+            return;
+        }
+        boolean selectionChanged = selection.removeIf(this::isTaken);
+        repaintChanged();
+        if (selectionChanged && onSelectionChanged != null) {
+            onSelectionChanged.run();
+        }
+    }
+
+    private void updateSubscription() {
+        String wanted = liveUpdates != null && screening != null && getScene() != null ? screening.getId() : null;
+        if (wanted == null ? subscribedScreeningId == null : wanted.equals(subscribedScreeningId)) {
+            return;
+        }
+        unsubscribe();
+        if (wanted != null) {
+            liveUpdates.addSeatChangeListener(wanted, seatChangeListener);
+            subscribedScreeningId = wanted;
+        }
+    }
+
+    private void unsubscribe() {
+        if (subscribedScreeningId != null) {
+            liveUpdates.removeSeatChangeListener(subscribedScreeningId, seatChangeListener);
+            subscribedScreeningId = null;
+        }
+    }
+
+    // ==================== Layout ====================
+
+    private double seatsLeft() {
+        return rowLabelWidth + labelGap;
+    }
+
+    private double contentWidth() {
+        double seatsRight = seatsPerRow > 0 ? columnX[seatsPerRow - 1] + seatSize : seatsLeft();
+        return seatsRight + (rowLabelsOnBothSides ? labelGap + rowLabelWidth : 0);
+    }
+
+    private double contentHeight() {
+        return rows > 0 ? rows * seatSize + (rows - 1) * rowGap : 0;
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return snappedLeftInset() + contentWidth() + snappedRightInset();
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return snappedTopInset() + contentHeight() + snappedBottomInset();
+    }
+
+    @Override
+    protected double computeMinWidth(double height) {
+        return computePrefWidth(height);
+    }
+
+    @Override
+    protected double computeMinHeight(double width) {
+        return computePrefHeight(width);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        // Centre the map in whatever space the parent gives
+        double x = snappedLeftInset() + Math.max(0, (getWidth() - snappedLeftInset() - snappedRightInset() - canvas.getWidth()) / 2);
+        double y = snappedTopInset() + Math.max(0, (getHeight() - snappedTopInset() - snappedBottomInset() - canvas.getHeight()) / 2);
+        canvas.relocate(snapPositionX(x), snapPositionY(y));
+    }
+
+    /**
+     * Resizes the canvas to the current screening and settings and draws
+     * everything. Column positions only change here, so painting a seat
+     * never computes them.
+     */
+    private void rebuild() {
+        rows = screening != null ? screening.getTotalRows() : 0;
+        seatsPerRow = screening != null ? screening.getSeatsPerRow() : 0;
+        columnX = new double[seatsPerRow];
+        double x = seatsLeft();
+        for (int column = 0; column < seatsPerRow; column++) {
+            columnX[column] = x;
+            x += seatSize + seatGap;
+            if (screening.getLayout().isAisleAfter(column)) {
+                x += aisleWidth;
+            }
+        }
+        drawnStates = new byte[rows * seatsPerRow];
+        canvas.setWidth(Math.ceil(contentWidth()));
+        canvas.setHeight(Math.ceil(contentHeight()));
+        requestLayout();
+        paintAll();
+    }
+
+    // Fonts depend only on the seat size, so they are made once per size rather than per label
+    private void updateFonts() {
+        seatFont = Font.font(seatSize >= 32 ? 10 : 9);
+        rowLabelFont = Font.font(null, FontWeight.BOLD, seatSize >= 32 ? 14 : 11);
+    }
+
+    private double seatX(int column) {
+        return columnX[column];
+    }
+
+    private double seatY(int row) {
+        return row * (seatSize + rowGap);
+    }
+
+    /**
+     * Returns the index of the seat under a canvas point, or -1 for the
+     * gaps, the labels and points outside the map.
+     */
+    private int indexAt(double x, double y) {
+        if (screening == null) {
+            return -1;
+        }
+        if (seatsPerRow == 0 || x < columnX[0] || y < 0) {
+            return -1;
+        }
+        // The last column starting at or before x
+        int found = Arrays.binarySearch(columnX, x);
+        int column = found >= 0 ? found : -found - 2;
+        int row = (int) (y / (seatSize + rowGap));
+        if (row >= rows
+                || x - columnX[column] > seatSize
+                || y - row * (seatSize + rowGap) > seatSize) {
+            return -1;
+        }
+        return row * seatsPerRow + column;
+    }
+
+    // The index matches Screening.getSeat(row, column + 1)
+    private Seat seatAt(int index) {
+        return screening.getSeat(index / seatsPerRow, index % seatsPerRow + 1);
+    }
+
+    private int indexOf(Seat seat) {
+        return seat.getRowIndex() * seatsPerRow + seat.getSeatNumber() - 1;
+    }
+
+    // ==================== Interaction ====================
+
+    private void setHover(int index) {
+        if (index == hoverIndex) {
+            return;
+        }
+        int previous = hoverIndex;
+        hoverIndex = index;
+        if (previous >= 0) {
+            drawSeat(previous);
+        }
+        boolean clickable = index >= 0 && !isTaken(index);
+        if (clickable) {
+            drawSeat(index);
+        }
+        setCursor(clickable ? Cursor.HAND : Cursor.DEFAULT);
+    }
+
+    private void toggle(int index) {
+        if (isTaken(index)) {
+            return;
+        }
+        if (!selection.remove(index)) {
+            selection.add(index);
+        }
+        drawSeat(index);
+        if (onSelectionChanged != null) {
+            onSelectionChanged.run();
+        }
+    }
+
+    private void moveFocus(int index) {
+        int previous = focusIndex;
+        focusIndex = index;
+        if (previous >= 0 && previous != index) {
+            drawSeat(previous);
+        }
+        drawSeat(index);
+    }
+
+    private void handleKey(KeyEvent e) {
+        if (screening == null || rows == 0 || seatsPerRow == 0) {
+            return;
+        }
+        int current = Math.max(focusIndex, 0);
+        int row = current / seatsPerRow;
+        int column = current % seatsPerRow;
+        switch (e.getCode()) {
+            case LEFT -> column = Math.max(0, column - 1);
+            case RIGHT -> column = Math.min(seatsPerRow - 1, column + 1);
+            case UP -> row = Math.max(0, row - 1);
+            case DOWN -> row = Math.min(rows - 1, row + 1);
+            case HOME -> column = 0;
+            case END -> column = seatsPerRow - 1;
+            case SPACE, ENTER -> {
+                toggle(current);
+                e.consume();
+                return;
+            }
+            default -> {
+                return;
+            }
+        }
+        moveFocus(row * seatsPerRow + column);
+        e.consume();
+    }
+
+    // ==================== Drawing ====================
+
+    private void paintAll() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (screening == null) {
+            return;
+        }
+
+        // Row labels
+        g.setFill(ROW_LABEL_TEXT);
+        g.setFont(rowLabelFont);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+        double rightLabelX = contentWidth() - rowLabelWidth;
+        for (int row = 0; row < rows; row++) {
+            String label = screening.getLayout().getRowLabel(row);
+            double centreY = seatY(row) + seatSize / 2;
+            g.fillText(label, rowLabelWidth / 2, centreY);
+            if (rowLabelsOnBothSides) {
+                g.fillText(label, rightLabelX + rowLabelWidth / 2, centreY);
+            }
+        }
+
+        for (int index = 0; index < drawnStates.length; index++) {
+            drawSeat(index);
+        }
+    }
+
+    /**
+     * Redraws every seat whose state differs from the last time it was drawn.
+     */
+    private void repaintChanged() {
+        if (screening == null) {
+            return;
+        }
+        for (int index = 0; index < drawnStates.length; index++) {
+            if (stateOf(index) != drawnStates[index]) {
+                drawSeat(index);
+            }
+        }
+    }
+
+    private byte stateOf(int index) {
+        if (selection.contains(index)) {
+            return STATE_SELECTED;
+        }
+        return isTaken(index) ? STATE_RESERVED : STATE_AVAILABLE;
+    }
+
+    // Reserved by someone other than the ticket being changed
+    private boolean isTaken(int index) {
+        return screening.isReservedAt(index) && !heldSeats.contains(index);
+    }
+
+    private void drawSeat(int index) {
+        if (screening == null || index < 0 || index >= drawnStates.length) {
+            return;
+        }
+        byte state = stateOf(index);
+        drawnStates[index] = state;
+
+        double x = seatX(index % seatsPerRow);
+        double y = seatY(index / seatsPerRow);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        // Clear a little beyond the seat to wipe the focus ring
+        g.clearRect(x - 2, y - 2, seatSize + 4, seatSize + 4);
+
+        Color fill;
+        Color stroke;
+        Color text;
+        if (state == STATE_RESERVED) {
+            fill = RESERVED_FILL;
+            stroke = RESERVED_STROKE;
+            text = RESERVED_STROKE;
+        } else if (state == STATE_SELECTED) {
+            fill = SELECTED_FILL;
+            stroke = SELECTED_STROKE;
+            text = Color.WHITE;
+        } else if (index == hoverIndex) {
+            fill = HOVER_FILL;
+            stroke = HOVER_STROKE;
+            text = Color.WHITE;
+        } else {
+            fill = AVAILABLE_FILL;
+            stroke = AVAILABLE_STROKE;
+            text = AVAILABLE_TEXT;
+        }
+
+        g.setFill(fill);
+        g.fillRoundRect(x, y, seatSize, seatSize, CORNER_RADIUS, CORNER_RADIUS);
+        g.setLineWidth(1);
+        g.setStroke(stroke);
+        g.strokeRoundRect(x + 0.5, y + 0.5, seatSize - 1, seatSize - 1, CORNER_RADIUS, CORNER_RADIUS);
+
+        if (index == focusIndex && isFocused()) {
+            g.setLineWidth(2);
+            g.setStroke(FOCUS_STROKE);
+            g.strokeRoundRect(x - 1, y - 1, seatSize + 2, seatSize + 2, CORNER_RADIUS, CORNER_RADIUS);
+        }
+
+        g.setFill(text);
+        g.setFont(seatFont);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+        g.fillText(String.valueOf(index % seatsPerRow + 1), x + seatSize / 2, y + seatSize / 2);
+    }
+}
@@ -0,0 +1,124 @@
+package com.cinema.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Contention benchmark for {@link Screening#tryReserve}: many bookers try
+ * random one- or two-seat bookings on a shared set of screenings at once.
+ * Not a test; run it after {@code mvn test-compile} with
+ * <pre>
+ * java -cp target/classes:target/test-classes com.cinema.model.ScreeningContentionBenchmark [bookers...]
+ * </pre>
+ * Every booker uses a fixed seed, so runs differ only in scheduling. Each
+ * round starts from empty screenings and checks that the seats sold equal
+ * the seats marked as reserved, i.e. that no seat was sold twice.
+ */
+public class ScreeningContentionBenchmark {
+    private static final int SCREENINGS = 50;
+    private static final int ROWS = 20;
+    private static final int SEATS_PER_ROW = 30;
+    private static final int ATTEMPTS_PER_BOOKER = 20_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int[] bookerCounts = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {8, 16, 64};
+
+        System.out.printf("%d screenings x %d seats, %d attempts per booker, %d available processor(s)%n",
+                SCREENINGS, ROWS * SEATS_PER_ROW, ATTEMPTS_PER_BOOKER, Runtime.getRuntime().availableProcessors());
+        for (int bookers : bookerCounts) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                runRound(bookers);
+            }
+            double[] rates = new double[MEASURED_ROUNDS];
+            long sold = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                Round round = runRound(bookers);
+                rates[i] = round.attempts / (round.nanos / 1e9);
+                sold = round.seatsSold;
+            }
+            Arrays.sort(rates);
+            System.out.printf("%3d bookers: median %,.0f attempts/s (min %,.0f, max %,.0f), %,d seats sold per round%n",
+                    bookers, rates[rates.length / 2], rates[0], rates[rates.length - 1], sold);
+        }
+    }
+
+    private static Round runRound(int bookers) throws Exception {
+        Movie movie = new Movie("Benchmark", "", "Drama", 120, null, "PG");
+        List<Screening> screenings = new ArrayList<>(SCREENINGS);
+        for (int i = 0; i < SCREENINGS; i++) {
+            screenings.add(new Screening(movie, LocalDate.of(2026, 1, 1), LocalTime.of(10, 0).plusMinutes(i),
+                    "Hall " + i, 10, ROWS, SEATS_PER_ROW));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(bookers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> results = new ArrayList<>(bookers);
+            for (int b = 0; b < bookers; b++) {
+                long seed = b;
+                results.add(pool.submit(() -> book(screenings, new SplittableRandom(seed), start)));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            long seatsSold = 0;
+            for (Future<Long> result : results) {
+                seatsSold += result.get();
+            }
+            long nanos = System.nanoTime() - started;
+
+            long reserved = 0;
+            for (Screening screening : screenings) {
+                reserved += screening.getReservedSeatCount();
+            }
+            if (reserved != seatsSold) {
+                throw new IllegalStateException(seatsSold + " seats sold but " + reserved + " reserved");
+            }
+            return new Round((long) bookers * ATTEMPTS_PER_BOOKER, nanos, seatsSold);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long book(List<Screening> screenings, SplittableRandom random, CountDownLatch start)
+            throws InterruptedException {
+        start.await();
+        int capacity = ROWS * SEATS_PER_ROW;
+        long seatsSold = 0;
+        for (int i = 0; i < ATTEMPTS_PER_BOOKER; i++) {
+            Screening screening = screenings.get(random.nextInt(SCREENINGS));
+            List<Seat> seats = screening.getSeats();
+            int first = random.nextInt(capacity);
+            List<Seat> request = random.nextBoolean()
+                    ? List.of(seats.get(first))
+                    : List.of(seats.get(first), seats.get((first + 1 + random.nextInt(capacity - 1)) % capacity));
+            if (screening.tryReserve(request).isEmpty()) {
+                seatsSold += request.size();
+            }
+        }
+        return seatsSold;
+    }
+
+    private static final class Round {
+        final long attempts;
+        final long nanos;
+        final long seatsSold;
+
+        Round(long attempts, long nanos, long seatsSold) {
+            this.attempts = attempts;
+            this.nanos = nanos;
+            this.seatsSold = seatsSold;
+        }
+    }
+}
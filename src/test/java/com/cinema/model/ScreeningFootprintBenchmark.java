@@ -0,0 +1,72 @@
+package com.cinema.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap footprint benchmark for {@link Screening}: builds a season of
+ * screenings, sells a few seats in each, and reports the heap they keep
+ * alive. Not a test; run it after {@code mvn test-compile} with
+ * <pre>
+ * java -Xmx2g -cp target/classes:target/test-classes com.cinema.model.ScreeningFootprintBenchmark [days] [seats sold]
+ * </pre>
+ * Seats are sold through their {@link Seat} objects, as the booking
+ * screens do, so the seats looked up are part of the footprint.
+ * Only public constructors and {@link Screening#getSeats()} are used, so
+ * the same file also runs against older revisions of the model for a
+ * before and after comparison.
+ */
+public class ScreeningFootprintBenchmark {
+    private static final int HALLS = 12;
+    private static final int SCREENINGS_PER_DAY = 5;
+    private static final int ROWS = 20;
+    private static final int SEATS_PER_ROW = 30;
+
+    public static void main(String[] args) throws Exception {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 90;
+        int seatsSold = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int count = HALLS * days * SCREENINGS_PER_DAY;
+
+        long before = usedHeap();
+        List<Screening> screenings = build(days, seatsSold);
+        long after = usedHeap();
+
+        long bytes = after - before;
+        System.out.printf("%,d screenings of %d x %d seats (%,d seats), %d sold per screening%n",
+                count, ROWS, SEATS_PER_ROW, (long) count * ROWS * SEATS_PER_ROW, seatsSold);
+        System.out.printf("retained %.1f MB, %,d bytes per screening%n", bytes / 1e6, bytes / count);
+        // Keeps the screenings reachable until after the second measurement
+        System.out.println(screenings.size() == count ? "" : "unexpected count");
+    }
+
+    private static List<Screening> build(int days, int seatsSold) {
+        Movie movie = new Movie("Benchmark", "", "Drama", 120, null, "PG");
+        LocalDate first = LocalDate.of(2026, 1, 1);
+        List<Screening> screenings = new ArrayList<>(HALLS * days * SCREENINGS_PER_DAY);
+        for (int hall = 0; hall < HALLS; hall++) {
+            for (int day = 0; day < days; day++) {
+                for (int slot = 0; slot < SCREENINGS_PER_DAY; slot++) {
+                    Screening screening = new Screening(movie, first.plusDays(day), LocalTime.of(10 + slot * 3, 0),
+                            "Hall " + (hall + 1), 10, ROWS, SEATS_PER_ROW);
+                    List<Seat> seats = screening.getSeats();
+                    for (int i = 0; i < seatsSold; i++) {
+                        seats.get(i * 7 % seats.size()).reserve();
+                    }
+                    screenings.add(screening);
+                }
+            }
+        }
+        return screenings;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
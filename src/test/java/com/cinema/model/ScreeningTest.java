@@ -0,0 +1,120 @@
+package com.cinema.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScreeningTest {
+    private static final int THREADS = 8;
+
+    private static Screening newScreening() {
+        Movie movie = new Movie("Test", "A test movie", "Drama", 100, null, "PG");
+        return new Screening(movie, LocalDate.of(2026, 1, 1), LocalTime.of(20, 0), "Hall 1", 10, 10, 12);
+    }
+
+    @Test
+    void tryReserveReservesNothingWhenOneSeatIsTaken() {
+        Screening screening = newScreening();
+        Seat taken = screening.getSeat(0, 2);
+        assertTrue(screening.tryReserve(List.of(taken)).isEmpty());
+
+        List<Seat> conflicts = screening.tryReserve(List.of(screening.getSeat(0, 1), taken, screening.getSeat(0, 3)));
+
+        assertEquals(List.of(taken.getCode()), codes(conflicts));
+        assertTrue(screening.getSeat(0, 1).isAvailable());
+        assertTrue(screening.getSeat(0, 3).isAvailable());
+        assertEquals(1, screening.getReservedSeatCount());
+    }
+
+    @Test
+    void tryReserveSpanningBitmapWordsRollsBackEarlierWords() {
+        // 120 seats take two bitmap words; the conflict is in the second one
+        Screening screening = newScreening();
+        Seat taken = screening.getSeat(9, 12);
+        assertTrue(screening.tryReserve(List.of(taken)).isEmpty());
+
+        List<Seat> conflicts = screening.tryReserve(List.of(screening.getSeat(0, 1), screening.getSeat(5, 6), taken));
+
+        assertFalse(conflicts.isEmpty());
+        assertTrue(screening.getSeat(0, 1).isAvailable());
+        assertTrue(screening.getSeat(5, 6).isAvailable());
+        assertEquals(1, screening.getReservedSeatCount());
+    }
+
+    @Test
+    void concurrentOverlappingRequestsReserveDisjointSeatsOnly() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            Screening screening = newScreening();
+
+            // Every request overlaps its neighbours, and the last ones cross into the second bitmap word
+            List<List<Seat>> requests = new ArrayList<>();
+            for (int i = 0; i < THREADS * 4; i++) {
+                List<Seat> seats = new ArrayList<>();
+                for (int j = 0; j < 3; j++) {
+                    seats.add(screening.getSeats().get((i * 2 + j) % screening.getCapacity()));
+                }
+                requests.add(seats);
+            }
+
+            List<List<Seat>> granted = reserveConcurrently(screening, requests);
+
+            Set<Integer> grantedCodes = new HashSet<>();
+            int grantedSeats = 0;
+            for (List<Seat> seats : granted) {
+                grantedCodes.addAll(codes(seats));
+                grantedSeats += seats.size();
+            }
+            assertEquals(grantedSeats, grantedCodes.size(), "a seat was granted to two requests");
+            assertEquals(grantedCodes, new HashSet<>(codes(screening.getReservedSeats())),
+                    "a failed request left seats reserved");
+        }
+    }
+
+    private static List<List<Seat>> reserveConcurrently(Screening screening, List<List<Seat>> requests)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (List<Seat> seats : requests) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return screening.tryReserve(seats).isEmpty();
+                }));
+            }
+            start.countDown();
+
+            List<List<Seat>> granted = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                if (results.get(i).get(10, TimeUnit.SECONDS)) {
+                    granted.add(requests.get(i));
+                }
+            }
+            return granted;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<Integer> codes(List<Seat> seats) {
+        List<Integer> codes = new ArrayList<>();
+        for (Seat seat : seats) {
+            codes.add(seat.getCode());
+        }
+        return codes;
+    }
+}
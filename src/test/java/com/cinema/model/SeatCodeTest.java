@@ -0,0 +1,56 @@
+package com.cinema.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatCodeTest {
+
+    @Test
+    void labelsRoundTrip() {
+        for (int row : new int[]{0, 1, 25, 26, 27, 51, 52, 255, 256, 701, 702, 0x7FFF}) {
+            for (int seatNumber : new int[]{1, 9, 10, 123, 0x7FFF}) {
+                int code = SeatCode.of(row, seatNumber);
+                assertEquals(row, SeatCode.row(code));
+                assertEquals(seatNumber, SeatCode.seatNumber(code));
+                assertEquals(code, SeatCode.parse(SeatCode.format(code)), SeatCode.format(code));
+            }
+        }
+    }
+
+    @Test
+    void rowsAreLabelledLikeSpreadsheetColumns() {
+        assertEquals("A7", SeatCode.format(SeatCode.of(0, 7)));
+        assertEquals("Z1", SeatCode.format(SeatCode.of(25, 1)));
+        assertEquals("AA1", SeatCode.format(SeatCode.of(26, 1)));
+        assertEquals("BA12", SeatCode.format(SeatCode.of(52, 12)));
+        assertEquals(SeatCode.of(27, 3), SeatCode.parse("ab3"));
+        assertEquals(702, SeatCode.parseRow("AAA"));
+    }
+
+    @Test
+    void malformedLabelsAreInvalid() {
+        for (String label : new String[]{null, "", "A", "7", "A0", "A-1", "A1B", "1A", "A99999"}) {
+            assertEquals(SeatCode.INVALID, SeatCode.parse(label), String.valueOf(label));
+        }
+        assertEquals(-1, SeatCode.parseRow("A1"));
+        assertEquals(-1, SeatCode.parseRow(""));
+    }
+
+    @Test
+    void outOfRangePositionsAreInvalidAndValidCodesAreNotNegative() {
+        assertEquals(SeatCode.INVALID, SeatCode.of(-1, 1));
+        assertEquals(SeatCode.INVALID, SeatCode.of(0, 0));
+        assertEquals(SeatCode.INVALID, SeatCode.of(0x8000, 1));
+        assertEquals(SeatCode.INVALID, SeatCode.of(0xFFFF, 0xFFFF));
+        assertTrue(SeatCode.of(0x7FFF, 0x7FFF) >= 0);
+    }
+
+    @Test
+    void invalidCodeHasNoPosition() {
+        assertThrows(IllegalArgumentException.class, () -> SeatCode.row(SeatCode.INVALID));
+        assertThrows(IllegalArgumentException.class, () -> SeatCode.seatNumber(SeatCode.INVALID));
+    }
+}
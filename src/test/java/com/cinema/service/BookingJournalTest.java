@@ -0,0 +1,151 @@
+package com.cinema.service;
+
+import com.cinema.model.Screening;
+import com.cinema.model.Ticket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingJournalTest {
+    @TempDir
+    Path dir;
+
+    private final Screening screening = TestScreenings.newScreening();
+
+    private Ticket newTicket(int seat) {
+        return new Ticket(screening, "Guest", "No. " + seat, List.of(screening.getSeats().get(seat)));
+    }
+
+    private Path journalFile() {
+        return dir.resolve("bookings.journal");
+    }
+
+    private BookingJournal open() {
+        BookingJournal journal = BookingJournal.open(journalFile());
+        assertNotNull(journal);
+        return journal;
+    }
+
+    /**
+     * Appends a booking for each ticket, one at a time, and returns the tickets.
+     */
+    private static List<Ticket> book(BookingJournal journal, List<Ticket> tickets) throws Exception {
+        for (Ticket ticket : tickets) {
+            journal.append(null, ticket).get(5, TimeUnit.SECONDS);
+        }
+        return tickets;
+    }
+
+    private static List<String> recoveredIds(BookingJournal journal) {
+        List<String> ids = new ArrayList<>();
+        for (BookingJournal.Entry entry : journal.getRecoveredEntries()) {
+            ids.add(entry.getNewTicket().id);
+        }
+        return ids;
+    }
+
+    @Test
+    void uncommittedOperationsAreRecoveredAfterReopening() throws Exception {
+        BookingJournal journal = open();
+        List<Ticket> tickets = book(journal, List.of(newTicket(0), newTicket(1), newTicket(2)));
+        journal.markCommitted(2);
+        journal.close();
+
+        BookingJournal reopened = open();
+        assertEquals(List.of(tickets.get(0).getId(), tickets.get(2).getId()), recoveredIds(reopened));
+        BookingJournal.Entry first = reopened.getRecoveredEntries().get(0);
+        assertEquals(1, first.getSequence());
+        assertNull(first.getOldTicket());
+        assertEquals(screening.getId(), first.getNewTicket().screeningId);
+        assertArrayEquals(new int[]{tickets.get(0).getSeats().get(0).getCode()}, first.getNewTicket().seatCodes);
+        assertEquals(3, reopened.getLastSequence());
+        reopened.close();
+    }
+
+    @Test
+    void tornTailIsCutOff() throws Exception {
+        BookingJournal journal = open();
+        List<Ticket> tickets = book(journal, List.of(newTicket(0), newTicket(1)));
+        journal.close();
+        long intactSize = Files.size(journalFile());
+
+        // A record header promising more bytes than were written before the crash
+        Files.write(journalFile(), ByteBuffer.allocate(12).putInt(200).putInt(0).putInt(7).array(),
+                StandardOpenOption.APPEND);
+
+        BookingJournal reopened = open();
+        assertEquals(List.of(tickets.get(0).getId(), tickets.get(1).getId()), recoveredIds(reopened));
+        reopened.close();
+        assertEquals(intactSize, Files.size(journalFile()));
+    }
+
+    @Test
+    void recordWithBadChecksumAndEverythingAfterItIsDropped() throws Exception {
+        BookingJournal journal = open();
+        List<Ticket> tickets = book(journal, List.of(newTicket(0), newTicket(1), newTicket(2)));
+        journal.close();
+
+        // Flip the last payload byte of the last record
+        byte[] bytes = Files.readAllBytes(journalFile());
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(journalFile(), bytes);
+
+        BookingJournal reopened = open();
+        assertEquals(List.of(tickets.get(0).getId(), tickets.get(1).getId()), recoveredIds(reopened));
+        // The damaged operation's sequence number is free again
+        assertEquals(2, reopened.getLastSequence());
+        reopened.close();
+    }
+
+    @Test
+    void committedOperationsAreCompactedAwayAndSequenceNumbersKeepGrowing() throws Exception {
+        BookingJournal journal = open();
+        // Well over the compaction threshold if nothing were ever dropped
+        List<CompletableFuture<Void>> committed = new ArrayList<>();
+        for (int i = 0; i < 12_000; i++) {
+            committed.add(journal.append(null, newTicket(i % screening.getCapacity()))
+                    .thenAccept(journal::markCommitted));
+        }
+        CompletableFuture.allOf(committed.toArray(CompletableFuture<?>[]::new)).get(30, TimeUnit.SECONDS);
+        Ticket pending = newTicket(5);
+        long pendingSequence = journal.append(null, pending).get(5, TimeUnit.SECONDS);
+        journal.close();
+
+        assertEquals(12_001, pendingSequence);
+        assertTrue(Files.size(journalFile()) < 1 << 20, "journal was not compacted: " + Files.size(journalFile()));
+
+        BookingJournal reopened = open();
+        assertEquals(List.of(pending.getId()), recoveredIds(reopened));
+        reopened.markCommitted(pendingSequence);
+        reopened.close();
+
+        // Once nothing is left to recover, the header alone remembers where numbering stopped
+        BookingJournal empty = open();
+        assertTrue(empty.getRecoveredEntries().isEmpty());
+        assertEquals(12_002, (long) empty.append(null, newTicket(0)).get(5, TimeUnit.SECONDS));
+        empty.close();
+    }
+
+    @Test
+    void unknownVersionIsRejectedAndLeftUntouched() throws Exception {
+        byte[] newer = ByteBuffer.allocate(16).putInt(0x434A4E4C).putInt(99).putLong(42).array();
+        Files.write(journalFile(), newer);
+
+        assertNull(BookingJournal.open(journalFile()));
+        assertArrayEquals(newer, Files.readAllBytes(journalFile()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.cinema.service;
+
+import com.cinema.model.Movie;
+import com.cinema.model.Screening;
+import com.cinema.model.Seat;
+import com.cinema.model.Ticket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.cinema.service.TestScreenings.DAY;
+import static com.cinema.service.TestScreenings.book;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTest {
+    // Header size and where the offset table starts, as laid out by CatalogSnapshot.save
+    private static final int HEADER_BYTES = 48;
+
+    @TempDir
+    Path dir;
+
+    private final Movie movie = TestScreenings.newMovie();
+    private final Screening screening = TestScreenings.newScreening(movie, DAY, LocalTime.of(20, 0));
+    private List<Ticket> tickets;
+
+    @BeforeEach
+    void sellTickets() {
+        // Sold through the screening, so its bitmap holds exactly the tickets' seats
+        tickets = List.of(
+                book(screening, "Ann", "One", List.of(screening.getSeat(0, 1))),
+                book(screening, "Bob", "Two", List.of(screening.getSeat(0, 2), screening.getSeat(0, 3))),
+                book(screening, "Cat", "Three", List.of(screening.getSeat(4, 6))));
+    }
+
+    private Path save() {
+        assertTrue(CatalogSnapshot.save(dir, List.of(movie), List.of(screening), tickets, Map.of(), 7));
+        return dir.resolve("catalog-1.snapshot");
+    }
+
+    @Test
+    void savedCatalogReadsBack() {
+        save();
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(dir);
+
+        assertNotNull(snapshot);
+        assertEquals(7, snapshot.getJournalSequence());
+        assertEquals(movie.getId(), snapshot.readMovie(0).getId());
+        Screening restored = snapshot.readScreening(0, index -> index == 0 ? movie : null);
+        assertEquals(screening.getId(), restored.getId());
+        assertNull(restored.getExplicitEndTime());
+        assertEquals(screening.getEndTime(), restored.getEndTime());
+        Set<Integer> ticketSeats = new HashSet<>();
+        for (int i = 0; i < tickets.size(); i++) {
+            BookingJournal.TicketSnapshot ticket = snapshot.readTicket(i);
+            assertEquals(tickets.get(i).getId(), ticket.id);
+            for (int seatCode : ticket.seatCodes) {
+                assertTrue(ticketSeats.add(seatCode), "two tickets share a seat");
+            }
+        }
+        Set<Integer> reservedSeats = new HashSet<>();
+        for (Seat seat : restored.getReservedSeats()) {
+            reservedSeats.add(seat.getCode());
+        }
+        assertEquals(4, reservedSeats.size());
+        assertEquals(ticketSeats, reservedSeats);
+    }
+
+    @Test
+    void damagedTicketRecordIsSkippedAndTheOthersStillRead() throws Exception {
+        Path file = save();
+        byte[] bytes = Files.readAllBytes(file);
+        // Records are indexed movies, then screenings, then tickets
+        int offset = ByteBuffer.wrap(bytes).getInt(HEADER_BYTES + (1 + 1 + 1) * 4);
+        bytes[offset + 8 + 10] ^= 0x5A;
+        Files.write(file, bytes);
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(dir);
+
+        assertNotNull(snapshot);
+        assertEquals(3, snapshot.getTicketCount());
+        assertEquals(tickets.get(0).getId(), snapshot.readTicket(0).id);
+        assertNull(snapshot.readTicket(1));
+        assertEquals(tickets.get(2).getId(), snapshot.readTicket(2).id);
+        assertEquals(movie.getId(), snapshot.readMovie(0).getId());
+        assertNotNull(snapshot.readScreening(0, index -> movie));
+    }
+
+    @Test
+    void damagedOffsetTableInvalidatesTheFile() throws Exception {
+        Path file = save();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[HEADER_BYTES + 2] ^= 0x01;
+        Files.write(file, bytes);
+
+        assertNull(CatalogSnapshot.open(dir));
+    }
+}
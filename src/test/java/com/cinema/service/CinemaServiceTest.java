@@ -0,0 +1,214 @@
+package com.cinema.service;
+
+import com.cinema.model.Screening;
+import com.cinema.model.Seat;
+import com.cinema.model.Ticket;
+import com.cinema.model.User;
+import com.cinema.model.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two terminals selling seats of the same screening through one shared
+ * {@link InMemoryDataStore}.
+ */
+class CinemaServiceTest {
+    private static final int THREADS_PER_TERMINAL = 4;
+
+    @TempDir
+    Path firstDirectory;
+
+    @TempDir
+    Path secondDirectory;
+
+    private final List<CinemaService> terminals = new ArrayList<>();
+
+    @AfterEach
+    void shutDownTerminals() {
+        for (CinemaService terminal : terminals) {
+            terminal.shutdown();
+        }
+    }
+
+    @Test
+    void seatSoldAtOneTerminalCannotBeSoldAtTheOther() throws Exception {
+        InMemoryDataStore store = new InMemoryDataStore();
+        CinemaService first = start(store, firstDirectory);
+        Screening screening = first.getAllMovies().get(0).getScreenings().get(0);
+        CinemaService second = start(store.connect(), secondDirectory);
+        Screening sameScreening = awaitScreening(second, screening.getId());
+
+        assertNotNull(first.createTicketForCustomerAsync(screening, List.of(screening.getSeat(0, 1)), "Ann", "Lee").get());
+
+        // Act as if the second terminal has not heard of the sale yet, so only the shared claim can stop it
+        sameScreening.getSeat(0, 1).release();
+        assertNull(second.createTicketForCustomerAsync(sameScreening,
+                List.of(sameScreening.getSeat(0, 1), sameScreening.getSeat(0, 2)), "Bob", "Ray").get());
+        assertTrue(sameScreening.getSeat(0, 2).isAvailable(), "the failed sale kept a seat");
+        assertNotNull(second.createTicketForCustomerAsync(sameScreening, List.of(sameScreening.getSeat(0, 2)), "Bob", "Ray")
+                .get());
+    }
+
+    @Test
+    void concurrentSalesAtTwoTerminalsNeverShareASeat() throws Exception {
+        InMemoryDataStore store = new InMemoryDataStore();
+        CinemaService first = start(store, firstDirectory);
+        Screening screening = first.getAllMovies().get(0).getScreenings().get(0);
+        InMemoryDataStore secondStore = store.connect();
+        secondStore.setLatency(1, 2);
+        CinemaService second = start(secondStore, secondDirectory);
+        Screening sameScreening = awaitScreening(second, screening.getId());
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS_PER_TERMINAL * 2);
+        List<Ticket> sold = new ArrayList<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Ticket>> sales = new ArrayList<>();
+            // Overlapping pairs of seats in the first row, tried by both terminals
+            for (int i = 0; i < 8; i++) {
+                int seatNumber = i + 1;
+                sales.add(pool.submit(() -> sell(first, screening, seatNumber, start)));
+                sales.add(pool.submit(() -> sell(second, sameScreening, seatNumber, start)));
+            }
+            start.countDown();
+            for (Future<Ticket> sale : sales) {
+                Ticket ticket = sale.get(30, TimeUnit.SECONDS);
+                if (ticket != null) {
+                    sold.add(ticket);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertFalse(sold.isEmpty());
+        Set<Integer> soldCodes = new HashSet<>();
+        int soldSeats = 0;
+        for (Ticket ticket : sold) {
+            for (int seatCode : ticket.getSeatCodes()) {
+                soldCodes.add(seatCode);
+            }
+            soldSeats += ticket.getSeatCodes().length;
+        }
+        assertEquals(soldSeats, soldCodes.size(), "a seat was sold twice");
+
+        // Once the replicas have caught up, both terminals show exactly the sold seats as taken
+        awaitReservedSeats(screening, soldCodes);
+        awaitReservedSeats(sameScreening, soldCodes);
+    }
+
+    @Test
+    void saleWhoseUploadFailsReachesTheStoreOnRetry() throws Exception {
+        InMemoryDataStore store = new InMemoryDataStore();
+        CinemaService terminal = start(store, firstDirectory);
+        Screening screening = terminal.getAllMovies().get(0).getScreenings().get(0);
+
+        store.failNextWrites(1);
+        Ticket ticket = terminal.createTicketForCustomerAsync(screening, List.of(screening.getSeat(0, 1)), "Ann", "Lee")
+                .get(5, TimeUnit.SECONDS);
+        assertNotNull(ticket);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        boolean uploaded = false;
+        while (!uploaded && System.currentTimeMillis() < deadline) {
+            uploaded = store.getTicketsForScreening(screening.getId()).get(5, TimeUnit.SECONDS).stream()
+                    .anyMatch(remote -> remote.getId().equals(ticket.getId()));
+            if (!uploaded) {
+                Thread.sleep(10);
+            }
+        }
+        assertTrue(uploaded, "the ticket never reached the store");
+    }
+
+    @Test
+    void userWhoseSaveFailsIsReportedAndCanBeAddedAgain() throws Exception {
+        InMemoryDataStore store = new InMemoryDataStore();
+        CinemaService terminal = start(store, firstDirectory);
+        User user = new User("new@cinema.com", "New", "User", "123", "secret", UserRole.CASHIER);
+
+        store.failNextWrites(1);
+        assertThrows(ExecutionException.class, () -> terminal.registerUserAsync(user).get(5, TimeUnit.SECONDS));
+        assertFalse(terminal.userExists(user.getEmail()));
+
+        assertTrue(terminal.registerUserAsync(user).get(5, TimeUnit.SECONDS));
+        assertNotNull(store.getUserByEmail(user.getEmail()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deletedScreeningDisappearsFromTheOtherTerminal() throws Exception {
+        InMemoryDataStore store = new InMemoryDataStore();
+        CinemaService first = start(store, firstDirectory);
+        Screening screening = first.getAllMovies().get(0).getScreenings().get(0);
+        CinemaService second = start(store.connect(), secondDirectory);
+        awaitScreening(second, screening.getId());
+
+        assertTrue(first.deleteScreening(screening.getId()));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (second.getScreeningById(screening.getId()) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(second.getScreeningById(screening.getId()), "the screening is still shown at the other terminal");
+    }
+
+    private CinemaService start(InMemoryDataStore store, Path directory) {
+        CinemaService terminal = new CinemaService(store, directory);
+        terminals.add(terminal);
+        return terminal;
+    }
+
+    private static Ticket sell(CinemaService terminal, Screening screening, int seatNumber, CountDownLatch start)
+            throws Exception {
+        start.await();
+        List<Seat> seats = List.of(screening.getSeat(0, seatNumber), screening.getSeat(0, seatNumber + 1));
+        return terminal.createTicketForCustomerAsync(screening, seats, "Customer", String.valueOf(seatNumber)).get();
+    }
+
+    private static Screening awaitScreening(CinemaService terminal, String screeningId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        Screening screening;
+        while ((screening = terminal.getScreeningById(screeningId)) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(screening, "the screening never reached the second terminal");
+        return screening;
+    }
+
+    private static void awaitReservedSeats(Screening screening, Set<Integer> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        Set<Integer> reserved = reservedCodes(screening);
+        while (!reserved.equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            reserved = reservedCodes(screening);
+        }
+        assertEquals(expected, reserved);
+    }
+
+    private static Set<Integer> reservedCodes(Screening screening) {
+        Set<Integer> codes = new HashSet<>();
+        for (Seat seat : screening.getReservedSeats()) {
+            codes.add(seat.getCode());
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cinema.service;
+
+import com.cinema.model.Screening;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.cinema.service.TestScreenings.DAY;
+import static com.cinema.service.TestScreenings.newScreening;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HallScheduleTest {
+    private static Screening add(HallSchedule schedule, LocalDate date, int startHour, int endHour) {
+        Screening screening = newScreening(date, LocalTime.of(startHour, 0));
+        schedule.add(screening, HallSchedule.startMinute(date, LocalTime.of(startHour, 0)),
+                HallSchedule.endMinute(date, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0)));
+        return screening;
+    }
+
+    private static long at(LocalDate date, int hour, int minute) {
+        return HallSchedule.startMinute(date, LocalTime.of(hour, minute));
+    }
+
+    @Test
+    void overlappingSlotsConflictAndTouchingSlotsDoNot() {
+        HallSchedule schedule = new HallSchedule();
+        Screening afternoon = add(schedule, DAY, 14, 16);
+        add(schedule, DAY, 10, 12);
+        add(schedule, DAY, 18, 20);
+
+        assertSame(afternoon, schedule.findConflict(at(DAY, 15, 0), at(DAY, 17, 0), 0));
+        assertSame(afternoon, schedule.findConflict(at(DAY, 13, 0), at(DAY, 17, 0), 0));
+        assertSame(afternoon, schedule.findConflict(at(DAY, 14, 30), at(DAY, 15, 0), 0));
+        assertNull(schedule.findConflict(at(DAY, 16, 0), at(DAY, 18, 0), 0));
+        assertNull(schedule.findConflict(at(DAY, 12, 0), at(DAY, 14, 0), 0));
+    }
+
+    @Test
+    void gapWidensTheCheckedSlot() {
+        HallSchedule schedule = new HallSchedule();
+        Screening afternoon = add(schedule, DAY, 14, 16);
+
+        assertNull(schedule.findConflict(at(DAY, 16, 15), at(DAY, 18, 0), 15));
+        assertSame(afternoon, schedule.findConflict(at(DAY, 16, 10), at(DAY, 18, 0), 15));
+        assertSame(afternoon, schedule.findConflict(at(DAY, 12, 0), at(DAY, 13, 50), 15));
+    }
+
+    @Test
+    void screeningPastMidnightBlocksTheNextMorning() {
+        assertEquals(at(DAY.plusDays(1), 1, 0), HallSchedule.endMinute(DAY, LocalTime.of(23, 0), LocalTime.of(1, 0)));
+        assertEquals(at(DAY.plusDays(1), 22, 0),
+                HallSchedule.endMinute(DAY, LocalTime.of(22, 0), LocalTime.of(22, 0)));
+
+        HallSchedule schedule = new HallSchedule();
+        Screening late = add(schedule, DAY, 23, 1);
+        LocalDate nextDay = DAY.plusDays(1);
+
+        assertSame(late, schedule.findConflict(at(nextDay, 0, 30), at(nextDay, 2, 0), 0));
+        assertNull(schedule.findConflict(at(nextDay, 1, 0), at(nextDay, 3, 0), 0));
+    }
+
+    @Test
+    void addIfFreeRejectsConflictsAndRemoveFreesTheSlot() {
+        HallSchedule schedule = new HallSchedule();
+        Screening first = newScreening(DAY, LocalTime.of(14, 0));
+        Screening second = newScreening(DAY, LocalTime.of(15, 0));
+
+        assertNull(schedule.addIfFree(first, at(DAY, 14, 0), at(DAY, 16, 0), 0));
+        assertSame(first, schedule.addIfFree(second, at(DAY, 15, 0), at(DAY, 17, 0), 0));
+
+        schedule.remove(first, at(DAY, 14, 0));
+        assertTrue(schedule.isEmpty());
+        assertNull(schedule.addIfFree(second, at(DAY, 15, 0), at(DAY, 17, 0), 0));
+        assertFalse(schedule.isEmpty());
+    }
+
+    @Test
+    void removeKeepsOtherScreeningsWithTheSameStart() {
+        HallSchedule schedule = new HallSchedule();
+        Screening original = null;
+        for (int hour = 0; hour < 24; hour += 2) {
+            Screening screening = add(schedule, DAY, hour, hour + 1);
+            if (hour == 10) {
+                original = screening;
+            }
+        }
+        Screening twin = newScreening(DAY, LocalTime.of(10, 0));
+        schedule.add(twin, at(DAY, 10, 0), at(DAY, 11, 0));
+
+        schedule.remove(twin, at(DAY, 10, 0));
+
+        assertSame(original, schedule.findConflict(at(DAY, 10, 0), at(DAY, 11, 0), 0));
+    }
+}
@@ -0,0 +1,60 @@
+package com.cinema.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+    private final HashedTimingWheel wheel = new HashedTimingWheel(10, TimeUnit.MILLISECONDS, 8);
+
+    @AfterEach
+    void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    void taskRunsAfterItsDelay() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        long started = System.nanoTime();
+
+        HashedTimingWheel.Timeout timeout = wheel.schedule(ran::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertFalse(timeout.cancel(), "a task that already ran cannot be cancelled");
+    }
+
+    @Test
+    void cancelledTaskDoesNotRun() throws Exception {
+        AtomicBoolean cancelledRan = new AtomicBoolean();
+        CountDownLatch later = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout timeout = wheel.schedule(() -> cancelledRan.set(true), 30, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.cancel());
+        wheel.schedule(later::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(later.await(5, TimeUnit.SECONDS));
+        assertFalse(cancelledRan.get());
+    }
+
+    @Test
+    void delayLongerThanOneRotationWaitsForItsRound() throws Exception {
+        // 8 buckets of 10 ms make an 80 ms rotation; 250 ms needs three of them
+        CountDownLatch ran = new CountDownLatch(1);
+        long started = System.nanoTime();
+
+        wheel.schedule(ran::countDown, 250, TimeUnit.MILLISECONDS);
+
+        assertFalse(ran.await(150, TimeUnit.MILLISECONDS), "task ran a rotation early");
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(250));
+    }
+}
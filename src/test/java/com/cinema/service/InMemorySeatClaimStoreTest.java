@@ -0,0 +1,101 @@
+package com.cinema.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemorySeatClaimStoreTest {
+    private static final String SCREENING = "screening-1";
+    private static final int THREADS = 8;
+
+    @Test
+    void conflictingClaimLeavesNoSeatsBehind() throws Exception {
+        InMemorySeatClaimStore store = new InMemorySeatClaimStore();
+        assertTrue(store.claimSeats(SCREENING, new int[]{2}, "first", null).get().isEmpty());
+
+        assertEquals(List.of(2), store.claimSeats(SCREENING, new int[]{1, 2, 3}, "second", null).get());
+
+        assertTrue(store.claimSeats(SCREENING, new int[]{1, 3}, "third", null).get().isEmpty());
+    }
+
+    @Test
+    void previousOwnerHandsItsSeatsOver() throws Exception {
+        InMemorySeatClaimStore store = new InMemorySeatClaimStore();
+        store.claimSeats(SCREENING, new int[]{1, 2}, "hold", null).get();
+
+        assertEquals(List.of(1), store.claimSeats(SCREENING, new int[]{1, 5}, "other", null).get());
+        assertTrue(store.claimSeats(SCREENING, new int[]{1, 2, 3}, "ticket", "hold").get().isEmpty());
+
+        // The hold no longer owns anything it could release
+        store.releaseSeats(SCREENING, new int[]{1, 2}, "hold").get();
+        assertEquals(List.of(1), store.claimSeats(SCREENING, new int[]{1}, "other", null).get());
+    }
+
+    @Test
+    void concurrentOverlappingClaimsGrantEachSeatOnce() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            InMemorySeatClaimStore store = new InMemorySeatClaimStore();
+            List<int[]> requests = new ArrayList<>();
+            for (int i = 0; i < THREADS * 4; i++) {
+                requests.add(new int[]{i * 2, i * 2 + 1, i * 2 + 2});
+            }
+
+            List<int[]> granted = claimConcurrently(store, requests);
+
+            Set<Integer> grantedCodes = new HashSet<>();
+            int grantedSeats = 0;
+            for (int[] seats : granted) {
+                for (int seatCode : seats) {
+                    grantedCodes.add(seatCode);
+                }
+                grantedSeats += seats.length;
+            }
+            assertEquals(grantedSeats, grantedCodes.size(), "a seat was granted to two owners");
+
+            // Seats of failed claims must be free again
+            for (int seatCode = 0; seatCode <= requests.size() * 2; seatCode++) {
+                boolean free = store.claimSeats(SCREENING, new int[]{seatCode}, "probe", null).get().isEmpty();
+                assertEquals(!grantedCodes.contains(seatCode), free, "seat " + seatCode);
+            }
+        }
+    }
+
+    private static List<int[]> claimConcurrently(InMemorySeatClaimStore store, List<int[]> requests)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                int[] seats = requests.get(i);
+                String owner = "owner-" + i;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return store.claimSeats(SCREENING, seats, owner, null).get().isEmpty();
+                }));
+            }
+            start.countDown();
+
+            List<int[]> granted = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                if (results.get(i).get(10, TimeUnit.SECONDS)) {
+                    granted.add(requests.get(i));
+                }
+            }
+            return granted;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.cinema.service;
+
+import com.cinema.model.Movie;
+import com.cinema.model.Screening;
+import com.cinema.model.Seat;
+import com.cinema.model.Ticket;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Movies, screenings and tickets shared by the service tests.
+ */
+final class TestScreenings {
+    static final LocalDate DAY = LocalDate.of(2026, 1, 1);
+
+    private TestScreenings() {
+    }
+
+    /**
+     * A 100 minute movie.
+     */
+    static Movie newMovie() {
+        return new Movie("Test", "A test movie", "Drama", 100, null, "PG");
+    }
+
+    /**
+     * A screening in Hall 1 with 10 rows of 12 seats.
+     */
+    static Screening newScreening(Movie movie, LocalDate date, LocalTime time) {
+        return new Screening(movie, date, time, "Hall 1", 10, 10, 12);
+    }
+
+    static Screening newScreening(LocalDate date, LocalTime time) {
+        return newScreening(newMovie(), date, time);
+    }
+
+    /**
+     * A screening of a new movie at 20:00 on {@link #DAY}.
+     */
+    static Screening newScreening() {
+        return newScreening(DAY, LocalTime.of(20, 0));
+    }
+
+    /**
+     * Reserves the seats and issues a ticket for them, as a sale does.
+     */
+    static Ticket book(Screening screening, String firstName, String lastName, List<Seat> seats) {
+        assertTrue(screening.tryReserve(seats).isEmpty(), "the seats are already taken");
+        return new Ticket(screening, firstName, lastName, seats);
+    }
+}
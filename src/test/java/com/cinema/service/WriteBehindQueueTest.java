@@ -0,0 +1,138 @@
+package com.cinema.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+    private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+    private final List<Map<String, Object>> batches = new ArrayList<>();
+    private final List<CompletableFuture<Void>> acks = new ArrayList<>();
+
+    private volatile boolean acknowledgeOnSend;
+    private WriteBehindQueue queue;
+
+    private WriteBehindQueue newQueue(int maxDepth) {
+        // The flush interval is never reached, so only flushNow and shutdown send batches
+        queue = new WriteBehindQueue((batch, ack) -> {
+            synchronized (batches) {
+                batches.add(new HashMap<>(batch));
+                acks.add(ack);
+            }
+            if (acknowledgeOnSend) {
+                ack.complete(null);
+            }
+        }, NEVER, maxDepth);
+        return queue;
+    }
+
+    private void acknowledgeAll() {
+        synchronized (batches) {
+            for (CompletableFuture<Void> ack : acks) {
+                ack.complete(null);
+            }
+        }
+    }
+
+    @AfterEach
+    void shutdownQueue() {
+        acknowledgeAll();
+        queue.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void writesToTheSamePathAreSentOnceWithTheLatestValue() throws Exception {
+        newQueue(1000);
+        CompletableFuture<Void> first = queue.enqueue("screenings/s1/price", 10);
+        CompletableFuture<Void> second = queue.enqueue("screenings/s1/price", 12);
+        CompletableFuture<Void> other = queue.enqueue("screenings/s2/price", 8);
+
+        queue.flushNow().get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, batches.size());
+        assertEquals(Map.of("screenings/s1/price", 12, "screenings/s2/price", 8), batches.get(0));
+        assertEquals(1, queue.getCoalescedWrites());
+        assertEquals(2, queue.getDepth());
+        assertFalse(first.isDone());
+
+        acknowledgeAll();
+        CompletableFuture.allOf(first, second, other).get(5, TimeUnit.SECONDS);
+        assertEquals(1, queue.getFlushedBatches());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    void nestedPathsAreSentInSeparateBatchesInOrder() throws Exception {
+        newQueue(1000);
+        queue.enqueue("tickets/t1/status", "BOOKED");
+        queue.enqueue("tickets/t1", null);
+
+        queue.flushNow().get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, batches.size());
+        assertEquals(Map.of("tickets/t1/status", "BOOKED"), batches.get(0));
+        assertTrue(batches.get(1).containsKey("tickets/t1"));
+    }
+
+    @Test
+    void writesPastMaxDepthAreAllDeliveredWithoutBlocking() throws Exception {
+        newQueue(10);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            writes.add(queue.enqueue("tickets/t" + i, i));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // Nothing is acknowledged yet, so a blocking queue would still be waiting here
+        assertTrue(elapsedMillis < 1000, "enqueue blocked for " + elapsedMillis + " ms");
+        for (CompletableFuture<Void> write : writes) {
+            assertFalse(write.isCompletedExceptionally());
+        }
+        CompletableFuture<Void> capacity = queue.whenBelowCapacity();
+        assertFalse(capacity.isDone(), "a full queue reported room");
+
+        queue.flushNow().get(5, TimeUnit.SECONDS);
+        acknowledgeAll();
+        CompletableFuture.allOf(writes.toArray(CompletableFuture<?>[]::new)).get(5, TimeUnit.SECONDS);
+
+        Map<String, Object> delivered = new HashMap<>();
+        synchronized (batches) {
+            for (Map<String, Object> batch : batches) {
+                delivered.putAll(batch);
+            }
+        }
+        assertEquals(100, delivered.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, delivered.get("tickets/t" + i));
+        }
+        capacity.get(5, TimeUnit.SECONDS);
+        assertEquals(0, queue.getDepth());
+        assertTrue(queue.whenBelowCapacity().isDone());
+    }
+
+    @Test
+    void flushNowAfterShutdownCompletes() throws Exception {
+        newQueue(1000);
+        acknowledgeOnSend = true;
+        CompletableFuture<Void> write = queue.enqueue("movies/m1/title", "Test");
+
+        assertTrue(queue.shutdown(5, TimeUnit.SECONDS));
+
+        queue.flushNow().get(5, TimeUnit.SECONDS);
+        write.get(5, TimeUnit.SECONDS);
+        assertTrue(queue.enqueue("movies/m1/title", "Late").isCompletedExceptionally());
+    }
+}